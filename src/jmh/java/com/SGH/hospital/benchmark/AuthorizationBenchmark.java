@@ -0,0 +1,103 @@
+package com.SGH.hospital.benchmark;
+
+import com.SGH.hospital.config.ReglaAutorizacion;
+import com.SGH.hospital.config.RolesPermitidos;
+import com.SGH.hospital.entity.Paciente;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
+import com.SGH.hospital.service.UsuarioPrincipal;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compara la autorización por SpEL (@PreAuthorize, como estaba antes) con las
+ * reglas compiladas de @RolesPermitidos, para una regla de roles simple y para
+ * la regla "admin o el propio paciente".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationBenchmark {
+
+    // Endpoints de ejemplo con ambas anotaciones, equivalentes entre sí
+    static class Endpoints {
+        @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('ADMIN', 'ENFERMERO', 'PACIENTE')")
+        @RolesPermitidos({Rol.ADMIN, Rol.ENFERMERO, Rol.PACIENTE})
+        public void listar() {
+        }
+
+        @org.springframework.security.access.prepost.PreAuthorize(
+                "hasRole('ADMIN') or (#id == authentication.principal.id and hasRole('PACIENTE'))")
+        @RolesPermitidos(value = Rol.ADMIN, propietario = Rol.PACIENTE)
+        public void actualizar(Long id) {
+        }
+    }
+
+    private PreAuthorizeAuthorizationManager spel;
+    private Supplier<Authentication> authentication;
+    private MethodInvocation invocacionListar;
+    private MethodInvocation invocacionActualizar;
+
+    private UsuarioPrincipal principal;
+    private ReglaAutorizacion reglaListar;
+    private ReglaAutorizacion reglaActualizar;
+    private Map<String, String> uriVariables;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        Paciente paciente = new Paciente();
+        ReflectionTestUtils.setField(paciente, "id", 42L);
+        paciente.setEmail("paciente@hospital.com");
+        paciente.setPassword("hash");
+        paciente.setRol(Rol.PACIENTE);
+        paciente.setEstado(EstadoUsuario.ACTIVO);
+        principal = UsuarioPrincipal.fromUsuario(paciente);
+
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        authentication = () -> auth;
+
+        Endpoints endpoints = new Endpoints();
+        spel = new PreAuthorizeAuthorizationManager();
+        invocacionListar = new SimpleMethodInvocation(endpoints, Endpoints.class.getMethod("listar"));
+        invocacionActualizar = new SimpleMethodInvocation(
+                endpoints, Endpoints.class.getMethod("actualizar", Long.class), 42L);
+
+        reglaListar = ReglaAutorizacion.compilar(
+                Endpoints.class.getMethod("listar").getAnnotation(RolesPermitidos.class));
+        reglaActualizar = ReglaAutorizacion.compilar(
+                Endpoints.class.getMethod("actualizar", Long.class).getAnnotation(RolesPermitidos.class));
+        uriVariables = Map.of("id", "42");
+    }
+
+    @Benchmark
+    public Object spelHasAnyRole() {
+        return spel.authorize(authentication, invocacionListar);
+    }
+
+    @Benchmark
+    public boolean compiladaHasAnyRole() {
+        return reglaListar.permite(principal, uriVariables);
+    }
+
+    @Benchmark
+    public Object spelPropietario() {
+        return spel.authorize(authentication, invocacionActualizar);
+    }
+
+    @Benchmark
+    public boolean compiladaPropietario() {
+        return reglaActualizar.permite(principal, uriVariables);
+    }
+}
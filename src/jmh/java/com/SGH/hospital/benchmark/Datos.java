@@ -0,0 +1,91 @@
+package com.SGH.hospital.benchmark;
+
+import com.SGH.hospital.entity.Especialidad;
+import com.SGH.hospital.entity.HorarioAtencion;
+import com.SGH.hospital.entity.Medico;
+import com.SGH.hospital.entity.Paciente;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Entidades de ejemplo con tamaños realistas para los benchmarks de mapeo y
+ * serialización: un médico con 3 especialidades y 10 franjas horarias
+ * (mañana y tarde de lunes a viernes).
+ */
+final class Datos {
+
+    private Datos() {
+    }
+
+    static Medico medico(long id) {
+        Medico medico = new Medico();
+        ReflectionTestUtils.setField(medico, "id", id);
+        medico.setMatricula("MN-" + (10_000 + id));
+        medico.setNombre("Laura");
+        medico.setApellido("Fernández");
+        medico.setDni(String.valueOf(30_000_000 + id));
+        medico.setEmail("medico" + id + "@hospital.com");
+        medico.setTelefono("+54 11 5555-" + (1000 + id % 9000));
+        medico.setDireccion("Av. Corrientes 1234, CABA");
+        medico.setFechaNacimiento(LocalDate.of(1980, 5, 17));
+        medico.setRol(Rol.MEDICO);
+        medico.setEstado(EstadoUsuario.ACTIVO);
+        medico.setAniosExperiencia(12);
+        medico.setBiografia("Especialista en cardiología clínica con formación en ecocardiografía.");
+        medico.setDisponible(true);
+        ReflectionTestUtils.setField(medico, "createdAt", LocalDateTime.of(2024, 1, 10, 9, 30));
+        ReflectionTestUtils.setField(medico, "updatedAt", LocalDateTime.of(2024, 6, 2, 14, 5));
+
+        String[] nombres = {"Cardiología", "Clínica Médica", "Ecocardiografía"};
+        for (int i = 0; i < nombres.length; i++) {
+            Especialidad especialidad = new Especialidad();
+            especialidad.setId((long) i + 1);
+            especialidad.setNombre(nombres[i]);
+            medico.getEspecialidades().add(especialidad);
+        }
+
+        long horarioId = id * 100;
+        for (DayOfWeek dia : new DayOfWeek[]{DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+                DayOfWeek.THURSDAY, DayOfWeek.FRIDAY}) {
+            medico.getHorariosAtencion().add(horario(++horarioId, medico, dia, 8, 12));
+            medico.getHorariosAtencion().add(horario(++horarioId, medico, dia, 14, 18));
+        }
+        return medico;
+    }
+
+    static Paciente paciente(long id) {
+        Paciente paciente = new Paciente();
+        ReflectionTestUtils.setField(paciente, "id", id);
+        paciente.setNombre("Juan");
+        paciente.setApellido("Pérez");
+        paciente.setDni(String.valueOf(40_000_000 + id));
+        paciente.setEmail("paciente" + id + "@mail.com");
+        paciente.setTelefono("+54 11 4444-" + (1000 + id % 9000));
+        paciente.setDireccion("Calle Falsa 123, Rosario");
+        paciente.setFechaNacimiento(LocalDate.of(1992, 11, 3));
+        paciente.setRol(Rol.PACIENTE);
+        paciente.setEstado(EstadoUsuario.ACTIVO);
+        paciente.setObraSocial("OSDE");
+        paciente.setNumeroAfiliado("61-" + (200_000 + id));
+        ReflectionTestUtils.setField(paciente, "createdAt", LocalDateTime.of(2024, 3, 1, 11, 0));
+        ReflectionTestUtils.setField(paciente, "updatedAt", LocalDateTime.of(2024, 3, 1, 11, 0));
+        return paciente;
+    }
+
+    private static HorarioAtencion horario(long id, Medico medico, DayOfWeek dia, int desde, int hasta) {
+        HorarioAtencion horario = new HorarioAtencion();
+        horario.setId(id);
+        horario.setMedico(medico);
+        horario.setDiaSemana(dia);
+        horario.setHoraInicio(LocalTime.of(desde, 0));
+        horario.setHoraFin(LocalTime.of(hasta, 0));
+        horario.setActivo(true);
+        return horario;
+    }
+}
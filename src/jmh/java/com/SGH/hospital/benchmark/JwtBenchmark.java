@@ -0,0 +1,65 @@
+package com.SGH.hospital.benchmark;
+
+import com.SGH.hospital.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Camino caliente de autenticación en JwtService:
+ *  - generateToken: firma de un access token con los claims de login
+ *  - extractAllClaims: parseo + verificación de firma completa (sin caché)
+ *  - isTokenValid: lo que hace el filtro en cada request (verificación cacheada)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtService jwtService;
+    private UserDetails usuario;
+    private Map<String, Object> claims;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secretKey", "defaultSecretKeyForDevelopmentOnly123456789");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        usuario = User.withUsername("paciente1@mail.com").password("x").roles("PACIENTE").build();
+        claims = new HashMap<>();
+        claims.put("rol", "PACIENTE");
+        claims.put("userId", 1L);
+        claims.put(JwtService.CLAIM_FAMILY, jwtService.newFamily());
+        token = jwtService.generateToken(claims, usuario);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(claims, usuario);
+    }
+
+    @Benchmark
+    public Object extractAllClaims() {
+        return jwtService.extractClaim(token, Function.identity());
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, usuario);
+    }
+}
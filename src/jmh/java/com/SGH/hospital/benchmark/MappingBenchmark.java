@@ -0,0 +1,62 @@
+package com.SGH.hospital.benchmark;
+
+import com.SGH.hospital.dto.medico.MedicoResponse;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.entity.Medico;
+import com.SGH.hospital.entity.Paciente;
+import com.SGH.hospital.service.MedicoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo entidad → DTO que hace cada endpoint de lectura:
+ * MedicoService.convertirAResponse (con especialidades y horarios) y
+ * PacienteResponse.fromEntity.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    // convertirAResponse es privado: un MethodHandle estático lo invoca sin costo de reflexión
+    private static final MethodHandle CONVERTIR_A_RESPONSE;
+
+    static {
+        try {
+            CONVERTIR_A_RESPONSE = MethodHandles.privateLookupIn(MedicoService.class, MethodHandles.lookup())
+                    .findVirtual(MedicoService.class, "convertirAResponse",
+                            MethodType.methodType(MedicoResponse.class, Medico.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private MedicoService medicoService;
+    private Medico medico;
+    private Paciente paciente;
+
+    @Setup
+    public void setup() {
+        // convertirAResponse no usa colaboradores
+        medicoService = new MedicoService(null, null, null, null, null, null, null, null, null);
+        medico = Datos.medico(1);
+        paciente = Datos.paciente(1);
+    }
+
+    @Benchmark
+    public MedicoResponse medicoConvertirAResponse() throws Throwable {
+        return (MedicoResponse) CONVERTIR_A_RESPONSE.invokeExact(medicoService, medico);
+    }
+
+    @Benchmark
+    public PacienteResponse pacienteFromEntity() {
+        return PacienteResponse.fromEntity(paciente);
+    }
+}
@@ -0,0 +1,88 @@
+package com.SGH.hospital.benchmark;
+
+import com.SGH.hospital.SistemaDeGestionHospitalariaApplication;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.dto.paginacion.PaginaResponse;
+import com.SGH.hospital.repository.PacienteRepository;
+import com.SGH.hospital.service.PacienteImportService;
+import com.SGH.hospital.service.PacienteService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una página del listado de pacientes contra H2 en memoria (perfil "test"):
+ *  - entidades: findAll + PacienteResponse.fromEntity, como antes de las proyecciones
+ *  - proyeccion: PacienteService.listarTodos, que construye el DTO en la consulta
+ *    (con conteo exacto, para comparar con el mismo COUNT que findAll)
+ *
+ * Con -prof gc, gc.alloc.rate.norm muestra la memoria asignada por página.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PacienteListadoBenchmark {
+
+    private static final int PACIENTES = 2_000;
+
+    @Param({"20", "500"})
+    public int tamanioPagina;
+
+    private ConfigurableApplicationContext context;
+    private PacienteService pacienteService;
+    private PacienteRepository pacienteRepository;
+    private TransactionTemplate soloLectura;
+    private PageRequest pagina;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SistemaDeGestionHospitalariaApplication.class).run(
+                "--spring.profiles.active=test",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--server.port=0");
+        pacienteService = context.getBean(PacienteService.class);
+        pacienteRepository = context.getBean(PacienteRepository.class);
+        soloLectura = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        soloLectura.setReadOnly(true);
+        pagina = PageRequest.of(0, tamanioPagina, Sort.by("apellido"));
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < PACIENTES; i++) {
+            ndjson.append(String.format("{\"nombre\":\"Ana\",\"apellido\":\"Apellido%05d\",\"dni\":\"%d\","
+                    + "\"email\":\"paciente%d@hospital.com\",\"password\":\"Secreta123\",\"telefono\":\"1155551234\","
+                    + "\"fechaNacimiento\":\"1990-01-01\",\"direccion\":\"Av. Corrientes 1234, CABA\","
+                    + "\"numeroAfiliado\":\"AF-%d\",\"obraSocial\":\"OSDE\"}%n", i, 33_000_000 + i, i, i));
+        }
+        context.getBean(PacienteImportService.class).importar(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)),
+                MediaType.valueOf("application/x-ndjson"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<PacienteResponse> entidades() {
+        return soloLectura.execute(status -> pacienteRepository.findAll(pagina).map(PacienteResponse::fromEntity));
+    }
+
+    @Benchmark
+    public PaginaResponse<PacienteResponse> proyeccion() {
+        return pacienteService.listarTodos(pagina, true);
+    }
+}
@@ -0,0 +1,211 @@
+package com.SGH.hospital.benchmark;
+
+import com.SGH.hospital.SistemaDeGestionHospitalariaApplication;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.service.EspecialidadService;
+import com.SGH.hospital.service.MedicoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Round trips y latencia de las escrituras de MedicoService contra una base H2 en memoria:
+ *  - crearMedico: un médico (usuario + medico) con 3 especialidades y 10 horarios
+ *  - configurarHorarios: reemplazar los 10 horarios de un médico existente
+ *
+ * modo=identity reproduce el mapeo anterior (ids IDENTITY, sin batching) mediante
+ * orm-identity.xml; modo=sequence-batch usa las secuencias pooled-lo y el batching
+ * configurado en application.properties. Cada ejecución de sentencia o commit cuenta
+ * como un round trip y espera rttMicros, para simular la latencia de red real.
+ * Al terminar cada trial se imprime el promedio de round trips por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBatchBenchmark {
+
+    @Param({"identity", "sequence-batch"})
+    public String modo;
+
+    @Param({"0", "300"})
+    public long rttMicros;
+
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong operaciones = new AtomicLong();
+    private final AtomicLong secuencia = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private MedicoService medicoService;
+    private Set<Long> especialidadIds;
+    private Set<HorarioAtencionDTO> horarios;
+    private Long medicoExistente;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Argumentos de línea de comandos: tienen prioridad sobre application.properties
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.keep-alive=false",
+                "--spring.devtools.restart.enabled=false",
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--security.bcrypt.strength=4",
+                "--security.bcrypt.min-strength=4"));
+        if ("identity".equals(modo)) {
+            args.addAll(List.of(
+                    "--spring.jpa.mapping-resources=benchmark/orm-identity.xml",
+                    "--spring.jpa.properties.hibernate.jdbc.batch_size=0",
+                    "--spring.jpa.properties.hibernate.order_inserts=false",
+                    "--spring.jpa.properties.hibernate.order_updates=false"));
+        }
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SistemaDeGestionHospitalariaApplication.class);
+        builder.initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? contarRoundTrips(dataSource) : bean;
+            }
+        }));
+        context = builder.run(args.toArray(String[]::new));
+
+        medicoService = context.getBean(MedicoService.class);
+        EspecialidadService especialidades = context.getBean(EspecialidadService.class);
+        especialidadIds = new HashSet<>();
+        for (String nombre : new String[]{"Cardiología", "Clínica Médica", "Ecocardiografía"}) {
+            especialidadIds.add(especialidades.crear(new EspecialidadRequest(nombre)).getId());
+        }
+
+        horarios = new HashSet<>();
+        for (DayOfWeek dia : new DayOfWeek[]{DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+                DayOfWeek.THURSDAY, DayOfWeek.FRIDAY}) {
+            horarios.add(horario(dia, 8, 12));
+            horarios.add(horario(dia, 14, 18));
+        }
+        medicoExistente = medicoService.crearMedico(request()).getId();
+        roundTrips.set(0);
+        operaciones.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n[%s, rtt=%dus] round trips por operacion: %.1f%n",
+                modo, rttMicros, (double) roundTrips.get() / Math.max(1, operaciones.get()));
+        context.close();
+    }
+
+    @Benchmark
+    public Object crearMedico() {
+        operaciones.incrementAndGet();
+        return medicoService.crearMedico(request());
+    }
+
+    @Benchmark
+    public Object configurarHorarios() {
+        operaciones.incrementAndGet();
+        return medicoService.configurarHorarios(medicoExistente, horarios);
+    }
+
+    private MedicoRequest request() {
+        long n = secuencia.incrementAndGet();
+        MedicoRequest request = new MedicoRequest();
+        request.setMatricula("MN-" + n);
+        request.setNombre("Laura");
+        request.setApellido("Fernández");
+        request.setDni(String.valueOf(30_000_000 + n));
+        request.setEmail("medico" + n + "@hospital.com");
+        request.setPassword("secreta123");
+        request.setTelefono("+54 11 5555-1234");
+        request.setFechaNacimiento(LocalDate.of(1980, 5, 17));
+        request.setEspecialidadIds(especialidadIds);
+        request.setHorarios(horarios);
+        return request;
+    }
+
+    private static HorarioAtencionDTO horario(DayOfWeek dia, int desde, int hasta) {
+        HorarioAtencionDTO dto = new HorarioAtencionDTO();
+        dto.setDiaSemana(dia);
+        dto.setHoraInicio(LocalTime.of(desde, 0));
+        dto.setHoraFin(LocalTime.of(hasta, 0));
+        dto.setActivo(true);
+        return dto;
+    }
+
+    // ---------- Conteo de round trips ----------
+
+    private DataSource contarRoundTrips(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            return result instanceof Connection connection ? proxy(Connection.class, connection, this::conexion) : result;
+        });
+    }
+
+    private Object conexion(Object target, java.lang.reflect.Method method, Object[] args) throws Exception {
+        if (method.getName().equals("commit")) {
+            roundTrip();
+        }
+        Object result = method.invoke(target, args);
+        if (result instanceof Statement statement) {
+            return proxy(method.getReturnType(), statement, (s, m, a) -> {
+                if (m.getName().startsWith("execute")) {
+                    roundTrip();
+                }
+                return m.invoke(s, a);
+            });
+        }
+        return result;
+    }
+
+    private void roundTrip() {
+        roundTrips.incrementAndGet();
+        if (rttMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(rttMicros));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> tipo, T target, Handler handler) {
+        InvocationHandler invocationHandler = (p, method, args) -> {
+            try {
+                return handler.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, invocationHandler);
+    }
+}
@@ -0,0 +1,99 @@
+package com.SGH.hospital.benchmark;
+
+import com.SGH.hospital.config.PiiCipher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo del cifrado de datos personales por operación:
+ *  - lookup: índice ciego de un email (lo que agrega findByEmail/existsByEmail)
+ *  - write: cifrar DNI, email y teléfono + los dos índices ciegos (un INSERT de Usuario)
+ *  - read: descifrar los tres campos (hidratar un Usuario)
+ * Los *SinCache crean Cipher/Mac en cada llamada, como referencia del ahorro por hilo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PiiCipherBenchmark {
+
+    private static final String DNI = "30.123.456";
+    private static final String EMAIL = "juan.perez@hospital.com";
+    private static final String TELEFONO = "+54 11 5555-1234";
+
+    private PiiCipher piiCipher;
+    private byte[] claveAes;
+    private byte[] claveHmac;
+    private String dniCifrado;
+    private String emailCifrado;
+    private String telefonoCifrado;
+    private final SecureRandom random = new SecureRandom();
+
+    @Setup
+    public void setup() {
+        claveAes = new byte[32];
+        claveHmac = new byte[32];
+        random.nextBytes(claveAes);
+        random.nextBytes(claveHmac);
+        Base64.Encoder encoder = Base64.getEncoder();
+        piiCipher = new PiiCipher(encoder.encodeToString(claveAes), encoder.encodeToString(claveHmac));
+
+        dniCifrado = piiCipher.encrypt(DNI);
+        emailCifrado = piiCipher.encrypt(EMAIL);
+        telefonoCifrado = piiCipher.encrypt(TELEFONO);
+    }
+
+    @Benchmark
+    public String lookup() {
+        return piiCipher.blindIndexEmail(EMAIL);
+    }
+
+    @Benchmark
+    public void write(Blackhole bh) {
+        bh.consume(piiCipher.encrypt(DNI));
+        bh.consume(piiCipher.encrypt(EMAIL));
+        bh.consume(piiCipher.encrypt(TELEFONO));
+        bh.consume(piiCipher.blindIndexDni(DNI));
+        bh.consume(piiCipher.blindIndexEmail(EMAIL));
+    }
+
+    @Benchmark
+    public void read(Blackhole bh) {
+        bh.consume(piiCipher.decrypt(dniCifrado));
+        bh.consume(piiCipher.decrypt(emailCifrado));
+        bh.consume(piiCipher.decrypt(telefonoCifrado));
+    }
+
+    @Benchmark
+    public byte[] lookupSinCache() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(claveHmac, "HmacSHA256"));
+        mac.update("email:".getBytes(StandardCharsets.UTF_8));
+        return mac.doFinal(EMAIL.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public byte[] encryptSinCache() throws Exception {
+        byte[] iv = new byte[12];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(claveAes, "AES"), new GCMParameterSpec(128, iv));
+        return cipher.doFinal(EMAIL.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String encryptCacheado() {
+        return piiCipher.encrypt(EMAIL);
+    }
+}
@@ -0,0 +1,64 @@
+package com.SGH.hospital.benchmark;
+
+import com.SGH.hospital.dto.medico.MedicoResponse;
+import com.SGH.hospital.service.MedicoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización con Jackson de una página de 20 MedicoResponse, tal como la
+ * devuelve GET /api/medicos: el PageImpl directo y envuelto en PagedModel
+ * (formato estable recomendado por Spring Data).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"20"})
+    public int tamanioPagina;
+
+    private JsonMapper jsonMapper;
+    private Page<MedicoResponse> pagina;
+    private PagedModel<MedicoResponse> paginaDto;
+
+    @Setup
+    public void setup() throws Throwable {
+        MethodHandle convertir = MethodHandles.privateLookupIn(MedicoService.class, MethodHandles.lookup())
+                .findVirtual(MedicoService.class, "convertirAResponse",
+                        MethodType.methodType(MedicoResponse.class, com.SGH.hospital.entity.Medico.class));
+        MedicoService medicoService = new MedicoService(null, null, null, null, null, null, null, null, null);
+
+        List<MedicoResponse> contenido = new ArrayList<>(tamanioPagina);
+        for (long id = 1; id <= tamanioPagina; id++) {
+            contenido.add((MedicoResponse) convertir.invoke(medicoService, Datos.medico(id)));
+        }
+        pagina = new PageImpl<>(contenido, PageRequest.of(0, tamanioPagina), 1_000);
+        paginaDto = new PagedModel<>(pagina);
+        jsonMapper = JsonMapper.builder().build();
+    }
+
+    @Benchmark
+    public byte[] pageImpl() {
+        return jsonMapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] pagedModel() {
+        return jsonMapper.writeValueAsBytes(paginaDto);
+    }
+}
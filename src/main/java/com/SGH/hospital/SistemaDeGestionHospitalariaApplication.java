@@ -2,8 +2,12 @@ package com.SGH.hospital;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableJpaAuditing // Completa @CreatedDate/@LastModifiedDate de Usuario
 public class SistemaDeGestionHospitalariaApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,150 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder BCrypt que ejecuta los hashes en un pool acotado.
+ *
+ * BCrypt es deliberadamente caro: si se ejecuta en el hilo del request, una ola de
+ * logins ocupa todos los hilos de Tomcat. Acá se limita la cantidad de hashes en
+ * paralelo (hilos del pool) y en espera (cola); cuando la cola está llena se rechaza
+ * de inmediato con ServiceUnavailableException (503) en lugar de encolar sin límite.
+ *
+ * El costo (strength) se calibra al arrancar para que un hash tarde cerca del
+ * objetivo configurado en este host. upgradeEncoding() indica si un hash guardado
+ * tiene un costo menor y debe re-hashearse tras un login exitoso.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity,
+                                  long timeoutMillis, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "bcrypt");
+        this.rejected = Counter.builder("bcrypt.rejected")
+                .description("Hashes rechazados por cola llena o timeout")
+                .register(meterRegistry);
+
+        log.info("BCrypt configurado con strength={}, hilos={}, cola={}", strength, threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // No calcula hashes: solo compara el costo del hash guardado con el actual
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> tarea) {
+        Future<T> future;
+        try {
+            future = executor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw saturado();
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw saturado();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw saturado();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    private ServiceUnavailableException saturado() {
+        return new ServiceUnavailableException(
+                "El servidor está procesando demasiadas autenticaciones, intente nuevamente", RETRY_AFTER_SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Busca el strength más alto cuyo hash no supere el tiempo objetivo en este host.
+     * BCrypt duplica el costo con cada punto de strength, así que alcanza con medir
+     * desde el mínimo hacia arriba.
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        int elegido = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            encoder.encode("calibracion"); // warm-up
+            long inicio = System.nanoTime();
+            encoder.encode("calibracion");
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            log.debug("BCrypt strength {} tarda {} ms", strength, millis);
+            if (millis > targetMillis) {
+                break;
+            }
+            elegido = strength;
+            // El siguiente nivel tardaría el doble: no vale la pena medirlo
+            if (millis * 2 > targetMillis) {
+                break;
+            }
+        }
+        return elegido;
+    }
+}
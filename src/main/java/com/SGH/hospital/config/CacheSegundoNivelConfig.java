@@ -0,0 +1,90 @@
+package com.SGH.hospital.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caché de segundo nivel de Hibernate: JCache sobre Caffeine, en memoria de cada instancia.
+ *
+ * Regiones (todas READ_WRITE, ver las anotaciones @Cache de las entidades):
+ *  - especialidades / horarios: las entidades Especialidad y HorarioAtencion
+ *  - medico-especialidades / medico-horarios: las colecciones de Medico (solo los ids;
+ *    los elementos salen de las regiones de entidades)
+ *
+ * Cada región tiene tamaño máximo y TTL propios (cache.segundo-nivel.*). Hibernate
+ * invalida las entradas de lo que cambia en un flush; el TTL acota lo que se escriba
+ * por fuera de Hibernate (SQL directo) o desde otra instancia. Las regiones de
+ * colecciones no deberían durar más que las de entidades: una colección en caché cuyos
+ * elementos ya se descartaron se completa con una consulta por elemento.
+ *
+ * Aciertos, fallos, altas y desalojos por región se publican como métricas cache.*
+ * (tag cache = nombre de la región).
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    public static final String ESPECIALIDADES = "especialidades";
+    public static final String HORARIOS = "horarios";
+    public static final String MEDICO_ESPECIALIDADES = "medico-especialidades";
+    public static final String MEDICO_HORARIOS = "medico-horarios";
+
+    // Las estadísticas de JCache se registran en JMX con la URI del CacheManager:
+    // cada contexto (varios en la misma JVM durante los tests) usa una URI propia
+    private static final AtomicInteger INSTANCIAS = new AtomicInteger();
+
+    @Bean(destroyMethod = "close")
+    public CacheManager segundoNivelCacheManager(
+            MeterRegistry meterRegistry,
+            @Value("${cache.segundo-nivel.especialidades.max-size:1000}") long especialidadesMaxSize,
+            @Value("${cache.segundo-nivel.especialidades.ttl:PT1H}") Duration especialidadesTtl,
+            @Value("${cache.segundo-nivel.horarios.max-size:50000}") long horariosMaxSize,
+            @Value("${cache.segundo-nivel.horarios.ttl:PT1H}") Duration horariosTtl,
+            @Value("${cache.segundo-nivel.medico-especialidades.max-size:20000}") long medicoEspecialidadesMaxSize,
+            @Value("${cache.segundo-nivel.medico-especialidades.ttl:PT30M}") Duration medicoEspecialidadesTtl,
+            @Value("${cache.segundo-nivel.medico-horarios.max-size:20000}") long medicoHorariosMaxSize,
+            @Value("${cache.segundo-nivel.medico-horarios.ttl:PT30M}") Duration medicoHorariosTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + INSTANCIAS.incrementAndGet()), getClass().getClassLoader());
+        crearRegion(cacheManager, meterRegistry, ESPECIALIDADES, especialidadesMaxSize, especialidadesTtl);
+        crearRegion(cacheManager, meterRegistry, HORARIOS, horariosMaxSize, horariosTtl);
+        crearRegion(cacheManager, meterRegistry, MEDICO_ESPECIALIDADES, medicoEspecialidadesMaxSize, medicoEspecialidadesTtl);
+        crearRegion(cacheManager, meterRegistry, MEDICO_HORARIOS, medicoHorariosMaxSize, medicoHorariosTtl);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer segundoNivelHibernateProperties(CacheManager segundoNivelCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, segundoNivelCacheManager);
+            // Una región sin declarar acá es un error de configuración, no una caché sin límites
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void crearRegion(CacheManager cacheManager, MeterRegistry meterRegistry,
+                                    String region, long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setMaximumSize(OptionalLong.of(maxSize));
+        configuracion.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        // Hibernate guarda estados desarmados e inmutables: no hace falta copiarlos
+        configuracion.setStoreByValue(false);
+        configuracion.setStatisticsEnabled(true);
+        Cache<Object, Object> cache = cacheManager.createCache(region, configuracion);
+        JCacheMetrics.monitor(meterRegistry, cache);
+    }
+}
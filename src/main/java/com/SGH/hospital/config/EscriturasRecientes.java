@@ -0,0 +1,57 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.service.UsuarioPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Usuarios que confirmaron una escritura hace menos de la ventana configurada.
+ *
+ * Escucha los commits del transaction manager: cuando una transacción de escritura
+ * confirma dentro de un request autenticado, el usuario queda marcado. Mientras dure
+ * la marca sus lecturas van al primario (ReplicaRoutingDataSource), así ve su propio
+ * cambio aunque la réplica todavía no lo haya aplicado.
+ *
+ * La marca es por instancia: cubre el caso común (el mismo cliente escribe y vuelve
+ * a leer enseguida), no un balanceador que reparte los requests entre instancias.
+ */
+public class EscriturasRecientes implements TransactionExecutionListener {
+
+    private final Cache<Long, Boolean> usuarios;
+
+    public EscriturasRecientes(Duration ventana, long maxUsuarios) {
+        this.usuarios = Caffeine.newBuilder()
+                .expireAfterWrite(ventana)
+                .maximumSize(maxUsuarios)
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            Long usuarioId = usuarioActual();
+            if (usuarioId != null) {
+                usuarios.put(usuarioId, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * true si el usuario del request actual escribió dentro de la ventana
+     */
+    public boolean usuarioActualEscribio() {
+        Long usuarioId = usuarioActual();
+        return usuarioId != null && usuarios.getIfPresent(usuarioId) != null;
+    }
+
+    private static Long usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof UsuarioPrincipal principal ? principal.getId() : null;
+    }
+}
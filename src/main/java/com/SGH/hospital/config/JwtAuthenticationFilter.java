@@ -1,11 +1,17 @@
 package com.SGH.hospital.config;
 
+import com.SGH.hospital.enums.EstadoUsuario;
 import com.SGH.hospital.service.JwtService;
+import com.SGH.hospital.service.TokenRevocationService;
+import com.SGH.hospital.service.UserStatusCache;
+import com.SGH.hospital.service.UsuarioPrincipal;
+import com.SGH.hospital.service.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +21,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -22,6 +29,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+    private final TokenRevocationService tokenRevocationService;
+
+    // true: el principal se arma con los claims del token (sin consultar la BD)
+    // false: se carga el usuario completo con UserDetailsService en cada request
+    @Value("${jwt.auth.from-claims:true}")
+    private boolean authFromClaims;
     
     @Override
     protected void doFilterInternal(
@@ -32,6 +46,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final VerifiedToken token;
         final String userEmail;
         
         // Si no hay token o no empieza con Bearer, continuar con el siguiente filtro
@@ -44,14 +59,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // Se parsea y verifica la firma una única vez por request
+            token = jwtService.verify(jwt);
+            userEmail = token.getSubject();
+            
+            // Los refresh tokens solo sirven en /api/auth/refresh, y las sesiones
+            // cerradas (logout o reuso) se descartan; el chequeo suele resolverse en memoria
+            boolean aceptado = !token.isRefresh() && !tokenRevocationService.isRevoked(token);
             
             // Si el email existe y no hay autenticación previa
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            if (aceptado && userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = loadPrincipal(token);
                 
-                // Validar el token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                // Validar el token y el estado de la cuenta
+                if (userDetails != null
+                        && jwtService.isTokenValid(token, userDetails)
+                        && userDetails.isAccountNonLocked()
+                        && userDetails.isEnabled()) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -68,4 +92,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Arma el principal desde los claims; los tokens sin rol/userId (p. ej. refresh) van a la BD
+    private UserDetails loadPrincipal(VerifiedToken token) {
+        if (authFromClaims && token.getUserId() != null && token.getRol() != null) {
+            Optional<EstadoUsuario> estado = userStatusCache.getEstado(token.getUserId());
+            return estado.map(e -> UsuarioPrincipal.fromToken(token, e)).orElse(null);
+        }
+        return userDetailsService.loadUserByUsername(token.getSubject());
+    }
+}
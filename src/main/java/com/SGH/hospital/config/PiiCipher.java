@@ -0,0 +1,179 @@
+package com.SGH.hospital.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Cifrado de datos personales (DNI, email, teléfono) y cálculo de sus índices ciegos.
+ *
+ * Cada valor se cifra con AES-GCM y un IV aleatorio, así que el mismo DNI produce
+ * textos cifrados distintos y no se puede buscar por igualdad. Para eso se guarda
+ * además un "índice ciego": HMAC-SHA256 del valor normalizado con una clave aparte.
+ * Es determinístico, por lo que findByDni/existsByEmail siguen siendo una sola
+ * lectura de índice sobre la columna *_hash.
+ *
+ * Cipher.getInstance y Mac.getInstance son costosos (búsqueda de proveedor), así que
+ * cada hilo conserva su propia instancia; Mac se inicializa una sola vez por hilo.
+ * El generador de IVs también es por hilo para no serializar los INSERT en un lock.
+ *
+ * Formato guardado: Base64( versión(1) | IV(12) | texto cifrado + tag(16) ).
+ */
+@Component
+public class PiiCipher {
+
+    private static final byte VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final String MAC = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+    private static final Base64.Encoder INDEX_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecretKeySpec encryptionKey;
+    private final SecretKeySpec indexKey;
+
+    private final ThreadLocal<Cipher> cipher;
+    private final ThreadLocal<Mac> mac;
+    private final ThreadLocal<SecureRandom> random = ThreadLocal.withInitial(SecureRandom::new);
+
+    public PiiCipher(@Value("${pii.encryption-key}") String encryptionKey,
+                     @Value("${pii.blind-index-key}") String blindIndexKey) {
+        this.encryptionKey = new SecretKeySpec(decodeKey(encryptionKey, "pii.encryption-key", "PII_ENCRYPTION_KEY"), "AES");
+        this.indexKey = new SecretKeySpec(decodeKey(blindIndexKey, "pii.blind-index-key", "PII_BLIND_INDEX_KEY"), MAC);
+
+        this.cipher = ThreadLocal.withInitial(() -> {
+            try {
+                return Cipher.getInstance(CIPHER);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES-GCM no disponible", e);
+            }
+        });
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instancia = Mac.getInstance(MAC);
+                instancia.init(indexKey);
+                return instancia;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 no disponible", e);
+            }
+        });
+    }
+
+    // ---------- Cifrado ----------
+
+    public String encrypt(String plaintext) {
+        if (plaintext == null) {
+            return null;
+        }
+        byte[] iv = new byte[IV_LENGTH];
+        random.get().nextBytes(iv);
+        try {
+            Cipher c = cipher.get();
+            c.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+
+            ByteBuffer salida = ByteBuffer.allocate(1 + IV_LENGTH + c.getOutputSize(input.length));
+            salida.put(VERSION).put(iv);
+            c.doFinal(ByteBuffer.wrap(input), salida);
+            return ENCODER.encodeToString(salida.array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo cifrar el dato", e);
+        }
+    }
+
+    public String decrypt(String stored) {
+        if (stored == null) {
+            return null;
+        }
+        byte[] data = DECODER.decode(stored);
+        if (data.length < 1 + IV_LENGTH + TAG_BITS / 8 || data[0] != VERSION) {
+            throw new IllegalStateException("Formato de dato cifrado desconocido");
+        }
+        try {
+            Cipher c = cipher.get();
+            c.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, data, 1, IV_LENGTH));
+            byte[] plain = c.doFinal(data, 1 + IV_LENGTH, data.length - 1 - IV_LENGTH);
+            return new String(plain, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo descifrar el dato", e);
+        }
+    }
+
+    /**
+     * Si el valor guardado es un dato cifrado con la clave actual. Los usuarios creados
+     * antes del cifrado tienen texto plano; lo usa la migración que los cifra.
+     */
+    public boolean isEncrypted(String stored) {
+        if (stored == null) {
+            return false;
+        }
+        try {
+            decrypt(stored);
+            return true;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    // ---------- Índices ciegos ----------
+
+    // DNI: sin puntos, espacios ni guiones ("12.345.678" == "12345678")
+    public String blindIndexDni(String dni) {
+        if (dni == null) {
+            return null;
+        }
+        StringBuilder normalizado = new StringBuilder(dni.length());
+        for (int i = 0; i < dni.length(); i++) {
+            char ch = dni.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                normalizado.append(Character.toUpperCase(ch));
+            }
+        }
+        return blindIndex("dni:", normalizado.toString());
+    }
+
+    // Email: sin espacios y en minúsculas
+    public String blindIndexEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        return blindIndex("email:", email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    // El prefijo separa dominios: un DNI y un email iguales no comparten índice
+    private String blindIndex(String dominio, String valor) {
+        Mac m = mac.get();
+        m.update(dominio.getBytes(StandardCharsets.UTF_8));
+        return INDEX_ENCODER.encodeToString(m.doFinal(valor.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Sin clave no se arranca: nunca se cifra con una clave por defecto publicada en el repositorio
+    private static byte[] decodeKey(String base64, String propiedad, String variable) {
+        if (base64 == null || base64.isBlank()) {
+            throw new IllegalStateException(propiedad + " no está configurada (variable de entorno " + variable + ")");
+        }
+        byte[] key;
+        try {
+            key = DECODER.decode(base64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(propiedad + " debe estar en Base64", e);
+        }
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalStateException(propiedad + " debe tener 16, 24 o 32 bytes");
+        }
+        return key;
+    }
+}
@@ -0,0 +1,183 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.service.UsuarioPrincipal;
+import com.SGH.hospital.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting por cliente con token buckets.
+ *
+ * Se ejecuta después de JwtAuthenticationFilter: si el request está autenticado
+ * se descuenta del balde del usuario, si no del balde de la IP. Cada ruta tiene un
+ * costo en tokens (login y búsquedas cuestan más que una lectura simple).
+ * Los baldes inactivos se descartan solos (expireAfterAccess).
+ *
+ * Cuando no alcanzan los tokens responde 429 con Retry-After.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final long defaultCost;
+    private final Map<String, Long> routeCosts;
+    private final Limite limiteIp;
+    private final Limite limiteUsuario;
+
+    private final Cache<String, TokenBucket> baldes;
+
+    private final Counter permitidosIp;
+    private final Counter permitidosUsuario;
+    private final Counter rechazadosIp;
+    private final Counter rechazadosUsuario;
+
+    public RateLimitFilter(
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.default-cost:1}") long defaultCost,
+            @Value("${rate-limit.route-costs:}") String routeCosts,
+            @Value("${rate-limit.ip.capacity:60}") long ipCapacity,
+            @Value("${rate-limit.ip.refill-per-second:10}") double ipRefill,
+            @Value("${rate-limit.user.capacity:120}") long userCapacity,
+            @Value("${rate-limit.user.refill-per-second:20}") double userRefill,
+            @Value("${rate-limit.idle-eviction:PT10M}") Duration idleEviction,
+            @Value("${rate-limit.max-buckets:100000}") long maxBuckets,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.defaultCost = defaultCost;
+        this.routeCosts = parseRouteCosts(routeCosts);
+        this.limiteIp = new Limite(ipCapacity, ipRefill);
+        this.limiteUsuario = new Limite(userCapacity, userRefill);
+
+        this.baldes = Caffeine.newBuilder()
+                .expireAfterAccess(idleEviction)
+                .maximumSize(maxBuckets)
+                .build();
+
+        Gauge.builder("rate_limit.buckets", baldes, Cache::estimatedSize)
+                .description("Baldes de rate limiting activos")
+                .register(meterRegistry);
+        this.permitidosIp = contador(meterRegistry, "allowed", "ip");
+        this.permitidosUsuario = contador(meterRegistry, "allowed", "user");
+        this.rechazadosIp = contador(meterRegistry, "rejected", "ip");
+        this.rechazadosUsuario = contador(meterRegistry, "rejected", "user");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        long costo = routeCosts.getOrDefault(request.getMethod() + " " + request.getRequestURI(), defaultCost);
+        if (costo <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Usuario autenticado → su propio balde; anónimo → balde de la IP
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean porUsuario = auth != null && auth.getPrincipal() instanceof UsuarioPrincipal;
+        String clave;
+        Limite limite;
+        if (porUsuario) {
+            clave = "u:" + ((UsuarioPrincipal) auth.getPrincipal()).getId();
+            limite = limiteUsuario;
+        } else {
+            // IP del cliente aunque haya un proxy delante (server.forward-headers-strategy)
+            clave = "ip:" + request.getRemoteAddr();
+            limite = limiteIp;
+        }
+
+        long ahora = System.nanoTime();
+        TokenBucket balde = baldes.get(clave, k -> new TokenBucket(limite.capacity, limite.intervalNanos, ahora));
+        long espera = balde.tryConsume(costo, ahora);
+
+        if (espera == 0) {
+            (porUsuario ? permitidosUsuario : permitidosIp).increment();
+            response.setHeader("X-RateLimit-Limit", String.valueOf(balde.getCapacity()));
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(balde.available(ahora)));
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        (porUsuario ? rechazadosUsuario : rechazadosIp).increment();
+        rechazar(response, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999L)));
+    }
+
+    private void rechazar(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        // Mismo formato que ErrorResponse
+        response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now() + "\","
+                + "\"status\":429,"
+                + "\"error\":\"Too Many Requests\","
+                + "\"message\":\"Demasiadas solicitudes, intente nuevamente en " + retryAfterSeconds + " s\"}");
+    }
+
+    /**
+     * Formato: "POST /api/auth/login=10,GET /api/pacientes/buscar=3"
+     */
+    static Map<String, Long> parseRouteCosts(String valor) {
+        Map<String, Long> costos = new HashMap<>();
+        if (valor == null || valor.isBlank()) {
+            return costos;
+        }
+        for (String entrada : valor.split(",")) {
+            int igual = entrada.lastIndexOf('=');
+            if (igual < 0) {
+                throw new IllegalArgumentException("Costo de ruta inválido: " + entrada);
+            }
+            String ruta = entrada.substring(0, igual).trim().replaceAll("\\s+", " ");
+            costos.put(ruta, Long.parseLong(entrada.substring(igual + 1).trim()));
+        }
+        return costos;
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado, String tipo) {
+        return Counter.builder("rate_limit.requests")
+                .tag("result", resultado)
+                .tag("key_type", tipo)
+                .register(registry);
+    }
+
+    // Capacidad del balde y cada cuántos nanos se recarga un token
+    private static final class Limite {
+        private final long capacity;
+        private final long intervalNanos;
+
+        private Limite(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.enums.Rol;
+import com.SGH.hospital.service.UsuarioPrincipal;
+
+import java.util.Map;
+
+/**
+ * Regla de @RolesPermitidos ya compilada: dos máscaras de bits y el nombre
+ * de la path variable del propietario. Es inmutable y se arma una vez por endpoint.
+ */
+public final class ReglaAutorizacion {
+
+    private final int rolesPermitidos;
+    private final int rolesPropietario;
+    private final String idParam;
+
+    private ReglaAutorizacion(int rolesPermitidos, int rolesPropietario, String idParam) {
+        this.rolesPermitidos = rolesPermitidos;
+        this.rolesPropietario = rolesPropietario;
+        this.idParam = idParam;
+    }
+
+    public static ReglaAutorizacion compilar(RolesPermitidos anotacion) {
+        return new ReglaAutorizacion(
+                mascara(anotacion.value()), mascara(anotacion.propietario()), anotacion.idParam());
+    }
+
+    // Bit que representa al rol dentro de la máscara
+    public static int bit(Rol rol) {
+        return 1 << rol.ordinal();
+    }
+
+    private static int mascara(Rol[] roles) {
+        int mascara = 0;
+        for (Rol rol : roles) {
+            mascara |= bit(rol);
+        }
+        return mascara;
+    }
+
+    /**
+     * @param uriVariables path variables del request (solo se leen para la regla de propietario)
+     */
+    public boolean permite(UsuarioPrincipal principal, Map<String, String> uriVariables) {
+        int rol = principal.getRolMask();
+        if ((rol & rolesPermitidos) != 0) {
+            return true;
+        }
+        if ((rol & rolesPropietario) == 0 || principal.getId() == null || uriVariables == null) {
+            return false;
+        }
+        String valor = uriVariables.get(idParam);
+        try {
+            return valor != null && Long.parseLong(valor) == principal.getId();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public boolean tieneReglaDePropietario() {
+        return rolesPropietario != 0;
+    }
+
+    public String getIdParam() {
+        return idParam;
+    }
+}
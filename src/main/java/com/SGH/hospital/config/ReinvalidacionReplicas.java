@@ -0,0 +1,107 @@
+package com.SGH.hospital.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.engine.spi.TransactionCompletionCallbacks.AfterCompletionCallback;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Segunda invalidación de la caché de segundo nivel cuando hay réplicas de lectura.
+ *
+ * Hibernate invalida en el commit lo que cambió, pero otro usuario que lee de una réplica
+ * que todavía no aplicó ese commit puede volver a cargar el estado anterior, y quedaría en
+ * caché hasta el TTL de la región. Por eso cada entidad o colección cacheada que cambia se
+ * vuelve a invalidar pasado el retraso máximo que puede tener una réplica que recibe
+ * lecturas (replicas.max-lag más un intervalo de chequeo): lo viejo dura a lo sumo eso.
+ */
+public class ReinvalidacionReplicas implements PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    private final SessionFactory sessionFactory;
+    private final TaskScheduler taskScheduler;
+    private final Duration retraso;
+
+    public ReinvalidacionReplicas(SessionFactory sessionFactory, TaskScheduler taskScheduler, Duration retraso) {
+        this.sessionFactory = sessionFactory;
+        this.taskScheduler = taskScheduler;
+        this.retraso = retraso;
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        entidad(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        entidad(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        coleccion(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        coleccion(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        coleccion(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Para cambios hechos con SQL directo, que no disparan eventos: vuelve a invalidar
+     * la colección de todos los dueños. Se llama después del commit.
+     */
+    public void coleccionCompleta(String rol) {
+        taskScheduler.schedule(() -> sessionFactory.getCache().evictCollectionData(rol), Instant.now().plus(retraso));
+    }
+
+    private void entidad(SharedSessionContractImplementor session, EntityPersister persister, Object id) {
+        if (persister.canWriteToCache()) {
+            String entidad = persister.getEntityName();
+            despuesDelCommit(session, () -> sessionFactory.getCache().evictEntityData(entidad, id));
+        }
+    }
+
+    private void coleccion(AbstractCollectionEvent event) {
+        String rol = event.getCollection().getRole();
+        Object duenioId = event.getAffectedOwnerIdOrNull();
+        if (rol != null && duenioId != null
+                && event.getFactory().getMappingMetamodel().getCollectionDescriptor(rol).hasCache()) {
+            despuesDelCommit(event.getSession(), () -> sessionFactory.getCache().evictCollectionData(rol, duenioId));
+        }
+    }
+
+    // Se programa solo si la transacción confirma: un rollback no dejó nada que invalidar
+    private void despuesDelCommit(SharedSessionContractImplementor session, Runnable invalidar) {
+        session.getTransactionCompletionCallbacks().registerCallback((AfterCompletionCallback) (exito, s) -> {
+            if (exito) {
+                taskScheduler.schedule(invalidar, Instant.now().plus(retraso));
+            }
+        });
+    }
+}
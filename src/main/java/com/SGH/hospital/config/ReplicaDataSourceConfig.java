@@ -0,0 +1,115 @@
+package com.SGH.hospital.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Réplicas de lectura: las transacciones readOnly leen de las réplicas y el resto
+ * usa el primario (spring.datasource.*). Solo se activa si replicas.urls tiene
+ * alguna URL; sin réplicas queda el DataSource que arma Spring Boot.
+ *
+ * El DataSource de la aplicación es un LazyConnectionDataSourceProxy: la conexión
+ * real se pide recién en la primera sentencia, cuando el transaction manager ya
+ * marcó la conexión como read-only, y en ese caso sale de ReplicaRoutingDataSource.
+ *
+ * Lo que cambia en la caché de segundo nivel se invalida otra vez cuando ninguna réplica
+ * sana puede seguir con el estado anterior (ReinvalidacionReplicas).
+ */
+@Configuration
+@ConditionalOnExpression("!'${replicas.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    // El mismo pool que armaría Spring Boot (spring.datasource.hikari.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    public EscriturasRecientes escriturasRecientes(
+            @Value("${replicas.sticky-window:PT10S}") Duration ventana,
+            @Value("${replicas.sticky-max-users:100000}") long maxUsuarios) {
+        return new EscriturasRecientes(ventana, maxUsuarios);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primarioDataSource,
+            EscriturasRecientes escriturasRecientes,
+            MeterRegistry meterRegistry,
+            @Value("${replicas.urls}") String urls,
+            @Value("${replicas.username:${spring.datasource.username}}") String username,
+            @Value("${replicas.password:${spring.datasource.password}}") String password,
+            @Value("${replicas.pool-size:10}") int poolSize,
+            @Value("${replicas.max-lag:PT5S}") Duration maxRetraso,
+            @Value("${replicas.lag-query}") String consultaRetraso) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        List<String> lista = Arrays.stream(urls.split(",")).map(String::trim).filter(u -> !u.isEmpty()).toList();
+        for (int i = 0; i < lista.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(lista.get(i))
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setMaximumPoolSize(poolSize);
+            // Conexiones read-only: una escritura que llegue por error a la réplica falla en el acto
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primarioDataSource, replicas, escriturasRecientes,
+                consultaRetraso, maxRetraso, meterRegistry);
+    }
+
+    @Bean
+    public ReinvalidacionReplicas reinvalidacionReplicas(
+            EntityManagerFactory entityManagerFactory,
+            TaskScheduler taskScheduler,
+            @Value("${replicas.max-lag:PT5S}") Duration maxRetraso,
+            @Value("${replicas.health-check:PT5S}") Duration chequeo) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        ReinvalidacionReplicas reinvalidacion = new ReinvalidacionReplicas(
+                sessionFactory, taskScheduler, maxRetraso.plus(chequeo));
+        EventListenerRegistry listeners = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_UPDATE, reinvalidacion);
+        listeners.appendListeners(EventType.POST_DELETE, reinvalidacion);
+        listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, reinvalidacion);
+        listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, reinvalidacion);
+        listeners.appendListeners(EventType.POST_COLLECTION_REMOVE, reinvalidacion);
+        return reinvalidacion;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primarioDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primarioDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
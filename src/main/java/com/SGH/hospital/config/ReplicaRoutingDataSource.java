@@ -0,0 +1,174 @@
+package com.SGH.hospital.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conexiones de las transacciones de solo lectura: round-robin entre las réplicas sanas.
+ *
+ * Una réplica está sana si respondió al último chequeo (replicas.health-check) con un
+ * retraso de replicación menor a replicas.max-lag; si falla al pedirle una conexión
+ * se marca caída hasta el próximo chequeo y se prueba la siguiente. Van al primario:
+ *  - las lecturas del usuario que escribió hace poco (EscriturasRecientes)
+ *  - las lecturas cuando no queda ninguna réplica sana
+ *
+ * Las réplicas empiezan como no sanas: hasta el primer chequeo todo se lee del primario.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primario;
+    private final List<Replica> replicas;
+    private final EscriturasRecientes escriturasRecientes;
+    private final String consultaRetraso;
+    private final double maxRetrasoSegundos;
+    private final AtomicInteger siguiente = new AtomicInteger();
+
+    private final Counter lecturasReplica;
+    private final Counter lecturasPropias;
+    private final Counter lecturasSinReplica;
+
+    public ReplicaRoutingDataSource(DataSource primario, List<HikariDataSource> replicas,
+                                    EscriturasRecientes escriturasRecientes, String consultaRetraso,
+                                    Duration maxRetraso, MeterRegistry meterRegistry) {
+        this.primario = primario;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.escriturasRecientes = escriturasRecientes;
+        this.consultaRetraso = consultaRetraso;
+        this.maxRetrasoSegundos = maxRetraso.toMillis() / 1000.0;
+
+        this.lecturasReplica = lecturas(meterRegistry, "replica", "sana");
+        this.lecturasPropias = lecturas(meterRegistry, "primario", "escritura_reciente");
+        this.lecturasSinReplica = lecturas(meterRegistry, "primario", "sin_replica");
+        for (Replica replica : this.replicas) {
+            Gauge.builder("datasource.replica.retraso", replica, r -> r.retrasoSegundos)
+                    .description("Retraso de replicación medido en el último chequeo (segundos)")
+                    .tag("replica", replica.nombre())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.sana", replica, r -> r.sana ? 1 : 0)
+                    .description("1 si la réplica recibe lecturas")
+                    .tag("replica", replica.nombre())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (escriturasRecientes.usuarioActualEscribio()) {
+            lecturasPropias.increment();
+            return primario.getConnection();
+        }
+        int cantidad = replicas.size();
+        int inicio = Math.floorMod(siguiente.getAndIncrement(), cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Replica replica = replicas.get((inicio + i) % cantidad);
+            if (!replica.sana) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource().getConnection();
+                lecturasReplica.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.marcarCaida(e);
+            }
+        }
+        lecturasSinReplica.increment();
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Las réplicas usan las credenciales de su pool");
+    }
+
+    /**
+     * Mide el retraso de cada réplica y actualiza cuáles reciben lecturas
+     */
+    @Scheduled(fixedDelayString = "${replicas.health-check:PT5S}")
+    public void verificarReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(consultaRetraso)) {
+                rs.next();
+                replica.actualizar(rs.getDouble(1), maxRetrasoSegundos);
+            } catch (SQLException e) {
+                replica.marcarCaida(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(r -> r.dataSource().close());
+    }
+
+    private static Counter lecturas(MeterRegistry meterRegistry, String destino, String motivo) {
+        return Counter.builder("datasource.lecturas")
+                .description("Conexiones de transacciones de solo lectura por destino")
+                .tag("destino", destino)
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    // ==================== Estado de cada réplica ====================
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean sana;
+        private volatile double retrasoSegundos;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        String nombre() {
+            return dataSource.getPoolName();
+        }
+
+        void actualizar(double retraso, double maxRetraso) {
+            retrasoSegundos = retraso;
+            boolean estaba = sana;
+            sana = retraso <= maxRetraso;
+            if (estaba != sana) {
+                if (sana) {
+                    log.info("Réplica {} recibe lecturas (retraso {}s)", nombre(), retraso);
+                } else {
+                    log.warn("Réplica {} atrasada {}s (máximo {}s): lecturas al primario", nombre(), retraso, maxRetraso);
+                }
+            }
+        }
+
+        void marcarCaida(SQLException e) {
+            if (sana) {
+                log.warn("Réplica {} no responde: lecturas al primario hasta el próximo chequeo ({})",
+                        nombre(), e.getMessage());
+            }
+            sana = false;
+        }
+    }
+}
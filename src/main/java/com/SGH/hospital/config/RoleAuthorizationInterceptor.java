@@ -0,0 +1,107 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.service.UsuarioPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aplica @RolesPermitidos antes de invocar cada endpoint.
+ *
+ * Al refrescar el contexto recorre todos los handlers registrados y compila sus
+ * reglas en un mapa inmutable Method → ReglaAutorizacion. En cada request solo
+ * hay un lookup en ese mapa y un AND de bits contra el rol del principal.
+ */
+@Component
+public class RoleAuthorizationInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleAuthorizationInterceptor.class);
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private volatile Map<Method, ReglaAutorizacion> reglas = Map.of();
+
+    @EventListener
+    public void compilarReglas(ContextRefreshedEvent event) {
+        Map<String, RequestMappingHandlerMapping> mappings =
+                event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class);
+
+        Map<Method, ReglaAutorizacion> compiladas = new HashMap<>();
+        for (RequestMappingHandlerMapping mapping : mappings.values()) {
+            for (HandlerMethod handler : mapping.getHandlerMethods().values()) {
+                RolesPermitidos anotacion = handler.getMethodAnnotation(RolesPermitidos.class);
+                if (anotacion != null) {
+                    ReglaAutorizacion regla = ReglaAutorizacion.compilar(anotacion);
+                    validar(handler, regla);
+                    compiladas.put(handler.getMethod(), regla);
+                }
+            }
+        }
+        this.reglas = Map.copyOf(compiladas);
+        log.info("Reglas de autorización compiladas: {}", compiladas.size());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        ReglaAutorizacion regla = reglas.get(handlerMethod.getMethod());
+        if (regla == null) {
+            return true;
+        }
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof UsuarioPrincipal principal)) {
+            throw new AccessDeniedException("Acceso denegado");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> uriVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!regla.permite(principal, uriVariables)) {
+            throw new AccessDeniedException("Acceso denegado");
+        }
+        return true;
+    }
+
+    // Una regla de propietario sin la path variable indicada nunca podría cumplirse
+    private static void validar(HandlerMethod handler, ReglaAutorizacion regla) {
+        if (!regla.tieneReglaDePropietario()) {
+            return;
+        }
+        for (MethodParameter parametro : handler.getMethodParameters()) {
+            // HandlerMethod no inicializa el descubrimiento de nombres (lo hacen los resolvers)
+            parametro.initParameterNameDiscovery(PARAMETER_NAMES);
+            PathVariable pathVariable = parametro.getParameterAnnotation(PathVariable.class);
+            if (pathVariable == null) {
+                continue;
+            }
+            String nombre = !pathVariable.value().isEmpty() ? pathVariable.value() : parametro.getParameterName();
+            if (regla.getIdParam().equals(nombre)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("@RolesPermitidos en " + handler.getShortLogMessage()
+                + " usa idParam='" + regla.getIdParam() + "' pero no existe esa path variable");
+    }
+}
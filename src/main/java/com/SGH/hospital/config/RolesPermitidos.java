@@ -0,0 +1,35 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.enums.Rol;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Roles que pueden invocar un endpoint.
+ *
+ * Reemplaza a @PreAuthorize("hasAnyRole(...)"): la regla se compila una sola vez
+ * al arrancar a una máscara de bits sobre Rol (ver ReglaAutorizacion), y en cada
+ * request se evalúa con un AND, sin SpEL ni reflexión.
+ *
+ * Ejemplos:
+ *   @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
+ *   @RolesPermitidos(value = Rol.ADMIN, propietario = Rol.PACIENTE)  // el paciente solo sobre su propio {id}
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RolesPermitidos {
+
+    // Roles con acceso a cualquier recurso del endpoint
+    Rol[] value();
+
+    // Roles que solo acceden si el recurso es propio (path variable idParam == ID del usuario)
+    Rol[] propietario() default {};
+
+    // Nombre de la path variable con el ID del recurso para la regla de propietario
+    String idParam() default "id";
+}
@@ -1,6 +1,8 @@
 package com.SGH.hospital.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,7 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,6 +24,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -61,7 +63,9 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // Después del JWT para poder limitar por usuario autenticado
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -71,9 +75,25 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt con costo calibrado y ejecución en un pool acotado (ver BoundedPasswordEncoder).
+     * security.bcrypt.strength=0 significa "calibrar al arrancar".
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.bcrypt.strength:0}") int strength,
+            @Value("${security.bcrypt.target-ms:250}") long targetMillis,
+            @Value("${security.bcrypt.min-strength:10}") int minStrength,
+            @Value("${security.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${security.bcrypt.threads:0}") int threads,
+            @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+            @Value("${security.bcrypt.timeout-ms:5000}") long timeoutMillis,
+            MeterRegistry meterRegistry) {
+        int strengthEfectivo = strength > 0
+                ? strength
+                : BoundedPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength);
+        int hilos = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(strengthEfectivo, hilos, queueCapacity, timeoutMillis, meterRegistry);
     }
 }
 
@@ -86,7 +106,8 @@ public class SecurityConfig {
  * ✅ GET  /health                     → Health check alternativo
  * ✅ POST /api/auth/register          → Registro de nuevos usuarios
  * ✅ POST /api/auth/login             → Login
- * ✅ POST /api/auth/refresh           → Refresh de tokens
+ * ✅ POST /api/auth/refresh           → Refresh de tokens (rotación)
+ * ✅ POST /api/auth/logout            → Cierre de sesión (revoca la familia de tokens)
  * ✅ POST /api/pacientes              → Auto-registro de pacientes
  * ✅ ALL  /v3/api-docs/**             → Documentación OpenAPI
  * ✅ ALL  /swagger-ui/**              → Swagger UI
@@ -98,7 +119,10 @@ public class SecurityConfig {
  * 🔒 Cualquier otro endpoint          → Usuario autenticado
  * 
  * NOTAS:
- * - @EnableMethodSecurity permite usar @PreAuthorize en los controladores
+ * - Los controladores usan @RolesPermitidos (reglas compiladas a máscaras de bits,
+ *   ver RoleAuthorizationInterceptor); @EnableMethodSecurity queda para @PreAuthorize puntuales
  * - SessionCreationPolicy.STATELESS: no usa sesiones (JWT puro)
  * - JwtAuthenticationFilter se ejecuta ANTES del filtro de autenticación de Spring
+ * - RateLimitFilter limita por usuario (o por IP si es anónimo) y responde 429
+ * - Con jwt.auth.from-claims=true el filtro arma el principal desde el token (sin BD)
  */
\ No newline at end of file
@@ -45,6 +45,16 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Cerrar sesión: revoca el refresh token y los tokens de su sesión
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+    
     /**
      * Obtener información del usuario autenticado
      * GET /api/auth/me
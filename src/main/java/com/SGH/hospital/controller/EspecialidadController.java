@@ -0,0 +1,102 @@
+package com.SGH.hospital.controller;
+
+import com.SGH.hospital.config.RolesPermitidos;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.especialidad.EspecialidadResponse;
+import com.SGH.hospital.dto.especialidad.ReasignacionResponse;
+import com.SGH.hospital.enums.Rol;
+import com.SGH.hospital.service.CatalogoEspecialidades;
+import com.SGH.hospital.service.EspecialidadService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class EspecialidadController {
+
+    private final EspecialidadService especialidadService;
+    private final CacheControl cacheControl;
+
+    public EspecialidadController(EspecialidadService especialidadService,
+                                  @Value("${especialidades.cache-max-age:PT5M}") Duration maxAge) {
+        this.especialidadService = especialidadService;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    // ==================== Catálogo público ====================
+
+    // Especialidades activas, sale del catálogo en memoria. Con If-None-Match igual al
+    // ETag responde 304 sin cuerpo (Spring compara el ETag antes de serializar).
+    @GetMapping("/public/especialidades")
+    public ResponseEntity<List<EspecialidadResponse>> listarPublicas() {
+        CatalogoEspecialidades catalogo = especialidadService.catalogo();
+        return ResponseEntity.ok()
+                .eTag(catalogo.etag())
+                .cacheControl(cacheControl)
+                .body(catalogo.activas());
+    }
+
+    // ==================== Administración ====================
+
+    @GetMapping("/especialidades/{id}")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO, Rol.ENFERMERO})
+    public ResponseEntity<EspecialidadResponse> obtenerPorId(@PathVariable Long id) {
+        return ResponseEntity.ok(especialidadService.obtenerPorId(id));
+    }
+
+    @PostMapping("/especialidades")
+    @RolesPermitidos(Rol.ADMIN)
+    public ResponseEntity<EspecialidadResponse> crear(@Valid @RequestBody EspecialidadRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(especialidadService.crear(request));
+    }
+
+    @PutMapping("/especialidades/{id}")
+    @RolesPermitidos(Rol.ADMIN)
+    public ResponseEntity<EspecialidadResponse> actualizar(
+            @PathVariable Long id,
+            @Valid @RequestBody EspecialidadRequest request) {
+        return ResponseEntity.ok(especialidadService.actualizar(id, request));
+    }
+
+    // Desactivar es la baja lógica: la especialidad sale del catálogo público
+    @PatchMapping("/especialidades/{id}/estado")
+    @RolesPermitidos(Rol.ADMIN)
+    public ResponseEntity<EspecialidadResponse> cambiarEstado(
+            @PathVariable Long id,
+            @RequestParam boolean activa) {
+        return ResponseEntity.ok(especialidadService.cambiarEstado(id, activa));
+    }
+
+    // ==================== Operaciones masivas ====================
+    // Sobre todos los médicos de la especialidad, con una sentencia SQL cada una
+
+    @PostMapping("/especialidades/{id}/reasignar")
+    @RolesPermitidos(Rol.ADMIN)
+    public ResponseEntity<ReasignacionResponse> reasignar(
+            @PathVariable Long id,
+            @RequestParam Long destino) {
+        return ResponseEntity.ok(especialidadService.reasignar(id, destino));
+    }
+
+    // Reasigna y desactiva la especialidad de origen
+    @PostMapping("/especialidades/{id}/fusionar")
+    @RolesPermitidos(Rol.ADMIN)
+    public ResponseEntity<ReasignacionResponse> fusionar(
+            @PathVariable Long id,
+            @RequestParam Long destino) {
+        return ResponseEntity.ok(especialidadService.fusionar(id, destino));
+    }
+
+    @DeleteMapping("/especialidades/{id}/medicos")
+    @RolesPermitidos(Rol.ADMIN)
+    public ResponseEntity<ReasignacionResponse> desvincular(@PathVariable Long id) {
+        return ResponseEntity.ok(especialidadService.desvincular(id));
+    }
+}
@@ -3,36 +3,49 @@ package com.SGH.hospital.controller;
 // ==================== IMPORTS ====================
 
 // DTOs
+import com.SGH.hospital.dto.importacion.ImportacionResponse;
 import com.SGH.hospital.dto.medico.MedicoRequest;
 import com.SGH.hospital.dto.medico.MedicoUpdateRequest;
 import com.SGH.hospital.dto.medico.MedicoResponse;
 import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.horarioAtencion.HorariosPatchRequest;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.dto.paginacion.PaginaCursor;
+import com.SGH.hospital.dto.paginacion.PaginaResponse;
 
 // Enums
+import com.SGH.hospital.enums.CampoOrden;
 import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
 
 // Service
+import com.SGH.hospital.service.MedicoImportService;
 import com.SGH.hospital.service.MedicoService;
 
 // Validation
 import jakarta.validation.Valid;
 
+// Servlet
+import jakarta.servlet.http.HttpServletRequest;
+
 // Spring Data
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 
 // Spring Web
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
-// Spring Security
-import org.springframework.security.access.prepost.PreAuthorize;
+// Autorización por rol (reglas compiladas)
+import com.SGH.hospital.config.RolesPermitidos;
 
 // Spring Annotations
 import org.springframework.web.bind.annotation.*;
 
 // Java Collections
+import java.io.IOException;
+import java.time.Instant;
 import java.util.Set;
 
 // ==================== CONTROLLER ====================
@@ -42,37 +55,65 @@ import java.util.Set;
 public class MedicoController {
 
     private final MedicoService medicoService;
+    private final MedicoImportService medicoImportService;
 
-    public MedicoController(MedicoService medicoService) {
+    public MedicoController(MedicoService medicoService, MedicoImportService medicoImportService) {
         this.medicoService = medicoService;
+        this.medicoImportService = medicoImportService;
     }
 
     // ==================== CRUD Básico ====================
 
     @PostMapping
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<MedicoResponse> crearMedico(@Valid @RequestBody MedicoRequest request) {
         MedicoResponse response = medicoService.crearMedico(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // Alta masiva: un MedicoRequest por línea (NDJSON), con sus horarios anidados.
+    // La respuesta informa los importados y el motivo de cada registro rechazado.
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @RolesPermitidos(Rol.ADMIN)
+    public ResponseEntity<ImportacionResponse> importarMedicos(HttpServletRequest request) throws IOException {
+        ImportacionResponse response = medicoImportService.importar(request.getInputStream());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO', 'ENFERMERO')")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO, Rol.ENFERMERO})
     public ResponseEntity<MedicoResponse> obtenerPorId(@PathVariable Long id) {
         MedicoResponse response = medicoService.obtenerPorId(id);
         return ResponseEntity.ok(response);
     }
 
+    // Los listados paginados devuelven un total ESTIMADO (caché o estadísticas de la base);
+    // con conteoExacto=true se cuenta en la consulta y vuelve EXACTO
     @GetMapping
-    @PreAuthorize("hasAnyRole('ADMIN', 'ENFERMERO', 'PACIENTE')")
-    public ResponseEntity<Page<MedicoResponse>> listarTodos(
-            @PageableDefault(size = 10, sort = "apellido") Pageable pageable) {
-        Page<MedicoResponse> response = medicoService.listarTodos(pageable);
+    @RolesPermitidos({Rol.ADMIN, Rol.ENFERMERO, Rol.PACIENTE})
+    public ResponseEntity<PaginaResponse<MedicoResponse>> listarTodos(
+            @PageableDefault(size = 10, sort = "apellido") Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean conteoExacto) {
+        PaginaResponse<MedicoResponse> response = medicoService.listarTodos(pageable, conteoExacto);
+        return ResponseEntity.ok(response);
+    }
+
+    // Listado por cursor (keyset): orden CREATED_AT, APELLIDO o ID y el siguienteCursor
+    // de la respuesta anterior. Sin COUNT ni OFFSET, cualquier página cuesta lo mismo.
+    @GetMapping("/cursor")
+    @RolesPermitidos({Rol.ADMIN, Rol.ENFERMERO, Rol.PACIENTE})
+    public ResponseEntity<PaginaCursor<MedicoResponse>> listarPorCursor(
+            @RequestParam(defaultValue = "APELLIDO") CampoOrden orden,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        PaginaCursor<MedicoResponse> response =
+                medicoService.listarPorCursor(Cursor.de(cursor, orden, direccion), size);
         return ResponseEntity.ok(response);
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO')")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
     public ResponseEntity<MedicoResponse> actualizarMedico(
             @PathVariable Long id,
             @Valid @RequestBody MedicoUpdateRequest request) {
@@ -81,18 +122,19 @@ public class MedicoController {
     }
 
     @PatchMapping("/{id}/estado")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<Void> cambiarEstado(
             @PathVariable Long id,
-            @RequestParam EstadoUsuario estado) {
-        medicoService.cambiarEstado(id, estado);
+            @RequestParam EstadoUsuario estado,
+            @RequestParam(required = false) Instant hasta) {
+        medicoService.cambiarEstado(id, estado, hasta);
         return ResponseEntity.noContent().build();
     }
 
     // ==================== Especialidades ====================
 
     @PutMapping("/{id}/especialidades")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<MedicoResponse> asignarEspecialidades(
             @PathVariable Long id,
             @RequestBody Set<Long> especialidadIds) {
@@ -101,7 +143,7 @@ public class MedicoController {
     }
 
     @PostMapping("/{id}/especialidades/{especialidadId}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<MedicoResponse> agregarEspecialidad(
             @PathVariable Long id,
             @PathVariable Long especialidadId) {
@@ -110,7 +152,7 @@ public class MedicoController {
     }
 
     @DeleteMapping("/{id}/especialidades/{especialidadId}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<MedicoResponse> removerEspecialidad(
             @PathVariable Long id,
             @PathVariable Long especialidadId) {
@@ -121,7 +163,7 @@ public class MedicoController {
     // ==================== Horarios ====================
 
     @PutMapping("/{id}/horarios")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO')")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
     public ResponseEntity<MedicoResponse> configurarHorarios(
             @PathVariable Long id,
             @Valid @RequestBody Set<HorarioAtencionDTO> horarios) {
@@ -129,8 +171,18 @@ public class MedicoController {
         return ResponseEntity.ok(response);
     }
 
+    // Agrega o quita franjas sueltas; el PUT reemplaza el horario completo
+    @PatchMapping("/{id}/horarios")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
+    public ResponseEntity<MedicoResponse> modificarHorarios(
+            @PathVariable Long id,
+            @Valid @RequestBody HorariosPatchRequest request) {
+        MedicoResponse response = medicoService.modificarHorarios(id, request);
+        return ResponseEntity.ok(response);
+    }
+
     @PatchMapping("/{id}/disponibilidad")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO')")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
     public ResponseEntity<Void> cambiarDisponibilidad(
             @PathVariable Long id,
             @RequestParam Boolean disponible) {
@@ -141,34 +193,38 @@ public class MedicoController {
     // ==================== Búsquedas y Filtros ====================
 
     @GetMapping("/especialidad/{especialidadId}")
-    @PreAuthorize("hasAnyRole('ADMIN', 'ENFERMERO', 'PACIENTE')")
-    public ResponseEntity<Page<MedicoResponse>> buscarPorEspecialidad(
+    @RolesPermitidos({Rol.ADMIN, Rol.ENFERMERO, Rol.PACIENTE})
+    public ResponseEntity<PaginaResponse<MedicoResponse>> buscarPorEspecialidad(
             @PathVariable Long especialidadId,
-            @PageableDefault(size = 10) Pageable pageable) {
-        Page<MedicoResponse> response = medicoService.buscarPorEspecialidad(especialidadId, pageable);
+            @PageableDefault(size = 10) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean conteoExacto) {
+        PaginaResponse<MedicoResponse> response =
+                medicoService.buscarPorEspecialidad(especialidadId, pageable, conteoExacto);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/disponibles")
-    @PreAuthorize("hasAnyRole('ADMIN', 'ENFERMERO', 'PACIENTE')")
-    public ResponseEntity<Page<MedicoResponse>> buscarDisponibles(
-            @PageableDefault(size = 10) Pageable pageable) {
-        Page<MedicoResponse> response = medicoService.buscarDisponibles(pageable);
+    @RolesPermitidos({Rol.ADMIN, Rol.ENFERMERO, Rol.PACIENTE})
+    public ResponseEntity<PaginaResponse<MedicoResponse>> buscarDisponibles(
+            @PageableDefault(size = 10) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean conteoExacto) {
+        PaginaResponse<MedicoResponse> response = medicoService.buscarDisponibles(pageable, conteoExacto);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/buscar")
-    @PreAuthorize("hasAnyRole('ADMIN', 'ENFERMERO', 'PACIENTE')")
-    public ResponseEntity<Page<MedicoResponse>> buscarConFiltros(
+    @RolesPermitidos({Rol.ADMIN, Rol.ENFERMERO, Rol.PACIENTE})
+    public ResponseEntity<PaginaResponse<MedicoResponse>> buscarConFiltros(
             @RequestParam(required = false) String nombre,
             @RequestParam(required = false) String apellido,
             @RequestParam(required = false) Long especialidadId,
             @RequestParam(required = false) Boolean disponible,
             @RequestParam(required = false) EstadoUsuario estado,
-            @PageableDefault(size = 10) Pageable pageable) {
+            @PageableDefault(size = 10) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean conteoExacto) {
         
-        Page<MedicoResponse> response = medicoService.buscarConFiltros(
-                nombre, apellido, especialidadId, disponible, estado, pageable);
+        PaginaResponse<MedicoResponse> response = medicoService.buscarConFiltros(
+                nombre, apellido, especialidadId, disponible, estado, pageable, conteoExacto);
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
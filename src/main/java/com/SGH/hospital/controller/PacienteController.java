@@ -1,10 +1,20 @@
 package com.SGH.hospital.controller;
 
+import com.SGH.hospital.config.RolesPermitidos;
+import com.SGH.hospital.dto.importacion.ImportacionResponse;
+import com.SGH.hospital.dto.paciente.BusquedaPacientesResponse;
 import com.SGH.hospital.dto.paciente.PacienteRequest;
 import com.SGH.hospital.dto.paciente.PacienteResponse;
 import com.SGH.hospital.dto.paciente.PacienteUpdateRequest;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.dto.paginacion.PaginaCursor;
+import com.SGH.hospital.dto.paginacion.PaginaResponse;
+import com.SGH.hospital.enums.CampoOrden;
 import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
+import com.SGH.hospital.service.PacienteImportService;
 import com.SGH.hospital.service.PacienteService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -12,10 +22,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,6 +37,7 @@ import java.util.Map;
 public class PacienteController {
 
     private final PacienteService pacienteService;
+    private final PacienteImportService pacienteImportService;
 
     /**
      * POST /api/pacientes - Crear un nuevo paciente
@@ -36,12 +49,27 @@ public class PacienteController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * POST /api/pacientes/import - Alta masiva de pacientes
+     * Cuerpo: NDJSON (application/x-ndjson) o CSV con encabezado (text/csv), con los
+     * campos de PacienteRequest. El archivo se procesa en streaming y la respuesta
+     * informa las filas importadas y el motivo de cada fila rechazada.
+     * Accesible solo para ADMIN
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @RolesPermitidos(Rol.ADMIN)
+    public ResponseEntity<ImportacionResponse> importarPacientes(HttpServletRequest request) throws IOException {
+        ImportacionResponse response = pacienteImportService.importar(
+                request.getInputStream(), MediaType.parseMediaType(request.getContentType()));
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * GET /api/pacientes/{id} - Obtener paciente por ID
      * Accesible para ADMIN, MEDICO y el propio PACIENTE
      */
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO', 'PACIENTE')")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO, Rol.PACIENTE})
     public ResponseEntity<PacienteResponse> obtenerPorId(@PathVariable Long id) {
         PacienteResponse response = pacienteService.obtenerPorId(id);
         return ResponseEntity.ok(response);
@@ -52,7 +80,7 @@ public class PacienteController {
      * Accesible para ADMIN y MEDICO
      */
     @GetMapping("/dni/{dni}")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO')")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
     public ResponseEntity<PacienteResponse> obtenerPorDni(@PathVariable String dni) {
         PacienteResponse response = pacienteService.obtenerPorDni(dni);
         return ResponseEntity.ok(response);
@@ -63,7 +91,7 @@ public class PacienteController {
      * Accesible para ADMIN
      */
     @GetMapping("/email/{email}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<PacienteResponse> obtenerPorEmail(@PathVariable String email) {
         PacienteResponse response = pacienteService.obtenerPorEmail(email);
         return ResponseEntity.ok(response);
@@ -71,23 +99,46 @@ public class PacienteController {
 
     /**
      * GET /api/pacientes - Listar todos los pacientes con paginación
-     * Parámetros: page (default 0), size (default 10), sort (default createdAt,desc)
+     * Parámetros: page (default 0), size (default 10), sort (default createdAt,desc),
+     * conteoExacto (default false: el total es ESTIMADO, sin COUNT en cada request)
      * Accesible para ADMIN y MEDICO
      */
     @GetMapping
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO')")
-    public ResponseEntity<Page<PacienteResponse>> listarTodos(
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
+    public ResponseEntity<PaginaResponse<PacienteResponse>> listarTodos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean conteoExacto) {
         
         Sort sort = sortDir.equalsIgnoreCase("asc") 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<PacienteResponse> response = pacienteService.listarTodos(pageable);
+        PaginaResponse<PacienteResponse> response = pacienteService.listarTodos(pageable, conteoExacto);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/pacientes/cursor - Listar pacientes por cursor (keyset)
+     * Parámetros: orden (CREATED_AT, APELLIDO o ID; default CREATED_AT), direccion
+     * (default DESC), size (default 20, máximo 100) y cursor. La primera página se pide
+     * sin cursor; las siguientes con el siguienteCursor de la respuesta, que ya incluye
+     * el orden y la dirección. Sin COUNT: cualquier página cuesta lo mismo que la primera.
+     * Accesible para ADMIN y MEDICO
+     */
+    @GetMapping("/cursor")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
+    public ResponseEntity<PaginaCursor<PacienteResponse>> listarPorCursor(
+            @RequestParam(defaultValue = "CREATED_AT") CampoOrden orden,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direccion,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+
+        PaginaCursor<PacienteResponse> response =
+                pacienteService.listarPorCursor(Cursor.de(cursor, orden, direccion), size);
         return ResponseEntity.ok(response);
     }
 
@@ -96,7 +147,7 @@ public class PacienteController {
      * Accesible para ADMIN y MEDICO
      */
     @GetMapping("/activos")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO')")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
     public ResponseEntity<Page<PacienteResponse>> listarActivos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -111,7 +162,7 @@ public class PacienteController {
      * Accesible para ADMIN
      */
     @GetMapping("/estado/{estado}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<Page<PacienteResponse>> listarPorEstado(
             @PathVariable EstadoUsuario estado,
             @RequestParam(defaultValue = "0") int page,
@@ -128,7 +179,7 @@ public class PacienteController {
      * Accesible para ADMIN y MEDICO
      */
     @GetMapping("/buscar")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MEDICO')")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
     public ResponseEntity<Page<PacienteResponse>> buscar(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
@@ -139,12 +190,29 @@ public class PacienteController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * GET /api/pacientes/typeahead - Búsqueda rápida para mostrador
+     * Parámetros: q (palabras de nombre o apellido, o parte del DNI o del número de
+     * afiliado; sin distinguir tildes ni mayúsculas) y limite (default 10, máximo 50).
+     * Resultados ordenados por coincidencia; parcial=true si la búsqueda se cortó por tiempo
+     * Accesible para ADMIN y MEDICO
+     */
+    @GetMapping("/typeahead")
+    @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
+    public ResponseEntity<BusquedaPacientesResponse> buscarRapido(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limite) {
+
+        BusquedaPacientesResponse response = pacienteService.buscarRapido(q, limite);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * PUT /api/pacientes/{id} - Actualizar datos del paciente
      * Accesible para ADMIN y el propio PACIENTE
      */
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or (#id == authentication.principal.id and hasRole('PACIENTE'))")
+    @RolesPermitidos(value = Rol.ADMIN, propietario = Rol.PACIENTE)
     public ResponseEntity<PacienteResponse> actualizarPaciente(
             @PathVariable Long id,
             @Valid @RequestBody PacienteUpdateRequest request) {
@@ -155,15 +223,17 @@ public class PacienteController {
 
     /**
      * PATCH /api/pacientes/{id}/estado - Cambiar estado del paciente
+     * Con estado=SUSPENDIDO y hasta (ISO-8601) la suspensión vence sola
      * Accesible solo para ADMIN
      */
     @PatchMapping("/{id}/estado")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<PacienteResponse> cambiarEstado(
             @PathVariable Long id,
-            @RequestParam EstadoUsuario estado) {
+            @RequestParam EstadoUsuario estado,
+            @RequestParam(required = false) Instant hasta) {
         
-        PacienteResponse response = pacienteService.cambiarEstado(id, estado);
+        PacienteResponse response = pacienteService.cambiarEstado(id, estado, hasta);
         return ResponseEntity.ok(response);
     }
 
@@ -172,7 +242,7 @@ public class PacienteController {
      * Accesible solo para ADMIN
      */
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<Map<String, String>> eliminarPaciente(@PathVariable Long id) {
         pacienteService.eliminarPaciente(id);
         
@@ -188,7 +258,7 @@ public class PacienteController {
      * Accesible para ADMIN
      */
     @GetMapping("/stats/count")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RolesPermitidos(Rol.ADMIN)
     public ResponseEntity<Map<String, Long>> obtenerEstadisticas() {
         Map<String, Long> stats = new HashMap<>();
         stats.put("activos", pacienteService.contarPorEstado(EstadoUsuario.ACTIVO));
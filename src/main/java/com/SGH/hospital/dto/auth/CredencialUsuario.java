@@ -0,0 +1,29 @@
+package com.SGH.hospital.dto.auth;
+
+// Enums de rol y estado del usuario
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
+
+// Lombok: genera getters y el constructor con todos los campos
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Proyección mínima del usuario para el login: una sola consulta sobre la tabla
+// usuario (sin hidratar la entidad ni unir las tablas de Medico/Paciente)
+@Getter
+@AllArgsConstructor
+public final class CredencialUsuario {
+
+    private final Long id;
+    private final String email;
+
+    // Hash BCrypt de la contraseña
+    private final String password;
+
+    private final Rol rol;
+    private final EstadoUsuario estado;
+
+    // Se devuelven en AuthResponse
+    private final String nombre;
+    private final String apellido;
+}
@@ -0,0 +1,20 @@
+package com.SGH.hospital.dto.especialidad;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class EspecialidadRequest {
+
+    @NotBlank(message = "El nombre es obligatorio")
+    @Size(max = 100)
+    private String nombre;
+
+    public EspecialidadRequest() {}
+
+    public EspecialidadRequest(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+}
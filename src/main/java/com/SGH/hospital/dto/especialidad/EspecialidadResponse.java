@@ -1,5 +1,24 @@
 package com.SGH.hospital.dto.especialidad;
 
+/**
+ * Especialidad del catálogo. Inmutable: las mismas instancias se comparten entre
+ * todos los requests que leen el catálogo en memoria (EspecialidadService).
+ */
 public class EspecialidadResponse {
-    
+
+    private final Long id;
+    private final String nombre;
+    private final boolean activa;
+
+    public EspecialidadResponse(Long id, String nombre, boolean activa) {
+        this.id = id;
+        this.nombre = nombre;
+        this.activa = activa;
+    }
+
+    public Long getId() { return id; }
+
+    public String getNombre() { return nombre; }
+
+    public boolean isActiva() { return activa; }
 }
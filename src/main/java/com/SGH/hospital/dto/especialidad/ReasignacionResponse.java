@@ -0,0 +1,28 @@
+package com.SGH.hospital.dto.especialidad;
+
+/**
+ * Resultado de una operación masiva sobre las asignaciones de una especialidad
+ * (reasignar, fusionar o desvincular). destinoId es null al desvincular.
+ */
+public class ReasignacionResponse {
+
+    private final Long especialidadId;
+    private final Long destinoId;
+    private final int asignacionesCreadas;
+    private final int asignacionesQuitadas;
+
+    public ReasignacionResponse(Long especialidadId, Long destinoId, int asignacionesCreadas, int asignacionesQuitadas) {
+        this.especialidadId = especialidadId;
+        this.destinoId = destinoId;
+        this.asignacionesCreadas = asignacionesCreadas;
+        this.asignacionesQuitadas = asignacionesQuitadas;
+    }
+
+    public Long getEspecialidadId() { return especialidadId; }
+
+    public Long getDestinoId() { return destinoId; }
+
+    public int getAsignacionesCreadas() { return asignacionesCreadas; }
+
+    public int getAsignacionesQuitadas() { return asignacionesQuitadas; }
+}
@@ -0,0 +1,28 @@
+package com.SGH.hospital.dto.horarioAtencion;
+
+import jakarta.validation.Valid;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cambio parcial de los horarios de un médico: franjas a agregar y a quitar.
+ * Una franja se identifica por día, hora de inicio y hora de fin; en "quitar"
+ * el campo activo no se usa.
+ */
+public class HorariosPatchRequest {
+
+    @Valid
+    private Set<HorarioAtencionDTO> agregar = new HashSet<>();
+
+    @Valid
+    private Set<HorarioAtencionDTO> quitar = new HashSet<>();
+
+    public HorariosPatchRequest() {}
+
+    // Getters y Setters
+    public Set<HorarioAtencionDTO> getAgregar() { return agregar; }
+    public void setAgregar(Set<HorarioAtencionDTO> agregar) { this.agregar = agregar; }
+
+    public Set<HorarioAtencionDTO> getQuitar() { return quitar; }
+    public void setQuitar(Set<HorarioAtencionDTO> quitar) { this.quitar = quitar; }
+}
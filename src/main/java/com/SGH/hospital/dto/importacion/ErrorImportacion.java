@@ -0,0 +1,17 @@
+package com.SGH.hospital.dto.importacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Error de una fila (o registro) del archivo importado
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorImportacion {
+    private long fila;          // Número de fila/registro en el archivo (desde 1, sin contar el encabezado)
+    private String campo;       // Campo con error; null si el error es de la fila completa
+    private String mensaje;
+}
@@ -0,0 +1,23 @@
+package com.SGH.hospital.dto.importacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Resultado de una importación masiva: conteos, errores por fila y rendimiento
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacionResponse {
+    private long totalFilas;
+    private long importadas;
+    private long rechazadas;
+    private List<ErrorImportacion> errores;
+    private long erroresOmitidos;   // Errores no listados por superar el máximo del reporte
+    private long duracionMs;
+    private double filasPorSegundo;
+}
@@ -0,0 +1,19 @@
+package com.SGH.hospital.dto.paciente;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Respuesta de la búsqueda rápida. parcial = se cortó por el presupuesto de tiempo o por
+// demasiados candidatos: conviene seguir escribiendo para afinar la búsqueda.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusquedaPacientesResponse {
+    private List<PacienteSugerencia> resultados;
+    private boolean parcial;
+}
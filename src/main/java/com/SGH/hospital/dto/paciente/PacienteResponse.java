@@ -3,30 +3,30 @@ package com.SGH.hospital.dto.paciente;
 import com.SGH.hospital.enums.EstadoUsuario;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-@Data
+// Inmutable: las lecturas de PacienteRepository la construyen directamente en la consulta.
+// El orden de los campos define el constructor que usan esas proyecciones (PacienteRepository.PROYECCION).
+@Value
 @Builder
-@NoArgsConstructor
 @AllArgsConstructor
 public class PacienteResponse {
 
-    private Long id;
-    private String nombre;
-    private String apellido;
-    private String dni;
-    private String email;
-    private String telefono;
-    private LocalDate fechaNacimiento;
-    private String direccion;
-    private String numeroAfiliado;
-    private EstadoUsuario estado;
-    private LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
+    Long id;
+    String nombre;
+    String apellido;
+    String dni;
+    String email;
+    String telefono;
+    LocalDate fechaNacimiento;
+    String direccion;
+    String numeroAfiliado;
+    EstadoUsuario estado;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
 
     // Método estático para facilitar la conversión desde la entidad
     public static PacienteResponse fromEntity(com.SGH.hospital.entity.Paciente paciente) {
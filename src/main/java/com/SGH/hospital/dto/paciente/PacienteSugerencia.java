@@ -0,0 +1,22 @@
+package com.SGH.hospital.dto.paciente;
+
+import com.SGH.hospital.enums.EstadoUsuario;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+// Resultado de la búsqueda rápida de pacientes: lo necesario para identificar al paciente
+// en mostrador. puntaje ordena los resultados (mayor = mejor coincidencia).
+@Value
+@Builder
+@AllArgsConstructor
+public class PacienteSugerencia {
+
+    Long id;
+    String nombre;
+    String apellido;
+    String dni;
+    String numeroAfiliado;
+    EstadoUsuario estado;
+    int puntaje;
+}
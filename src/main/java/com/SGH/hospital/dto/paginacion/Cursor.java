@@ -0,0 +1,75 @@
+package com.SGH.hospital.dto.paginacion;
+
+import com.SGH.hospital.enums.CampoOrden;
+import com.SGH.hospital.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición en un listado ordenado por (orden, id): el valor del campo de orden y el id
+ * del último registro entregado. Sin valor ni id es el inicio del listado.
+ *
+ * Viaja al cliente como texto opaco (Base64 URL de "orden|direccion|id|valor"); el
+ * valor va al final porque un apellido puede contener el separador.
+ *
+ * Los campos de orden (created_at, apellido) son NOT NULL: una fila con NULL no se
+ * alcanzaría comparando (valor, id) y su cursor no se podría decodificar (V1_3).
+ */
+public record Cursor(CampoOrden orden, Sort.Direction direccion, Object valor, Long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Tamaño máximo de página de los listados por cursor
+    public static final int TAMANIO_MAXIMO = 100;
+
+    /**
+     * Posición pedida por el cliente: el cursor recibido o, sin cursor, el inicio del
+     * listado en el orden indicado. El cursor ya trae su orden y dirección.
+     */
+    public static Cursor de(String cursor, CampoOrden orden, Sort.Direction direccion) {
+        return cursor == null || cursor.isBlank() ? inicio(orden, direccion) : decodificar(cursor);
+    }
+
+    public static Cursor inicio(CampoOrden orden, Sort.Direction direccion) {
+        return new Cursor(orden, direccion, null, null);
+    }
+
+    public boolean esInicio() {
+        return id == null;
+    }
+
+    // Posición del registro dado, con el mismo orden y dirección
+    public Cursor siguiente(Object valor, Long id) {
+        return new Cursor(orden, direccion, orden == CampoOrden.ID ? id : valor, id);
+    }
+
+    public String codificar() {
+        String texto = orden.name() + "|" + direccion.name() + "|" + id + "|" + valor;
+        return ENCODER.encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decodificar(String cursor) {
+        try {
+            String[] partes = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            if (partes.length != 4) {
+                throw new IllegalArgumentException("partes: " + partes.length);
+            }
+            CampoOrden orden = CampoOrden.valueOf(partes[0]);
+            Long id = Long.valueOf(partes[2]);
+            Object valor = switch (orden) {
+                case CREATED_AT -> LocalDateTime.parse(partes[3]);
+                case APELLIDO -> partes[3];
+                case ID -> id;
+            };
+            return new Cursor(orden, Sort.Direction.valueOf(partes[1]), valor, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Base64 inválido, campo desconocido o valores que no corresponden al campo
+            throw new BadRequestException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.SGH.hospital.dto.paginacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Página de un listado por cursor: sin total ni número de página (no se ejecuta COUNT).
+// siguienteCursor es null en la última página.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursor<T> {
+    private List<T> contenido;
+    private int tamanio;
+    private boolean hayMas;
+    private String siguienteCursor;
+
+    // siguiente: posición del último registro entregado, o null si no hay más registros
+    public static <T> PaginaCursor<T> de(List<T> contenido, Cursor siguiente) {
+        return new PaginaCursor<>(contenido, contenido.size(), siguiente != null,
+                siguiente != null ? siguiente.codificar() : null);
+    }
+}
@@ -0,0 +1,32 @@
+package com.SGH.hospital.dto.paginacion;
+
+import com.SGH.hospital.enums.TipoConteo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+// Página de un listado con total. conteo indica si el total se contó en esta consulta
+// (EXACTO) o viene de la caché de conteos o de las estadísticas de la base (ESTIMADO).
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaResponse<T> {
+    private List<T> contenido;
+    private int pagina;
+    private int tamanio;
+    private long totalElementos;
+    private int totalPaginas;
+    private TipoConteo conteo;
+    private boolean hayMas;
+
+    public static <T> PaginaResponse<T> de(Slice<T> slice, long total, TipoConteo conteo) {
+        int tamanio = slice.getSize();
+        return new PaginaResponse<>(slice.getContent(), slice.getNumber(), tamanio, total,
+                tamanio == 0 ? 1 : (int) Math.ceil((double) total / tamanio), conteo, slice.hasNext());
+    }
+}
@@ -1,15 +1,20 @@
 package com.SGH.hospital.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "especialidades")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "especialidades")
 public class Especialidad {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "especialidades_seq")
+    @SequenceGenerator(name = "especialidades_seq", sequenceName = "especialidades_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 100)
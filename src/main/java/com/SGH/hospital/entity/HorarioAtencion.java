@@ -2,15 +2,20 @@ package com.SGH.hospital.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 
 @Entity
 @Table(name = "horarios_atencion")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "horarios")
 public class HorarioAtencion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "horarios_atencion_seq")
+    @SequenceGenerator(name = "horarios_atencion_seq", sequenceName = "horarios_atencion_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -1,6 +1,8 @@
 package com.SGH.hospital.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -24,8 +26,12 @@ public class Medico extends Usuario {
 
     // ==================== Relaciones ====================
 
-    // Relación ManyToMany con Especialidad
+    // Relación ManyToMany con Especialidad. Las colecciones van a la caché de segundo
+    // nivel (ids de los elementos): se invalidan solas al modificarlas por estos métodos
+    // o por el getter. El SQL directo sobre medico_especialidad / horarios_atencion las
+    // tiene que invalidar a mano (ver EspecialidadService.invalidarAsignaciones)
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medico-especialidades")
     @JoinTable(
         name = "medico_especialidad",
         joinColumns = @JoinColumn(name = "medico_id"),
@@ -35,6 +41,7 @@ public class Medico extends Usuario {
 
     // Relación OneToMany con HorarioAtencion
     @OneToMany(mappedBy = "medico", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medico-horarios")
     private Set<HorarioAtencion> horariosAtencion = new HashSet<>();
 
     // ==================== Constructores ====================
@@ -0,0 +1,29 @@
+package com.SGH.hospital.entity;
+
+import com.SGH.hospital.config.PiiCipher;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Cifra y descifra de forma transparente las columnas con datos personales.
+ * Hibernate obtiene la instancia del contenedor de Spring, que inyecta PiiCipher.
+ */
+@Converter
+public class PiiConverter implements AttributeConverter<String, String> {
+
+    private final PiiCipher piiCipher;
+
+    public PiiConverter(PiiCipher piiCipher) {
+        this.piiCipher = piiCipher;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return piiCipher.encrypt(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return piiCipher.decrypt(dbData);
+    }
+}
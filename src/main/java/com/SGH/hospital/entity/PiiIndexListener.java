@@ -0,0 +1,26 @@
+package com.SGH.hospital.entity;
+
+import com.SGH.hospital.config.PiiCipher;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Recalcula los índices ciegos de DNI y email antes de cada INSERT/UPDATE,
+ * así nunca quedan desincronizados del valor cifrado.
+ */
+public class PiiIndexListener {
+
+    private final PiiCipher piiCipher;
+
+    public PiiIndexListener(PiiCipher piiCipher) {
+        this.piiCipher = piiCipher;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void indexar(Usuario usuario) {
+        usuario.setIndicesCiegos(
+                piiCipher.blindIndexDni(usuario.getDni()),
+                piiCipher.blindIndexEmail(usuario.getEmail()));
+    }
+}
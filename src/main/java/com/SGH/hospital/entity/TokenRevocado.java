@@ -0,0 +1,75 @@
+package com.SGH.hospital.entity;
+
+import com.SGH.hospital.enums.TipoRevocacion;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Identificador de token (jti) o de sesión (familia) que ya no debe aceptarse.
+ *
+ * Las filas solo se necesitan hasta que vence el último token afectado (expiraEn);
+ * después se purgan. En memoria se replican en un filtro de Bloom.
+ */
+@Entity
+@Table(name = "tokens_revocados")
+public class TokenRevocado {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TipoRevocacion tipo;
+
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private Instant expiraEn;
+
+    @Column(nullable = false)
+    private Instant revocadoEn;
+
+    // ---------- Getters y Setters ----------
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public TipoRevocacion getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(TipoRevocacion tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public Instant getExpiraEn() {
+        return expiraEn;
+    }
+
+    public void setExpiraEn(Instant expiraEn) {
+        this.expiraEn = expiraEn;
+    }
+
+    public Instant getRevocadoEn() {
+        return revocadoEn;
+    }
+
+    public void setRevocadoEn(Instant revocadoEn) {
+        this.revocadoEn = revocadoEn;
+    }
+}
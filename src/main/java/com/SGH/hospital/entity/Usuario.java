@@ -8,29 +8,60 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import com.SGH.hospital.enums.Rol;
 import com.SGH.hospital.enums.EstadoUsuario;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
 @DiscriminatorColumn(name = "tipo_usuario")
-@EntityListeners(AuditingEntityListener.class)
+// El esquema y sus índices los crean las migraciones (db/migration); estos @Index
+// repiten los de V1 para el esquema que genera Hibernate en los tests
+@Table(name = "usuario", indexes = {
+        @Index(name = "idx_usuario_dni_hash", columnList = "dni_hash"),
+        // Listados por cursor: (campo de orden, id) para recorrer el índice desde el cursor
+        @Index(name = "idx_usuario_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_usuario_apellido_id", columnList = "apellido, id")
+})
+@EntityListeners({AuditingEntityListener.class, PiiIndexListener.class})
 public abstract class Usuario {
 
+    // Ids que reserva cada llamada a usuario_seq (también la usa el alta masiva por JDBC)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Secuencia con asignación por bloques (pooled-lo): los INSERT se pueden agrupar en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "usuario_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String nombre;        // Nombre del usuario
-    private String apellido;      // Apellido del usuario
+    @Column(nullable = false)
+    private String apellido;      // Apellido del usuario (clave de orden de los listados por cursor)
+
+    // Datos personales cifrados en la BD (AES-GCM); nunca se buscan por estas columnas
+    @Convert(converter = PiiConverter.class)
+    @Column(length = 128)
     private String dni;           // DNI del usuario
+
+    @Convert(converter = PiiConverter.class)
+    @Column(length = 128)
     private String telefono;      // Teléfono del usuario
+
     private String direccion;     // Dirección del usuario
     private LocalDate fechaNacimiento; // Fecha de nacimiento
 
-    @Column(nullable = false, unique = true)
+    @Convert(converter = PiiConverter.class)
+    @Column(nullable = false, length = 512)
     private String email;
 
+    // Índices ciegos (HMAC del valor normalizado): las búsquedas por igualdad usan estas columnas
+    @Column(name = "dni_hash", length = 44)
+    private String dniHash;
+
+    @Column(name = "email_hash", nullable = false, unique = true, length = 44)
+    private String emailHash;
+
     @Column(nullable = false)
     private String password;
 
@@ -40,8 +71,12 @@ public abstract class Usuario {
     @Enumerated(EnumType.STRING)
     private EstadoUsuario estado;
 
+    // Fin de una suspensión temporal (null = sin vencimiento); solo con estado SUSPENDIDO
+    @Column(name = "suspendido_hasta")
+    private Instant suspendidoHasta;
+
     @CreatedDate
-    @Column(updatable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @LastModifiedDate
@@ -109,6 +144,20 @@ public abstract class Usuario {
         this.email = email;
     }
 
+    public String getDniHash() {
+        return dniHash;
+    }
+
+    public String getEmailHash() {
+        return emailHash;
+    }
+
+    // Solo PiiIndexListener: los índices se derivan siempre de dni/email
+    void setIndicesCiegos(String dniHash, String emailHash) {
+        this.dniHash = dniHash;
+        this.emailHash = emailHash;
+    }
+
     public String getPassword() {
         return password;
     }
@@ -133,6 +182,14 @@ public abstract class Usuario {
         this.estado = estado;
     }
 
+    public Instant getSuspendidoHasta() {
+        return suspendidoHasta;
+    }
+
+    public void setSuspendidoHasta(Instant suspendidoHasta) {
+        this.suspendidoHasta = suspendidoHasta;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,27 @@
+package com.SGH.hospital.enums; // Paquete que contiene los enums del sistema
+
+/**
+ * Enum con los campos por los que se puede ordenar un listado paginado por cursor.
+ * Es una lista cerrada: cada campo tiene un índice (campo, id) en la tabla usuario,
+ * así cualquier página se lee con un recorrido del índice a partir del cursor.
+ */
+public enum CampoOrden {
+
+    // Nombre de la propiedad de la entidad para cada campo de orden
+    CREATED_AT("createdAt"),
+    APELLIDO("apellido"),
+    ID("id");
+
+    // Propiedad de Usuario usada en la consulta (nunca texto recibido del cliente)
+    private final String propiedad;
+
+    // Constructor del enum, asigna la propiedad a cada valor
+    CampoOrden(String propiedad) {
+        this.propiedad = propiedad;
+    }
+
+    // Devuelve la propiedad de la entidad
+    public String getPropiedad() {
+        return propiedad;
+    }
+}
@@ -0,0 +1,24 @@
+package com.SGH.hospital.enums; // Paquete que contiene los enums del sistema
+
+/**
+ * Enum que indica de dónde sale el total de un listado paginado
+ */
+public enum TipoConteo {
+
+    // Origen del total, cada uno con una descripción
+    EXACTO("Contado en esta consulta"),
+    ESTIMADO("Tomado de la caché de conteos o de las estadísticas de la base");
+
+    // Descripción asociada a cada tipo de conteo
+    private final String descripcion;
+
+    // Constructor del enum, asigna la descripción a cada valor
+    TipoConteo(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    // Devuelve la descripción del tipo de conteo
+    public String getDescripcion() {
+        return descripcion;
+    }
+}
@@ -0,0 +1,13 @@
+package com.SGH.hospital.enums; // Paquete donde se agrupan los enums del sistema
+
+/**
+ * Qué identificador de un JWT quedó revocado
+ */
+public enum TipoRevocacion {
+
+    // Un refresh token puntual (jti) que ya fue usado y rotado
+    TOKEN,
+
+    // Toda una sesión (familia de tokens): logout o reuso detectado
+    FAMILIA
+}
@@ -0,0 +1,16 @@
+package com.SGH.hospital.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    // Segundos sugeridos al cliente antes de reintentar (header Retry-After)
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,165 @@
+package com.SGH.hospital.migracion;
+
+import com.SGH.hospital.config.PiiCipher;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cifra los datos personales de las bases anteriores al cifrado y calcula sus índices ciegos.
+ *
+ * Las bases que venían de ddl-auto=update se marcan como V1 sin ejecutarlo. Las anteriores
+ * al cifrado tienen DNI, email y teléfono en texto plano, no tienen dni_hash/email_hash y la
+ * unicidad está sobre email; las que ya cifraba la aplicación al arrancar, antes de
+ * Flyway, no tienen nada pendiente. Es una migración Java porque cifrar necesita PiiCipher
+ * y sus claves; Flyway la recibe como bean de Spring (no está en db/migration para que no
+ * la instancie él).
+ *
+ * Un valor que ya está cifrado (filas escritas por una versión intermedia con
+ * ddl-auto=update) se conserva y solo se le calcula el índice. En una base creada desde
+ * V1 no hay filas sin índice y no cambia nada. SQL común a PostgreSQL y H2.
+ */
+@Component
+public class V1_2__CifradoDatosPersonales extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V1_2__CifradoDatosPersonales.class);
+
+    private static final int LOTE = 1000;
+    // Máximo de ids listados cuando hay datos que impiden terminar la migración
+    private static final int IDS_EN_ERROR = 50;
+
+    private final PiiCipher piiCipher;
+
+    public V1_2__CifradoDatosPersonales(PiiCipher piiCipher) {
+        this.piiCipher = piiCipher;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement st = connection.createStatement()) {
+            st.execute("ALTER TABLE usuario ADD COLUMN IF NOT EXISTS dni_hash VARCHAR(44)");
+            st.execute("ALTER TABLE usuario ADD COLUMN IF NOT EXISTS email_hash VARCHAR(44)");
+            st.execute("ALTER TABLE usuario ALTER COLUMN email SET DATA TYPE VARCHAR(512)");
+            // El email cifrado con IV aleatorio no sirve para unicidad: pasa a email_hash
+            for (String restriccion : restriccionesUnicas(connection, "email")) {
+                st.execute("ALTER TABLE usuario DROP CONSTRAINT \"" + restriccion + "\"");
+            }
+        }
+
+        int cifrados = cifrarPendientes(connection);
+        if (cifrados > 0) {
+            log.info("Datos personales cifrados e indexados: {} usuarios", cifrados);
+        }
+
+        // Emails que solo difieren en mayúsculas o espacios comparten índice ciego
+        fallarSiHay(connection, "SELECT id FROM usuario WHERE email_hash IN "
+                        + "(SELECT email_hash FROM usuario GROUP BY email_hash HAVING COUNT(*) > 1) ORDER BY email_hash, id",
+                "Hay usuarios con el mismo email (sin distinguir mayúsculas); unificarlos antes de migrar");
+        fallarSiHay(connection, "SELECT id FROM usuario WHERE LENGTH(dni) > 128 OR LENGTH(telefono) > 128 ORDER BY id",
+                "Hay DNI o teléfonos demasiado largos para guardarse cifrados; corregirlos antes de migrar");
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("ALTER TABLE usuario ALTER COLUMN dni SET DATA TYPE VARCHAR(128)");
+            st.execute("ALTER TABLE usuario ALTER COLUMN telefono SET DATA TYPE VARCHAR(128)");
+            st.execute("ALTER TABLE usuario ALTER COLUMN email_hash SET NOT NULL");
+            if (restriccionesUnicas(connection, "email_hash").isEmpty()) {
+                st.execute("ALTER TABLE usuario ADD CONSTRAINT uk_usuario_email_hash UNIQUE (email_hash)");
+            }
+            st.execute("CREATE INDEX IF NOT EXISTS idx_usuario_dni_hash ON usuario (dni_hash)");
+        }
+    }
+
+    // Recorre por id los usuarios sin índice, de a LOTE filas y con un UPDATE en batch por lote
+    private int cifrarPendientes(Connection connection) throws SQLException {
+        int total = 0;
+        long ultimoId = Long.MIN_VALUE;
+        try (PreparedStatement lectura = connection.prepareStatement(
+                     "SELECT id, dni, email, telefono FROM usuario"
+                             + " WHERE id > ? AND (email_hash IS NULL OR (dni IS NOT NULL AND dni_hash IS NULL))"
+                             + " ORDER BY id LIMIT " + LOTE);
+             PreparedStatement escritura = connection.prepareStatement(
+                     "UPDATE usuario SET dni = ?, email = ?, telefono = ?, dni_hash = ?, email_hash = ? WHERE id = ?")) {
+            int filas;
+            do {
+                filas = 0;
+                lectura.setLong(1, ultimoId);
+                try (ResultSet rs = lectura.executeQuery()) {
+                    while (rs.next()) {
+                        ultimoId = rs.getLong(1);
+                        String dni = plano(rs.getString(2));
+                        String email = plano(rs.getString(3));
+                        escritura.setString(1, cifrado(rs.getString(2), dni));
+                        escritura.setString(2, cifrado(rs.getString(3), email));
+                        escritura.setString(3, cifrado(rs.getString(4), plano(rs.getString(4))));
+                        escritura.setString(4, piiCipher.blindIndexDni(dni));
+                        escritura.setString(5, piiCipher.blindIndexEmail(email));
+                        escritura.setLong(6, ultimoId);
+                        escritura.addBatch();
+                        filas++;
+                    }
+                }
+                if (filas > 0) {
+                    escritura.executeBatch();
+                    total += filas;
+                }
+            } while (filas == LOTE);
+        }
+        return total;
+    }
+
+    private String plano(String guardado) {
+        return piiCipher.isEncrypted(guardado) ? piiCipher.decrypt(guardado) : guardado;
+    }
+
+    // Si plano() no lo cambió, el valor guardado estaba en texto plano
+    private String cifrado(String guardado, String plano) {
+        return Objects.equals(guardado, plano) ? piiCipher.encrypt(plano) : guardado;
+    }
+
+    // Restricciones UNIQUE de usuario que cubren solo esa columna (el nombre lo generó Hibernate)
+    private static List<String> restriccionesUnicas(Connection connection, String columna) throws SQLException {
+        List<String> nombres = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT tc.constraint_name FROM information_schema.table_constraints tc"
+                        + " JOIN information_schema.key_column_usage kcu"
+                        + " ON kcu.constraint_schema = tc.constraint_schema AND kcu.constraint_name = tc.constraint_name"
+                        + " WHERE tc.table_schema = ? AND tc.table_name = 'usuario' AND tc.constraint_type = 'UNIQUE'"
+                        + " GROUP BY tc.constraint_name HAVING COUNT(*) = 1 AND MAX(kcu.column_name) = ?")) {
+            ps.setString(1, connection.getSchema());
+            ps.setString(2, columna);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    nombres.add(rs.getString(1));
+                }
+            }
+        }
+        return nombres;
+    }
+
+    private static void fallarSiHay(Connection connection, String consultaIds, String mensaje) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement st = connection.createStatement()) {
+            st.setMaxRows(IDS_EN_ERROR);
+            try (ResultSet rs = st.executeQuery(consultaIds)) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            throw new IllegalStateException(mensaje + ". Usuarios: " + ids);
+        }
+    }
+}
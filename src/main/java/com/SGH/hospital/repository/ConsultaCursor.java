@@ -0,0 +1,62 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.enums.CampoOrden;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Paginación por cursor (keyset) compartida por los listados de pacientes y médicos.
+ *
+ * En lugar de OFFSET, cada página continúa desde la posición del cursor con una
+ * comparación de fila "(campo, id) > (:valor, :id)", que PostgreSQL resuelve
+ * recorriendo el índice (campo, id) desde ese punto: la página 5000 cuesta lo mismo
+ * que la primera. El id desempata los valores repetidos del campo de orden.
+ * Se pide un registro de más para saber si hay otra página, sin COUNT.
+ */
+final class ConsultaCursor {
+
+    private ConsultaCursor() {
+    }
+
+    /**
+     * WHERE (si el cursor no es el inicio) y ORDER BY para la entidad con el alias dado.
+     * La propiedad sale de CampoOrden, nunca de texto del cliente.
+     */
+    static String desde(String alias, Cursor cursor) {
+        String campo = alias + "." + cursor.orden().getPropiedad();
+        String id = alias + ".id";
+        boolean asc = cursor.direccion() == Sort.Direction.ASC;
+        String comparador = asc ? " > " : " < ";
+        String direccion = asc ? " ASC" : " DESC";
+
+        StringBuilder jpql = new StringBuilder();
+        if (!cursor.esInicio()) {
+            jpql.append(cursor.orden() == CampoOrden.ID
+                    ? " WHERE " + id + comparador + ":id"
+                    : " WHERE (" + campo + ", " + id + ")" + comparador + "(:valor, :id)");
+        }
+        jpql.append(" ORDER BY ");
+        if (cursor.orden() != CampoOrden.ID) {
+            jpql.append(campo).append(direccion).append(", ");
+        }
+        return jpql.append(id).append(direccion).toString();
+    }
+
+    static <T> Slice<T> ejecutar(TypedQuery<T> query, Cursor cursor, int size) {
+        if (!cursor.esInicio()) {
+            query.setParameter("id", cursor.id());
+            if (cursor.orden() != CampoOrden.ID) {
+                query.setParameter("valor", cursor.valor());
+            }
+        }
+        List<T> filas = query.setMaxResults(size + 1).getResultList();
+        boolean hayMas = filas.size() > size;
+        return new SliceImpl<>(hayMas ? filas.subList(0, size) : filas, PageRequest.ofSize(size), hayMas);
+    }
+}
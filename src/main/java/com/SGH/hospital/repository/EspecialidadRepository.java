@@ -1,8 +1,12 @@
 package com.SGH.hospital.repository;
 
 import com.SGH.hospital.entity.Especialidad;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -61,4 +65,47 @@ public interface EspecialidadRepository extends JpaRepository<Especialidad, Long
            "JOIN e.medicos m " +
            "WHERE e.id = :especialidadId AND m.disponible = true")
     Long contarMedicosDisponibles(@Param("especialidadId") Long especialidadId);
-}
\ No newline at end of file
+
+    // ==================== Operaciones masivas sobre medico_especialidad ====================
+    // Una sentencia para todos los médicos. El hint de query spaces declara la tabla que
+    // tocan: sin él Hibernate trata la sentencia nativa como si tocara todo y vacía todas
+    // las regiones de la caché de segundo nivel. La colección Medico.especialidades la
+    // invalida EspecialidadService.
+
+    /**
+     * Asigna la especialidad destino a los médicos que tienen la de origen, salvo a los
+     * que ya la tienen. Devuelve cuántas asignaciones se crearon.
+     *
+     * ON CONFLICT y no NOT EXISTS: con READ COMMITTED una asignación concurrente que
+     * todavía no hizo commit no se ve, y el INSERT fallaba por la PK. Sin columnas en
+     * ON CONFLICT (la única restricción es la PK) para que también corra en H2.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "medico_especialidad"))
+    @Query(value = "INSERT INTO medico_especialidad (medico_id, especialidad_id) " +
+                   "SELECT o.medico_id, :destinoId FROM medico_especialidad o " +
+                   "WHERE o.especialidad_id = :origenId " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int copiarAsignaciones(@Param("origenId") Long origenId, @Param("destinoId") Long destinoId);
+
+    /**
+     * Quita la especialidad de origen solo a los médicos que ya tienen la destino: si otra
+     * transacción asignó el origen a un médico después de copiarAsignaciones, ese médico
+     * lo conserva en vez de quedarse sin ninguna de las dos.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "medico_especialidad"))
+    @Query(value = "DELETE FROM medico_especialidad " +
+                   "WHERE especialidad_id = :origenId " +
+                   "AND medico_id IN (SELECT d.medico_id FROM medico_especialidad d " +
+                   "WHERE d.especialidad_id = :destinoId)", nativeQuery = true)
+    int quitarAsignacionesCubiertas(@Param("origenId") Long origenId, @Param("destinoId") Long destinoId);
+
+    /**
+     * Quita la especialidad a todos los médicos. Devuelve cuántas asignaciones se quitaron.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "medico_especialidad"))
+    @Query(value = "DELETE FROM medico_especialidad WHERE especialidad_id = :especialidadId", nativeQuery = true)
+    int quitarAsignaciones(@Param("especialidadId") Long especialidadId);
+}
@@ -0,0 +1,44 @@
+package com.SGH.hospital.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Estimaciones del planificador de PostgreSQL (pg_class.reltuples), que se actualizan
+ * con cada ANALYZE / autovacuum. Sirven para el total de los listados sin filtro sin
+ * recorrer la tabla con un COUNT(*).
+ */
+@Repository
+public class EstadisticasRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public EstadisticasRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Filas estimadas de la tabla; null si la base no es PostgreSQL o la tabla todavía
+     * no se analizó (reltuples -1, o 0 antes de PostgreSQL 14).
+     */
+    public Long estimarFilas(String tabla) {
+        if (!esPostgres()) {
+            return null;
+        }
+        List<Long> filas = jdbcTemplate.queryForList(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, tabla);
+        return filas.isEmpty() || filas.get(0) == null || filas.get(0) <= 0 ? null : filas.get(0);
+    }
+
+    private boolean esPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,16 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.entity.Medico;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+// Fragmento de MedicoRepository: búsqueda de ids con filtros dinámicos (ver MedicoSpecs)
+public interface MedicoBusquedaRepository {
+
+    /**
+     * Página de ids de los médicos que cumplen la especificación, sin COUNT.
+     * Los médicos se cargan después por id, como en los demás listados.
+     */
+    Slice<Long> findIds(Specification<Medico> spec, Pageable pageable);
+}
@@ -0,0 +1,47 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.entity.Medico;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+class MedicoBusquedaRepositoryImpl implements MedicoBusquedaRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Long> findIds(Specification<Medico> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Medico> medico = query.from(Medico.class);
+        query.select(medico.get("id"));
+        Predicate filtros = spec.toPredicate(medico, query, cb);
+        if (filtros != null) {
+            query.where(filtros);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), medico, cb));
+
+        TypedQuery<Long> typed = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typed.getResultList());
+        }
+        // Un registro de más para saber si hay otra página
+        List<Long> ids = typed.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hayMas = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hayMas ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hayMas);
+    }
+}
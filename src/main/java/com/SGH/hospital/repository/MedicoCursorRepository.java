@@ -0,0 +1,14 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.dto.paginacion.Cursor;
+import org.springframework.data.domain.Slice;
+
+// Fragmento de MedicoRepository: listado por cursor (ver ConsultaCursor)
+public interface MedicoCursorRepository {
+
+    /**
+     * Posiciones (valor del campo de orden e id) de hasta size médicos a continuación
+     * del cursor. Los médicos se cargan después por id, como en los listados paginados.
+     */
+    Slice<Cursor> findPosicionesDesde(Cursor cursor, int size);
+}
@@ -0,0 +1,20 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.dto.paginacion.Cursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Slice;
+
+class MedicoCursorRepositoryImpl implements MedicoCursorRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Cursor> findPosicionesDesde(Cursor cursor, int size) {
+        String jpql = "SELECT m.id, m." + cursor.orden().getPropiedad() + " FROM Medico m"
+                + ConsultaCursor.desde("m", cursor);
+        return ConsultaCursor.ejecutar(entityManager.createQuery(jpql, Object[].class), cursor, size)
+                .map(fila -> cursor.siguiente(fila[1], (Long) fila[0]));
+    }
+}
@@ -4,25 +4,38 @@ import com.SGH.hospital.entity.Medico;
 import com.SGH.hospital.enums.EstadoUsuario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface MedicoRepository extends JpaRepository<Medico, Long> {
+public interface MedicoRepository extends JpaRepository<Medico, Long>, JpaSpecificationExecutor<Medico>,
+        MedicoCursorRepository, MedicoBusquedaRepository {
 
     // Búsquedas básicas
     Optional<Medico> findByMatricula(String matricula);
-    Optional<Medico> findByEmail(String email);
-    Optional<Medico> findByDni(String dni);
+    // DNI y email cifrados: se busca por índice ciego
+    Optional<Medico> findByEmailHash(String emailHash);
+    Optional<Medico> findByDniHash(String dniHash);
     
     boolean existsByMatricula(String matricula);
-    boolean existsByEmail(String email);
-    boolean existsByDni(String dni);
+    boolean existsByEmailHash(String emailHash);
+    boolean existsByDniHash(String dniHash);
+
+    // Chequeo de unicidad por lote (importación masiva): devuelven los valores ya usados
+    @Query("SELECT m.matricula FROM Medico m WHERE m.matricula IN :matriculas")
+    Set<String> findMatriculasExistentes(@Param("matriculas") Collection<String> matriculas);
+
+    @Query("SELECT m.dniHash FROM Medico m WHERE m.dniHash IN :hashes")
+    Set<String> findDniHashesExistentes(@Param("hashes") Collection<String> hashes);
 
     // Búsqueda por estado
     Page<Medico> findByEstado(EstadoUsuario estado, Pageable pageable);
@@ -32,40 +45,9 @@ public interface MedicoRepository extends JpaRepository<Medico, Long> {
     Page<Medico> findByDisponible(Boolean disponible, Pageable pageable);
 
     // Búsqueda por especialidad
-    @Query("SELECT DISTINCT m FROM Medico m JOIN m.especialidades e WHERE e.id = :especialidadId")
-    Page<Medico> findByEspecialidadId(@Param("especialidadId") Long especialidadId, Pageable pageable);
-
     @Query("SELECT DISTINCT m FROM Medico m JOIN m.especialidades e WHERE e.nombre = :nombreEspecialidad")
     List<Medico> findByEspecialidadNombre(@Param("nombreEspecialidad") String nombreEspecialidad);
 
-    // Búsqueda combinada: especialidad + disponibilidad + estado
-    @Query("SELECT DISTINCT m FROM Medico m JOIN m.especialidades e " +
-           "WHERE (:especialidadId IS NULL OR e.id = :especialidadId) " +
-           "AND (:disponible IS NULL OR m.disponible = :disponible) " +
-           "AND (:estado IS NULL OR m.estado = :estado)")
-    Page<Medico> findByEspecialidadAndDisponibilidad(
-        @Param("especialidadId") Long especialidadId,
-        @Param("disponible") Boolean disponible,
-        @Param("estado") EstadoUsuario estado,
-        Pageable pageable
-    );
-
-    // Búsqueda avanzada con múltiples filtros
-    @Query("SELECT DISTINCT m FROM Medico m LEFT JOIN m.especialidades e " +
-           "WHERE (:nombre IS NULL OR LOWER(m.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))) " +
-           "AND (:apellido IS NULL OR LOWER(m.apellido) LIKE LOWER(CONCAT('%', :apellido, '%'))) " +
-           "AND (:especialidadId IS NULL OR e.id = :especialidadId) " +
-           "AND (:disponible IS NULL OR m.disponible = :disponible) " +
-           "AND (:estado IS NULL OR m.estado = :estado)")
-    Page<Medico> buscarConFiltros(
-        @Param("nombre") String nombre,
-        @Param("apellido") String apellido,
-        @Param("especialidadId") Long especialidadId,
-        @Param("disponible") Boolean disponible,
-        @Param("estado") EstadoUsuario estado,
-        Pageable pageable
-    );
-
     // Obtener médico con especialidades (fetch join para evitar N+1)
     @Query("SELECT DISTINCT m FROM Medico m LEFT JOIN FETCH m.especialidades WHERE m.id = :id")
     Optional<Medico> findByIdWithEspecialidades(@Param("id") Long id);
@@ -81,7 +63,33 @@ public interface MedicoRepository extends JpaRepository<Medico, Long> {
            "WHERE m.id = :id")
     Optional<Medico> findByIdWithAll(@Param("id") Long id);
 
-    // Contar médicos por especialidad
-    @Query("SELECT COUNT(DISTINCT m) FROM Medico m JOIN m.especialidades e WHERE e.id = :especialidadId")
+    // ==================== Listados paginados sin N+1 ====================
+    // Primero se pagina sobre los ids (sin JOIN ni DISTINCT, así el ORDER BY es simple) y
+    // después se cargan las colecciones de toda la página con findAllWithEspecialidades /
+    // findAllWithHorarios: 3 consultas por página, sin importar su tamaño.
+    // Las páginas son Slice (sin COUNT): el total lo resuelve ConteoService, que cuenta
+    // (count() / countByEspecialidadId / count(Specification)) solo cuando hace falta.
+
+    String FILTRO_ESPECIALIDAD = "WHERE EXISTS " +
+            "(SELECT 1 FROM m.especialidades e WHERE e.id = :especialidadId)";
+
+    @Query("SELECT m.id FROM Medico m")
+    Slice<Long> findPaginaIds(Pageable pageable);
+
+    @Query("SELECT m.id FROM Medico m " + FILTRO_ESPECIALIDAD)
+    Slice<Long> findIdsByEspecialidadId(@Param("especialidadId") Long especialidadId, Pageable pageable);
+
+    // Los listados con filtros combinables (disponibles, búsqueda) usan findIds con
+    // MedicoSpecs.filtros: solo los predicados de los filtros recibidos
+
+    @Query("SELECT m FROM Medico m LEFT JOIN FETCH m.especialidades WHERE m.id IN :ids")
+    List<Medico> findAllWithEspecialidades(@Param("ids") Collection<Long> ids);
+
+    // Misma sesión que findAllWithEspecialidades: completa los horarios de esas instancias
+    @Query("SELECT m FROM Medico m LEFT JOIN FETCH m.horariosAtencion WHERE m.id IN :ids")
+    List<Medico> findAllWithHorarios(@Param("ids") Collection<Long> ids);
+
+    // Contar médicos por especialidad (EXISTS: sin JOIN ni DISTINCT)
+    @Query("SELECT COUNT(m) FROM Medico m " + FILTRO_ESPECIALIDAD)
     Long countByEspecialidadId(@Param("especialidadId") Long especialidadId);
 }
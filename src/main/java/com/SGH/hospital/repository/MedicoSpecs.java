@@ -0,0 +1,73 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.entity.Especialidad;
+import com.SGH.hospital.entity.Medico;
+import com.SGH.hospital.enums.EstadoUsuario;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtros de búsqueda de médicos como Specification.
+ *
+ * filtros() agrega solo los predicados de los filtros recibidos: cada combinación
+ * genera su propio SQL (y su propio plan y prepared statement cacheados), en lugar de
+ * un único "(:x IS NULL OR col = :x)" con un plan genérico que no aprovecha los
+ * índices. La especialidad se filtra con EXISTS, sin JOIN ni DISTINCT sobre el médico.
+ */
+public final class MedicoSpecs {
+
+    private MedicoSpecs() {
+    }
+
+    /**
+     * Conjunción de los filtros no nulos (los textos vacíos se ignoran)
+     */
+    public static Specification<Medico> filtros(String nombre, String apellido, Long especialidadId,
+                                                Boolean disponible, EstadoUsuario estado) {
+        List<Specification<Medico>> filtros = new ArrayList<>();
+        if (StringUtils.hasText(nombre)) {
+            filtros.add(contiene("nombre", nombre));
+        }
+        if (StringUtils.hasText(apellido)) {
+            filtros.add(contiene("apellido", apellido));
+        }
+        if (especialidadId != null) {
+            filtros.add(conEspecialidad(especialidadId));
+        }
+        if (disponible != null) {
+            filtros.add(igual("disponible", disponible));
+        }
+        if (estado != null) {
+            filtros.add(igual("estado", estado));
+        }
+        return Specification.allOf(filtros);
+    }
+
+    // LOWER(campo) LIKE '%texto%'; el texto se pasa a minúsculas acá, no en la consulta
+    static Specification<Medico> contiene(String campo, String texto) {
+        String patron = "%" + texto.toLowerCase(Locale.ROOT) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(campo)), patron);
+    }
+
+    static Specification<Medico> igual(String campo, Object valor) {
+        return (root, query, cb) -> cb.equal(root.get(campo), valor);
+    }
+
+    // EXISTS (SELECT e.id FROM medico_especialidad ... WHERE e.id = :especialidadId), correlado con el médico
+    static Specification<Medico> conEspecialidad(Long especialidadId) {
+        return (root, query, cb) -> {
+            Subquery<Long> sub = query.subquery(Long.class);
+            Root<Medico> medico = sub.correlate(root);
+            Join<Medico, Especialidad> especialidad = medico.join("especialidades");
+            return cb.exists(sub.select(especialidad.get("id"))
+                    .where(cb.equal(especialidad.get("id"), especialidadId)));
+        };
+    }
+}
@@ -0,0 +1,234 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.config.PiiCipher;
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.entity.Usuario;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
+import org.postgresql.PGConnection;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alta masiva de pacientes por JDBC, sin pasar por el contexto de persistencia.
+ *
+ * En PostgreSQL las filas de usuario y paciente se cargan con COPY (un round trip por
+ * tabla y por lote, sin parsear un INSERT por fila); en otras bases se usa un batch
+ * JDBC. Los ids se reservan de usuario_seq con la misma convención pooled-lo que usa
+ * Hibernate (cada nextval es el inicio de un bloque de ID_ALLOCATION_SIZE ids), así
+ * que ambos caminos pueden convivir sin colisiones.
+ *
+ * Corre en la conexión de la transacción actual: el llamador define el alcance del lote.
+ * Los errores se traducen como en JdbcTemplate (DuplicateKeyException, etc.).
+ */
+@Repository
+public class PacienteBulkRepository {
+
+    // Datos ya validados, con la contraseña hasheada y los índices ciegos calculados
+    public record NuevoPaciente(PacienteRequest datos, String passwordHash, String dniHash, String emailHash) {
+    }
+
+    private static final String COLUMNAS_USUARIO = "id, tipo_usuario, nombre, apellido, dni, telefono, direccion, "
+            + "fecha_nacimiento, email, dni_hash, email_hash, password, rol, estado, created_at, updated_at";
+    private static final String COLUMNAS_PACIENTE = "id, obra_social, numero_afiliado";
+
+    private final DataSource dataSource;
+    private final PiiCipher piiCipher;
+    private final SQLExceptionTranslator exceptionTranslator;
+
+    public PacienteBulkRepository(DataSource dataSource, PiiCipher piiCipher) {
+        this.dataSource = dataSource;
+        this.piiCipher = piiCipher;
+        this.exceptionTranslator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+    }
+
+    /**
+     * Inserta los pacientes y devuelve la cantidad insertada.
+     * Un DNI o email repetido hace fallar el lote completo (restricciones de la tabla).
+     */
+    public int insertar(List<NuevoPaciente> pacientes) {
+        if (pacientes.isEmpty()) {
+            return 0;
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            List<Long> ids = reservarIds(connection, pacientes.size());
+            LocalDateTime ahora = LocalDateTime.now();
+            if (esPostgres(connection)) {
+                copiar(connection, pacientes, ids, ahora);
+            } else {
+                insertarEnBatch(connection, pacientes, ids, ahora);
+            }
+            return pacientes.size();
+        } catch (SQLException e) {
+            throw traducir("Alta masiva de pacientes", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Reserva ids de usuario_seq para la cantidad dada de pacientes.
+     */
+    public List<Long> reservarIds(int cantidad) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return reservarIds(connection, cantidad);
+        } catch (SQLException e) {
+            throw traducir("Reserva de ids de pacientes", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Inserta los pacientes con ids ya reservados, siempre por batch JDBC (también en
+     * PostgreSQL): para reintentar fila por fila un lote que falló, el error de cada
+     * llamada nombra la restricción que violan sus filas.
+     */
+    public void insertarConIds(List<NuevoPaciente> pacientes, List<Long> ids) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            insertarEnBatch(connection, pacientes, ids, LocalDateTime.now());
+        } catch (SQLException e) {
+            throw traducir("Alta de pacientes", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // Una llamada a la secuencia por cada bloque de ID_ALLOCATION_SIZE ids
+    private List<Long> reservarIds(Connection connection, int cantidad) throws SQLException {
+        int bloques = (cantidad + Usuario.ID_ALLOCATION_SIZE - 1) / Usuario.ID_ALLOCATION_SIZE;
+        List<Long> inicios = new ArrayList<>(bloques);
+        if (esPostgres(connection)) {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT nextval('usuario_seq') FROM generate_series(1, ?)")) {
+                ps.setInt(1, bloques);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        inicios.add(rs.getLong(1));
+                    }
+                }
+            }
+        } else {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT NEXT VALUE FOR usuario_seq")) {
+                for (int i = 0; i < bloques; i++) {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        inicios.add(rs.getLong(1));
+                    }
+                }
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ids.add(inicios.get(i / Usuario.ID_ALLOCATION_SIZE) + i % Usuario.ID_ALLOCATION_SIZE);
+        }
+        return ids;
+    }
+
+    private void copiar(Connection connection, List<NuevoPaciente> pacientes, List<Long> ids,
+                        LocalDateTime ahora) throws SQLException {
+        StringBuilder usuarios = new StringBuilder(pacientes.size() * 512);
+        StringBuilder filasPaciente = new StringBuilder(pacientes.size() * 48);
+        for (int i = 0; i < pacientes.size(); i++) {
+            NuevoPaciente p = pacientes.get(i);
+            PacienteRequest d = p.datos();
+            Long id = ids.get(i);
+            filaCsv(usuarios, id, "PACIENTE", d.getNombre(), d.getApellido(),
+                    piiCipher.encrypt(d.getDni()), piiCipher.encrypt(d.getTelefono()), d.getDireccion(),
+                    d.getFechaNacimiento(), piiCipher.encrypt(d.getEmail()), p.dniHash(), p.emailHash(),
+                    p.passwordHash(), Rol.PACIENTE.name(), EstadoUsuario.ACTIVO.name(), ahora, ahora);
+            filaCsv(filasPaciente, id, d.getObraSocial(), d.getNumeroAfiliado());
+        }
+
+        try {
+            var copyApi = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyApi.copyIn("COPY usuario (" + COLUMNAS_USUARIO + ") FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(usuarios.toString()));
+            copyApi.copyIn("COPY paciente (" + COLUMNAS_PACIENTE + ") FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(filasPaciente.toString()));
+        } catch (java.io.IOException e) {
+            throw new SQLException("Error enviando COPY", e);
+        }
+    }
+
+    private void insertarEnBatch(Connection connection, List<NuevoPaciente> pacientes, List<Long> ids,
+                                 LocalDateTime ahora) throws SQLException {
+        Timestamp momento = Timestamp.valueOf(ahora);
+        try (PreparedStatement usuarios = connection.prepareStatement(
+                "INSERT INTO usuario (" + COLUMNAS_USUARIO + ") VALUES (?, 'PACIENTE', ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement filasPaciente = connection.prepareStatement(
+                     "INSERT INTO paciente (" + COLUMNAS_PACIENTE + ") VALUES (?, ?, ?)")) {
+            for (int i = 0; i < pacientes.size(); i++) {
+                NuevoPaciente p = pacientes.get(i);
+                PacienteRequest d = p.datos();
+                long id = ids.get(i);
+                usuarios.setLong(1, id);
+                usuarios.setString(2, d.getNombre());
+                usuarios.setString(3, d.getApellido());
+                usuarios.setString(4, piiCipher.encrypt(d.getDni()));
+                usuarios.setString(5, piiCipher.encrypt(d.getTelefono()));
+                usuarios.setString(6, d.getDireccion());
+                usuarios.setDate(7, Date.valueOf(d.getFechaNacimiento()));
+                usuarios.setString(8, piiCipher.encrypt(d.getEmail()));
+                usuarios.setString(9, p.dniHash());
+                usuarios.setString(10, p.emailHash());
+                usuarios.setString(11, p.passwordHash());
+                usuarios.setString(12, Rol.PACIENTE.name());
+                usuarios.setString(13, EstadoUsuario.ACTIVO.name());
+                usuarios.setTimestamp(14, momento);
+                usuarios.setTimestamp(15, momento);
+                usuarios.addBatch();
+
+                filasPaciente.setLong(1, id);
+                filasPaciente.setString(2, d.getObraSocial());
+                filasPaciente.setString(3, d.getNumeroAfiliado());
+                filasPaciente.addBatch();
+            }
+            usuarios.executeBatch();
+            filasPaciente.executeBatch();
+        }
+    }
+
+    // CSV de COPY: null = campo vacío sin comillas; todo lo demás entre comillas ("" escapa ")
+    private static void filaCsv(StringBuilder sb, Object... valores) {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            Object valor = valores[i];
+            if (valor != null) {
+                sb.append('"').append(valor.toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        sb.append('\n');
+    }
+
+    private DataAccessException traducir(String tarea, SQLException e) {
+        DataAccessException traducida = exceptionTranslator.translate(tarea, null, e);
+        return traducida != null ? traducida : new UncategorizedSQLException(tarea, null, e);
+    }
+
+    private static boolean esPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+}
@@ -0,0 +1,14 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import org.springframework.data.domain.Slice;
+
+// Fragmento de PacienteRepository: listado por cursor (ver ConsultaCursor)
+public interface PacienteCursorRepository {
+
+    /**
+     * Hasta size pacientes a continuación del cursor, proyectados a PacienteResponse
+     */
+    Slice<PacienteResponse> findResponsesDesde(Cursor cursor, int size);
+}
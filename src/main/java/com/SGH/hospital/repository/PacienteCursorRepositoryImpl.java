@@ -0,0 +1,19 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Slice;
+
+class PacienteCursorRepositoryImpl implements PacienteCursorRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<PacienteResponse> findResponsesDesde(Cursor cursor, int size) {
+        String jpql = PacienteRepository.PROYECCION + ConsultaCursor.desde("p", cursor);
+        return ConsultaCursor.ejecutar(entityManager.createQuery(jpql, PacienteResponse.class), cursor, size);
+    }
+}
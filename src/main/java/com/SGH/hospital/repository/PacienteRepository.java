@@ -1,68 +1,106 @@
 package com.SGH.hospital.repository;
 
+import com.SGH.hospital.dto.paciente.PacienteResponse;
 import com.SGH.hospital.entity.Paciente;
 import com.SGH.hospital.enums.EstadoUsuario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface PacienteRepository extends JpaRepository<Paciente, Long> {
+public interface PacienteRepository extends JpaRepository<Paciente, Long>, PacienteCursorRepository {
 
     /**
-     * Busca un paciente por DNI
+     * Verifica si existe un paciente con el índice ciego de DNI especificado
      */
-    Optional<Paciente> findByDni(String dni);
+    boolean existsByDniHash(String dniHash);
 
     /**
-     * Busca un paciente por email
+     * Verifica si existe un paciente con el índice ciego de email especificado
      */
-    Optional<Paciente> findByEmail(String email);
+    boolean existsByEmailHash(String emailHash);
 
     /**
-     * Verifica si existe un paciente con el DNI especificado
+     * Verifica si existe un paciente con el índice ciego de DNI, excluyendo un ID
+     * Útil para validaciones en actualizaciones
      */
-    boolean existsByDni(String dni);
+    boolean existsByDniHashAndIdNot(String dniHash, Long id);
 
     /**
-     * Verifica si existe un paciente con el email especificado
+     * Verifica si existe un paciente con el índice ciego de email, excluyendo un ID
      */
-    boolean existsByEmail(String email);
+    boolean existsByEmailHashAndIdNot(String emailHash, Long id);
 
     /**
-     * Verifica si existe un paciente con el DNI especificado, excluyendo un ID
-     * Útil para validaciones en actualizaciones
+     * Devuelve, de los índices ciegos de DNI dados, los que ya tienen un paciente
+     * (detección de duplicados de la importación masiva en una sola consulta por lote)
      */
-    boolean existsByDniAndIdNot(String dni, Long id);
+    @Query("SELECT p.dniHash FROM Paciente p WHERE p.dniHash IN :hashes")
+    Set<String> findDniHashesExistentes(@Param("hashes") Collection<String> hashes);
+
+    // ==================== Lecturas proyectadas a PacienteResponse ====================
+    // Solo las columnas de la respuesta, construida directamente en la consulta: no se
+    // hidratan entidades ni se registran en el contexto de persistencia (sin snapshots
+    // para dirty checking). DNI, email y teléfono se descifran con su converter igual
+    // que en la entidad.
+
+    String PROYECCION = "SELECT new com.SGH.hospital.dto.paciente.PacienteResponse(" +
+            "p.id, p.nombre, p.apellido, p.dni, p.email, p.telefono, p.fechaNacimiento, " +
+            "p.direccion, p.numeroAfiliado, p.estado, p.createdAt, p.updatedAt) FROM Paciente p";
+
+    @Query(PROYECCION + " WHERE p.id = :id")
+    Optional<PacienteResponse> findResponseById(@Param("id") Long id);
+
+    @Query(PROYECCION + " WHERE p.dniHash = :dniHash")
+    Optional<PacienteResponse> findResponseByDniHash(@Param("dniHash") String dniHash);
+
+    @Query(PROYECCION + " WHERE p.emailHash = :emailHash")
+    Optional<PacienteResponse> findResponseByEmailHash(@Param("emailHash") String emailHash);
+
+    // Sin COUNT: el total del listado lo resuelve ConteoService
+    @Query(PROYECCION)
+    Slice<PacienteResponse> findAllResponses(Pageable pageable);
 
     /**
-     * Verifica si existe un paciente con el email especificado, excluyendo un ID
+     * Pacientes por estado con paginación
      */
-    boolean existsByEmailAndIdNot(String email, Long id);
+    @Query(value = PROYECCION + " WHERE p.estado = :estado",
+           countQuery = "SELECT COUNT(p) FROM Paciente p WHERE p.estado = :estado")
+    Page<PacienteResponse> findResponsesByEstado(@Param("estado") EstadoUsuario estado, Pageable pageable);
 
     /**
-     * Busca pacientes por estado con paginación
+     * Pacientes cuyo nombre o apellido contiene el texto especificado
      */
-    Page<Paciente> findByEstado(EstadoUsuario estado, Pageable pageable);
+    @Query(value = PROYECCION + " WHERE " +
+                   "LOWER(p.nombre) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                   "LOWER(p.apellido) LIKE LOWER(CONCAT('%', :searchTerm, '%'))",
+           countQuery = "SELECT COUNT(p) FROM Paciente p WHERE " +
+                   "LOWER(p.nombre) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+                   "LOWER(p.apellido) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    Page<PacienteResponse> searchResponsesByNombreOrApellido(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     /**
-     * Busca pacientes cuyo nombre o apellido contenga el texto especificado
+     * Carga del índice de búsqueda rápida: pacientes con id mayor al dado, por id
      */
-    @Query("SELECT p FROM Paciente p WHERE " +
-           "LOWER(p.nombre) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.apellido) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Paciente> searchByNombreOrApellido(@Param("searchTerm") String searchTerm, Pageable pageable);
+    @Query(PROYECCION + " WHERE p.id > :desdeId ORDER BY p.id")
+    List<PacienteResponse> findResponsesDesdeId(@Param("desdeId") long desdeId, Limit limite);
 
     /**
-     * Busca pacientes activos con paginación
+     * Refresco del índice de búsqueda rápida: pacientes modificados desde el instante dado
      */
-    @Query("SELECT p FROM Paciente p WHERE p.estado = 'ACTIVO'")
-    Page<Paciente> findAllActivos(Pageable pageable);
+    @Query(PROYECCION + " WHERE p.updatedAt >= :desde")
+    List<PacienteResponse> findResponsesModificadosDesde(@Param("desde") LocalDateTime desde);
 
     /**
      * Cuenta la cantidad de pacientes por estado
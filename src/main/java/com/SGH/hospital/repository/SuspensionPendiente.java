@@ -0,0 +1,13 @@
+package com.SGH.hospital.repository;
+
+import java.time.Instant;
+
+/**
+ * Proyección de una suspensión temporal pendiente: solo el id y el vencimiento.
+ */
+public interface SuspensionPendiente {
+
+    Long getId();
+
+    Instant getSuspendidoHasta();
+}
@@ -0,0 +1,51 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.entity.TokenRevocado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+@Repository
+public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, String> {
+
+    /**
+     * Inserta la revocación solo si no existe. Devuelve 0 si el id ya estaba
+     * revocado: así dos rotaciones concurrentes del mismo refresh token no pueden
+     * ganar las dos (la segunda se detecta como reuso). Sin columnas en ON CONFLICT
+     * (la única restricción es la PK) para que también corra en H2 modo PostgreSQL.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tokens_revocados (id, tipo, usuario_id, expira_en, revocado_en) " +
+                   "VALUES (:id, :tipo, :usuarioId, :expiraEn, :revocadoEn) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id,
+                       @Param("tipo") String tipo,
+                       @Param("usuarioId") Long usuarioId,
+                       @Param("expiraEn") Instant expiraEn,
+                       @Param("revocadoEn") Instant revocadoEn);
+
+    /**
+     * Posterga el vencimiento de una revocación existente; nunca lo adelanta
+     */
+    @Modifying
+    @Query("UPDATE TokenRevocado t SET t.expiraEn = :expiraEn WHERE t.id = :id AND t.expiraEn < :expiraEn")
+    int extenderExpiracion(@Param("id") String id, @Param("expiraEn") Instant expiraEn);
+
+    /**
+     * Ids todavía vigentes, para reconstruir el filtro en memoria
+     */
+    @Query("SELECT t.id FROM TokenRevocado t WHERE t.expiraEn > :ahora")
+    Stream<String> streamIdsVigentes(@Param("ahora") Instant ahora);
+
+    /**
+     * Elimina las revocaciones cuyos tokens ya expiraron
+     */
+    @Modifying
+    @Query("DELETE FROM TokenRevocado t WHERE t.expiraEn <= :ahora")
+    int deleteExpiradas(@Param("ahora") Instant ahora);
+}
@@ -1,19 +1,71 @@
 package com.SGH.hospital.repository;
 
+import com.SGH.hospital.dto.auth.CredencialUsuario;
 import com.SGH.hospital.entity.Usuario;
+import com.SGH.hospital.enums.EstadoUsuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     
-    Optional<Usuario> findByEmail(String email);
+    // DNI y email están cifrados: se busca por su índice ciego (PiiCipher.blindIndex*)
+    Optional<Usuario> findByEmailHash(String emailHash);
     
-    boolean existsByEmail(String email);
+    boolean existsByEmailHash(String emailHash);
     
-    boolean existsByDni(String dni);
+    boolean existsByDniHash(String dniHash);
     
-    Optional<Usuario> findByDni(String dni);
-}
\ No newline at end of file
+    Optional<Usuario> findByDniHash(String dniHash);
+
+    // De los índices ciegos de email dados, los que ya usa algún usuario (una consulta por lote)
+    @Query("SELECT u.emailHash FROM Usuario u WHERE u.emailHash IN :hashes")
+    Set<String> findEmailHashesExistentes(@Param("hashes") Collection<String> hashes);
+
+    // Login: solo las columnas necesarias, en una única consulta por email (índice único)
+    @Query("SELECT new com.SGH.hospital.dto.auth.CredencialUsuario(" +
+           "u.id, u.email, u.password, u.rol, u.estado, u.nombre, u.apellido) " +
+           "FROM Usuario u WHERE u.emailHash = :emailHash")
+    Optional<CredencialUsuario> findCredencialByEmailHash(@Param("emailHash") String emailHash);
+
+    // Solo el estado: una lectura por PK sin hidratar la entidad ni sus subclases.
+    // Transacción de escritura para que se lea del primario: el estado leído queda en
+    // UserStatusCache hasta su TTL y una réplica atrasada devolvería el anterior a una
+    // suspensión o reactivación
+    @Transactional(readOnly = false)
+    @Query("SELECT u.estado FROM Usuario u WHERE u.id = :id")
+    Optional<EstadoUsuario> findEstadoById(@Param("id") Long id);
+
+    // Suspensiones temporales pendientes, para reconstruir la rueda de vencimientos al arrancar
+    @Query("SELECT u.id AS id, u.suspendidoHasta AS suspendidoHasta FROM Usuario u " +
+           "WHERE u.estado = com.SGH.hospital.enums.EstadoUsuario.SUSPENDIDO AND u.suspendidoHasta IS NOT NULL")
+    Stream<SuspensionPendiente> streamSuspensionesPendientes();
+
+    // Levanta en lote las suspensiones vencidas. Las condiciones sobre estado y fecha
+    // evitan pisar un cambio hecho por un admin después de programar el vencimiento.
+    // El UPDATE en lote no pasa por @LastModifiedDate: updatedAt se fija acá para que
+    // el refresco de la búsqueda rápida vea el cambio de estado.
+    @Modifying
+    @Query("UPDATE Usuario u SET u.estado = com.SGH.hospital.enums.EstadoUsuario.ACTIVO, u.suspendidoHasta = NULL, " +
+           "u.updatedAt = :modificado " +
+           "WHERE u.id IN :ids AND u.estado = com.SGH.hospital.enums.EstadoUsuario.SUSPENDIDO " +
+           "AND u.suspendidoHasta <= :ahora")
+    int levantarSuspensionesVencidas(@Param("ids") Collection<Long> ids, @Param("ahora") Instant ahora,
+                                     @Param("modificado") LocalDateTime modificado);
+
+    // Re-hash transparente de la contraseña (upgrade del costo BCrypt)
+    @Modifying
+    @Query("UPDATE Usuario u SET u.password = :password WHERE u.emailHash = :emailHash")
+    int updatePasswordByEmailHash(@Param("emailHash") String emailHash, @Param("password") String password);
+}
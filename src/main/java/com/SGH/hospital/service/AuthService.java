@@ -1,5 +1,6 @@
 package com.SGH.hospital.service;
 
+import com.SGH.hospital.config.PiiCipher;
 import com.SGH.hospital.dto.auth.*;
 import com.SGH.hospital.enums.EstadoUsuario;
 import com.SGH.hospital.entity.Paciente;
@@ -7,13 +8,15 @@ import com.SGH.hospital.enums.Rol;
 import com.SGH.hospital.entity.Usuario;
 import com.SGH.hospital.exception.BadRequestException;
 import com.SGH.hospital.exception.ResourceNotFoundException;
+import com.SGH.hospital.exception.UnauthorizedException;
 import com.SGH.hospital.repository.UsuarioRepository;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,17 +31,22 @@ public class AuthService {
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final TokenRevocationService tokenRevocationService;
+    private final PiiCipher piiCipher;
+    
+    // Hash usado cuando el email no existe (se genera una vez, con el costo actual)
+    private volatile String hashDeReferencia;
     
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         // Verificar si el email ya existe
-        if (usuarioRepository.existsByEmail(request.getEmail())) {
+        if (usuarioRepository.existsByEmailHash(piiCipher.blindIndexEmail(request.getEmail()))) {
             throw new BadRequestException("El email ya está registrado");
         }
         
         // Verificar si el DNI ya existe
-        if (usuarioRepository.existsByDni(request.getDni())) {
+        if (usuarioRepository.existsByDniHash(piiCipher.blindIndexDni(request.getDni()))) {
             throw new BadRequestException("El DNI ya está registrado");
         }
         
@@ -57,10 +65,12 @@ public class AuthService {
         
         Usuario savedUsuario = usuarioRepository.save(paciente);
         
-        // Generar tokens
+        // Generar tokens (cada registro inicia una nueva sesión)
+        String familia = jwtService.newFamily();
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("rol", savedUsuario.getRol().name());
         extraClaims.put("userId", savedUsuario.getId());
+        extraClaims.put(JwtService.CLAIM_FAMILY, familia);
         
         UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
                 .username(savedUsuario.getEmail())
@@ -69,7 +79,7 @@ public class AuthService {
                 .build();
         
         String jwtToken = jwtService.generateToken(extraClaims, userDetails);
-        String refreshToken = jwtService.generateRefreshToken(userDetails);
+        String refreshToken = jwtService.generateRefreshToken(userDetails, familia);
         
         return AuthResponse.builder()
                 .token(jwtToken)
@@ -82,81 +92,115 @@ public class AuthService {
                 .build();
     }
     
-    @Transactional(readOnly = true)
+    /**
+     * Login con una sola consulta: la proyección CredencialUsuario se usa para
+     * verificar la contraseña, chequear el estado y armar los claims del token.
+     * Sin transacción propia: la consulta libera su conexión antes de BCrypt y el
+     * re-hash toma la suya recién al guardar, sin retener dos conexiones del pool.
+     */
     public AuthResponse login(LoginRequest request) {
+        // Buscar credenciales (id, email, hash, rol, estado)
+        CredencialUsuario credencial = usuarioRepository.findCredencialByEmailHash(
+                        piiCipher.blindIndexEmail(request.getEmail()))
+                .orElse(null);
+        
+        if (credencial == null) {
+            // Mismo costo que una contraseña incorrecta, para no revelar qué emails existen
+            passwordEncoder.matches(request.getPassword(), hashDeReferencia());
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+        
         // Autenticar usuario
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
-        
-        // Buscar usuario
-        Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
+        if (!passwordEncoder.matches(request.getPassword(), credencial.getPassword())) {
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
         
         // Verificar estado del usuario
-        if (usuario.getEstado() != EstadoUsuario.ACTIVO) {
+        if (credencial.getEstado() != EstadoUsuario.ACTIVO) {
             throw new BadRequestException("Usuario inactivo o suspendido");
         }
         
-        // Generar tokens
+        // Re-hash transparente si el hash guardado usa un costo BCrypt menor al actual
+        if (passwordEncoder.upgradeEncoding(credencial.getPassword())) {
+            userDetailsPasswordService.updatePassword(
+                    UsuarioPrincipal.fromCredencial(credencial), passwordEncoder.encode(request.getPassword()));
+        }
+        
+        // Generar tokens (cada login inicia una nueva sesión)
+        String familia = jwtService.newFamily();
         Map<String, Object> extraClaims = new HashMap<>();
-        extraClaims.put("rol", usuario.getRol().name());
-        extraClaims.put("userId", usuario.getId());
+        extraClaims.put("rol", credencial.getRol().name());
+        extraClaims.put("userId", credencial.getId());
+        extraClaims.put(JwtService.CLAIM_FAMILY, familia);
         
         UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                .username(usuario.getEmail())
-                .password(usuario.getPassword())
-                .roles(usuario.getRol().name())
+                .username(credencial.getEmail())
+                .password(credencial.getPassword())
+                .roles(credencial.getRol().name())
                 .build();
         
         String jwtToken = jwtService.generateToken(extraClaims, userDetails);
-        String refreshToken = jwtService.generateRefreshToken(userDetails);
+        String refreshToken = jwtService.generateRefreshToken(userDetails, familia);
         
         return AuthResponse.builder()
                 .token(jwtToken)
                 .refreshToken(refreshToken)
-                .id(usuario.getId())
-                .email(usuario.getEmail())
-                .nombre(usuario.getNombre())
-                .apellido(usuario.getApellido())
-                .rol(usuario.getRol())
+                .id(credencial.getId())
+                .email(credencial.getEmail())
+                .nombre(credencial.getNombre())
+                .apellido(credencial.getApellido())
+                .rol(credencial.getRol())
                 .build();
     }
     
-    @Transactional(readOnly = true)
+    /**
+     * Rota el refresh token: emite un access token y un refresh token nuevos y
+     * retira el recibido. Si un refresh token ya retirado vuelve a presentarse
+     * (posible robo) se revoca toda la sesión.
+     * La revocación se confirma aunque el método termine con UnauthorizedException.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        String refreshToken = request.getRefreshToken();
-        String userEmail = jwtService.extractUsername(refreshToken);
+        VerifiedToken token = verificarRefreshToken(request.getRefreshToken());
         
-        if (userEmail == null) {
-            throw new BadRequestException("Refresh token inválido");
+        if (tokenRevocationService.isRevoked(token)) {
+            // Reuso de un token ya rotado: se corta la sesión completa
+            tokenRevocationService.revokeFamily(token);
+            throw new UnauthorizedException("Refresh token revocado");
         }
         
-        Usuario usuario = usuarioRepository.findByEmail(userEmail)
+        Usuario usuario = usuarioRepository.findByEmailHash(piiCipher.blindIndexEmail(token.getSubject()))
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
         
+        if (usuario.getEstado() != EstadoUsuario.ACTIVO) {
+            throw new BadRequestException("Usuario inactivo o suspendido");
+        }
+        
+        // Solo una rotación concurrente del mismo token puede ganar
+        if (!tokenRevocationService.retire(token)) {
+            tokenRevocationService.revokeFamily(token);
+            throw new UnauthorizedException("Refresh token revocado");
+        }
+        
         UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
                 .username(usuario.getEmail())
                 .password(usuario.getPassword())
                 .roles(usuario.getRol().name())
                 .build();
         
-        if (!jwtService.isTokenValid(refreshToken, userDetails)) {
-            throw new BadRequestException("Refresh token expirado o inválido");
-        }
-        
+        // Los tokens viejos sin familia pasan a tener una al rotar
+        String familia = token.getFamily() != null ? token.getFamily() : jwtService.newFamily();
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("rol", usuario.getRol().name());
         extraClaims.put("userId", usuario.getId());
+        extraClaims.put(JwtService.CLAIM_FAMILY, familia);
         
         String newAccessToken = jwtService.generateToken(extraClaims, userDetails);
+        String newRefreshToken = jwtService.generateRefreshToken(userDetails, familia);
         
         return AuthResponse.builder()
                 .token(newAccessToken)
-                .refreshToken(refreshToken)
+                .refreshToken(newRefreshToken)
                 .id(usuario.getId())
                 .email(usuario.getEmail())
                 .nombre(usuario.getNombre())
@@ -165,12 +209,23 @@ public class AuthService {
                 .build();
     }
     
+    /**
+     * Cierra la sesión del refresh token: se revoca su familia, lo que invalida
+     * también los access tokens emitidos en esa sesión.
+     */
+    @Transactional
+    public void logout(RefreshTokenRequest request) {
+        VerifiedToken token = verificarRefreshToken(request.getRefreshToken());
+        tokenRevocationService.retire(token);
+        tokenRevocationService.revokeFamily(token);
+    }
+    
     @Transactional(readOnly = true)
     public UserInfoResponse getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
         
-        Usuario usuario = usuarioRepository.findByEmail(email)
+        Usuario usuario = usuarioRepository.findByEmailHash(piiCipher.blindIndexEmail(email))
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
         
         return UserInfoResponse.builder()
@@ -186,4 +241,28 @@ public class AuthService {
                 .estado(usuario.getEstado())
                 .build();
     }
-}
\ No newline at end of file
+    
+    // Verifica firma y expiración, y que sea efectivamente un refresh token
+    private VerifiedToken verificarRefreshToken(String refreshToken) {
+        VerifiedToken token;
+        try {
+            token = jwtService.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadRequestException("Refresh token expirado o inválido");
+        }
+        
+        if (token.getSubject() == null || !token.isRefresh()) {
+            throw new BadRequestException("Refresh token inválido");
+        }
+        return token;
+    }
+    
+    private String hashDeReferencia() {
+        String hash = hashDeReferencia;
+        if (hash == null) {
+            hash = passwordEncoder.encode("usuario-inexistente");
+            hashDeReferencia = hash;
+        }
+        return hash;
+    }
+}
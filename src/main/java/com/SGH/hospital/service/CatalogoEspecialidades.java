@@ -0,0 +1,104 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.especialidad.EspecialidadResponse;
+import com.SGH.hospital.util.IndicePrefijos;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Foto inmutable del catálogo de especialidades: por id, por nombre normalizado y la
+ * lista pública (activas, por nombre) con su ETag.
+ *
+ * Nunca se modifica: cada cambio arma una foto nueva (con) y EspecialidadService la
+ * reemplaza entera, así un lector ve siempre un catálogo completo y coherente.
+ *
+ * El ETag es el SHA-256 de la lista pública: dos instancias con el mismo catálogo dan
+ * el mismo ETag, y cambia solo si cambia lo que se sirve.
+ */
+public final class CatalogoEspecialidades {
+
+    private static final Comparator<EspecialidadResponse> POR_NOMBRE = Comparator
+            .comparing((EspecialidadResponse e) -> normalizar(e.getNombre()))
+            .thenComparing(EspecialidadResponse::getId);
+
+    private final Map<Long, EspecialidadResponse> porId;
+    private final Map<String, EspecialidadResponse> porNombre;
+    private final List<EspecialidadResponse> activas;
+    private final String etag;
+
+    CatalogoEspecialidades(Collection<EspecialidadResponse> especialidades) {
+        this.porId = Map.copyOf(especialidades.stream()
+                .collect(Collectors.toMap(EspecialidadResponse::getId, Function.identity())));
+        this.porNombre = Map.copyOf(especialidades.stream()
+                .collect(Collectors.toMap(e -> normalizar(e.getNombre()), Function.identity(), (a, b) -> a)));
+        this.activas = especialidades.stream()
+                .filter(EspecialidadResponse::isActiva)
+                .sorted(POR_NOMBRE)
+                .toList();
+        this.etag = calcularEtag(activas);
+    }
+
+    /**
+     * Foto nueva con la especialidad agregada o reemplazada
+     */
+    CatalogoEspecialidades con(EspecialidadResponse especialidad) {
+        Map<Long, EspecialidadResponse> todas = new HashMap<>(porId);
+        todas.put(especialidad.getId(), especialidad);
+        return new CatalogoEspecialidades(todas.values());
+    }
+
+    public Optional<EspecialidadResponse> porId(Long id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    public Optional<EspecialidadResponse> porNombre(String nombre) {
+        return Optional.ofNullable(porNombre.get(normalizar(nombre)));
+    }
+
+    public boolean contiene(Long id) {
+        return porId.containsKey(id);
+    }
+
+    public List<EspecialidadResponse> activas() {
+        return activas;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public int tamanio() {
+        return porId.size();
+    }
+
+    /**
+     * Nombre para comparar: sin tildes, en minúsculas y con los espacios colapsados
+     * ("Clínica  Médica" y "clinica medica" son el mismo nombre)
+     */
+    static String normalizar(String nombre) {
+        return IndicePrefijos.normalizar(nombre).trim().replaceAll("\\s+", " ");
+    }
+
+    private static String calcularEtag(List<EspecialidadResponse> especialidades) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (EspecialidadResponse e : especialidades) {
+                digest.update((e.getId() + "\t" + e.getNombre() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.paginacion.PaginaResponse;
+import com.SGH.hospital.enums.TipoConteo;
+import com.SGH.hospital.repository.EstadisticasRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.function.LongSupplier;
+
+/**
+ * Totales de los listados paginados sin un COUNT en cada request.
+ *
+ * Las páginas se leen como Slice (un registro de más, sin COUNT) y el total sale de:
+ *  - la propia página, si es la última: offset + registros, exacto y sin consultar
+ *  - el COUNT, solo si el cliente pide el conteo exacto
+ *  - una caché de TTL corto por listado y filtro normalizado
+ *  - para listados sin filtro, la estimación del planificador de PostgreSQL
+ *  - y recién si no hay nada de lo anterior, el COUNT (que queda en la caché)
+ *
+ * La caché no se invalida con las altas y bajas: el TTL acota cuánto puede atrasar
+ * un total ESTIMADO.
+ */
+@Service
+public class ConteoService {
+
+    private final EstadisticasRepository estadisticasRepository;
+    private final Cache<String, Long> conteos;
+
+    public ConteoService(EstadisticasRepository estadisticasRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${paginacion.conteo-cache.max-size:10000}") long maxSize,
+                         @Value("${paginacion.conteo-cache.ttl:PT30S}") Duration ttl) {
+        this.estadisticasRepository = estadisticasRepository;
+        this.conteos = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, conteos, "paginacion.conteos");
+    }
+
+    /**
+     * Clave de caché de un listado: los textos se pasan a minúsculas (las búsquedas no
+     * distinguen mayúsculas) y se distinguen de null.
+     */
+    public static String clave(String listado, Object... filtros) {
+        StringJoiner clave = new StringJoiner("|").add(listado);
+        for (Object filtro : filtros) {
+            clave.add(filtro instanceof String texto ? "'" + texto.toLowerCase(Locale.ROOT) + "'"
+                    : String.valueOf(filtro));
+        }
+        return clave.toString();
+    }
+
+    /**
+     * Página de un listado con filtro: el total sale de la caché o del COUNT
+     */
+    public <T> PaginaResponse<T> pagina(Slice<T> slice, String clave, boolean exacto, LongSupplier contar) {
+        return armar(slice, clave, null, exacto, contar);
+    }
+
+    /**
+     * Página de un listado sin filtro sobre tabla: sin conteo en caché se usa la
+     * estimación del planificador antes que el COUNT
+     */
+    public <T> PaginaResponse<T> paginaDeTabla(Slice<T> slice, String tabla, boolean exacto, LongSupplier contar) {
+        return armar(slice, clave(tabla), tabla, exacto, contar);
+    }
+
+    private <T> PaginaResponse<T> armar(Slice<T> slice, String clave, String tabla,
+                                        boolean exacto, LongSupplier contar) {
+        long offset = slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0;
+        long vistos = offset + slice.getNumberOfElements();
+
+        // Última página (con contenido, o la primera vacía): el total es exacto sin consultar
+        if (!slice.hasNext() && (slice.hasContent() || offset == 0)) {
+            conteos.put(clave, vistos);
+            return PaginaResponse.de(slice, vistos, TipoConteo.EXACTO);
+        }
+        if (!exacto) {
+            Long estimado = conteos.getIfPresent(clave);
+            if (estimado == null && tabla != null) {
+                estimado = estadisticasRepository.estimarFilas(tabla);
+                if (estimado != null) {
+                    conteos.put(clave, estimado);
+                }
+            }
+            if (estimado != null) {
+                // Nunca menos de lo que la página ya muestra que existe
+                long minimo = slice.hasNext() ? vistos + 1 : vistos;
+                return PaginaResponse.de(slice, Math.max(estimado, minimo), TipoConteo.ESTIMADO);
+            }
+        }
+        long total = contar.getAsLong();
+        conteos.put(clave, total);
+        return PaginaResponse.de(slice, total, TipoConteo.EXACTO);
+    }
+}
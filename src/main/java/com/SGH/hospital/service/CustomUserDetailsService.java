@@ -1,5 +1,8 @@
 package com.SGH.hospital.service;
 
+// Cifrado de datos personales (índice ciego del email)
+import com.SGH.hospital.config.PiiCipher;
+
 // Entidad Usuario del sistema
 import com.SGH.hospital.entity.Usuario;
 
@@ -9,28 +12,29 @@ import com.SGH.hospital.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 
 // Clases de Spring Security
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 // Anotaciones de Spring
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
-
 // Marca esta clase como un Service de Spring
 @Service
 
 // Lombok genera un constructor con los atributos final
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     // Repositorio para buscar usuarios por email
     private final UsuarioRepository usuarioRepository;
 
+    // El email está cifrado: se busca por su índice ciego
+    private final PiiCipher piiCipher;
+
     // Método que Spring Security usa para cargar el usuario al hacer login
     @Override
     @Transactional(readOnly = true) // Solo lectura, no modifica la BD
@@ -38,37 +42,26 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         // Busca el usuario por email en la base de datos
         // Si no existe, lanza una excepción
-        Usuario usuario = usuarioRepository.findByEmail(email)
+        Usuario usuario = usuarioRepository.findByEmailHash(piiCipher.blindIndexEmail(email))
                 .orElseThrow(() ->
                         new UsernameNotFoundException("Usuario no encontrado con email: " + email)
                 );
 
-        // Construye el objeto User que Spring Security entiende
-        return User.builder()
-                // Email usado como username
-                .username(usuario.getEmail())
-
-                // Contraseña encriptada
-                .password(usuario.getPassword())
-
-                // Rol del usuario, con prefijo ROLE_ (obligatorio en Spring Security)
-                .authorities(Collections.singletonList(
-                        new SimpleGrantedAuthority("ROLE_" + usuario.getRol().name())
-                ))
-
-                // La cuenta no está expirada
-                .accountExpired(false)
-
-                // La cuenta se bloquea si el estado NO es ACTIVO
-                .accountLocked(usuario.getEstado() != com.SGH.hospital.enums.EstadoUsuario.ACTIVO)
-
-                // Las credenciales no están expiradas
-                .credentialsExpired(false)
-
-                // El usuario se deshabilita si está INACTIVO
-                .disabled(usuario.getEstado() == com.SGH.hospital.enums.EstadoUsuario.INACTIVO)
+        // Construye el UserDetails que Spring Security entiende (incluye el ID del usuario)
+        return UsuarioPrincipal.fromUsuario(usuario);
+    }
 
-                // Devuelve el UserDetails final
-                .build();
+    // Spring Security lo llama tras un login exitoso cuando el hash guardado usa
+    // un costo BCrypt menor al actual: se guarda el nuevo hash de forma transparente.
+    // REQUIRES_NEW porque el login corre dentro de una transacción de solo lectura.
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usuarioRepository.updatePasswordByEmailHash(piiCipher.blindIndexEmail(user.getUsername()), newPassword);
+
+        if (user instanceof UsuarioPrincipal principal) {
+            return principal.withPassword(newPassword);
+        }
+        return loadUserByUsername(user.getUsername());
     }
 }
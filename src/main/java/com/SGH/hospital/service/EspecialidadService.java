@@ -0,0 +1,286 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.config.ReinvalidacionReplicas;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.especialidad.EspecialidadResponse;
+import com.SGH.hospital.dto.especialidad.ReasignacionResponse;
+import com.SGH.hospital.entity.Especialidad;
+import com.SGH.hospital.entity.Medico;
+import com.SGH.hospital.exception.BadRequestException;
+import com.SGH.hospital.exception.DuplicateResourceException;
+import com.SGH.hospital.exception.EspecialidadNotFoundException;
+import com.SGH.hospital.repository.EspecialidadRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catálogo de especialidades en memoria.
+ *
+ * Las lecturas (validar los ids de un médico, la lista pública) resuelven contra una
+ * foto inmutable del catálogo (CatalogoEspecialidades), sin ir a la base. La foto:
+ *  - se carga completa al arrancar y cada especialidades.refresco (cambios hechos en
+ *    otra instancia o por SQL directo)
+ *  - se reemplaza por una copia con el cambio cuando confirma una escritura de este
+ *    servicio (copy-on-write: los lectores nunca ven una foto a medio armar)
+ *  - se recarga si se pide un id que no tiene, como mucho una vez por
+ *    especialidades.recarga-minima: así una especialidad recién creada en otra
+ *    instancia se puede usar sin esperar el refresco
+ */
+@Service
+public class EspecialidadService {
+
+    private static final Logger log = LoggerFactory.getLogger(EspecialidadService.class);
+
+    private static final String COLECCION_ESPECIALIDADES = Medico.class.getName() + ".especialidades";
+
+    private final EspecialidadRepository especialidadRepository;
+    private final Cache cache;
+    private final ObjectProvider<ReinvalidacionReplicas> reinvalidacionReplicas;
+    private final TransactionTemplate lecturaPrimario;
+    private final long recargaMinimaNanos;
+
+    // null hasta la primera carga
+    private final AtomicReference<CatalogoEspecialidades> catalogo = new AtomicReference<>();
+    private volatile long ultimaCarga;
+
+    public EspecialidadService(EspecialidadRepository especialidadRepository,
+                               PlatformTransactionManager transactionManager,
+                               EntityManagerFactory entityManagerFactory,
+                               ObjectProvider<ReinvalidacionReplicas> reinvalidacionReplicas,
+                               @Value("${especialidades.recarga-minima:PT1S}") Duration recargaMinima) {
+        this.especialidadRepository = especialidadRepository;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.reinvalidacionReplicas = reinvalidacionReplicas;
+        // Transacción de escritura a propósito: con réplicas, una atrasada podría devolver
+        // un catálogo sin un cambio que ya se publicó en la foto
+        this.lecturaPrimario = new TransactionTemplate(transactionManager);
+        this.recargaMinimaNanos = recargaMinima.toNanos();
+        this.ultimaCarga = System.nanoTime() - recargaMinimaNanos;
+    }
+
+    // ==================== Lecturas (en memoria) ====================
+    // Sin @Transactional: una transacción ya toma una conexión del pool
+
+    public CatalogoEspecialidades catalogo() {
+        CatalogoEspecialidades actual = catalogo.get();
+        return actual != null ? actual : recargar();
+    }
+
+    public EspecialidadResponse obtenerPorId(Long id) {
+        return buscar(id);
+    }
+
+    /**
+     * Verifica que existan todas las especialidades; si falta alguna lanza
+     * EspecialidadNotFoundException con el primer id faltante
+     */
+    public void verificarExistentes(Collection<Long> ids) {
+        for (Long id : ids) {
+            buscar(id);
+        }
+    }
+
+    public boolean existe(Long id) {
+        return catalogo().contiene(id) || (recargarSiCorresponde() && catalogo().contiene(id));
+    }
+
+    private EspecialidadResponse buscar(Long id) {
+        return catalogo().porId(id)
+                .or(() -> recargarSiCorresponde() ? catalogo().porId(id) : Optional.<EspecialidadResponse>empty())
+                .orElseThrow(() -> new EspecialidadNotFoundException("Especialidad no encontrada con ID: " + id));
+    }
+
+    // ==================== Escrituras ====================
+
+    @Transactional
+    public EspecialidadResponse crear(EspecialidadRequest request) {
+        verificarNombreLibre(request.getNombre(), null);
+        Especialidad especialidad = especialidadRepository.save(new Especialidad(request.getNombre().trim()));
+        log.info("Especialidad creada ID: {}", especialidad.getId());
+        return publicar(especialidad);
+    }
+
+    @Transactional
+    public EspecialidadResponse actualizar(Long id, EspecialidadRequest request) {
+        Especialidad especialidad = cargar(id);
+        verificarNombreLibre(request.getNombre(), id);
+        especialidad.setNombre(request.getNombre().trim());
+        return publicar(especialidad);
+    }
+
+    @Transactional
+    public EspecialidadResponse cambiarEstado(Long id, boolean activa) {
+        Especialidad especialidad = cargar(id);
+        if (activa) {
+            especialidad.activar();
+        } else {
+            especialidad.desactivar();
+        }
+        return publicar(especialidad);
+    }
+
+    // ==================== Operaciones masivas ====================
+    // Una sentencia sobre medico_especialidad para todos los médicos, en vez de cargar y
+    // reescribir cada médico. La caché de Medico.especialidades se invalida una vez por
+    // operación, no una vez por médico.
+
+    /**
+     * Pasa todos los médicos de la especialidad origen a la destino. Los que ya tenían
+     * las dos quedan solo con la destino. La de origen sigue activa.
+     */
+    @Transactional
+    public ReasignacionResponse reasignar(Long origenId, Long destinoId) {
+        verificarDestino(origenId, destinoId);
+        buscar(origenId);
+        return moverAsignaciones(origenId, destinoId);
+    }
+
+    /**
+     * Fusiona la especialidad origen en la destino: reasigna sus médicos y la desactiva
+     * (sale del catálogo público). Por ejemplo "Traumatología" en "Ortopedia".
+     */
+    @Transactional
+    public ReasignacionResponse fusionar(Long origenId, Long destinoId) {
+        verificarDestino(origenId, destinoId);
+        Especialidad origen = cargar(origenId);
+        ReasignacionResponse resultado = moverAsignaciones(origenId, destinoId);
+        origen.desactivar();
+        publicar(origen);
+        return resultado;
+    }
+
+    /**
+     * Quita la especialidad a todos los médicos. No la desactiva (ver cambiarEstado).
+     */
+    @Transactional
+    public ReasignacionResponse desvincular(Long especialidadId) {
+        buscar(especialidadId);
+        int quitadas = especialidadRepository.quitarAsignaciones(especialidadId);
+        log.info("Especialidad ID {} desvinculada de {} médicos", especialidadId, quitadas);
+        invalidarAsignaciones();
+        return new ReasignacionResponse(especialidadId, null, 0, quitadas);
+    }
+
+    private ReasignacionResponse moverAsignaciones(Long origenId, Long destinoId) {
+        int creadas = especialidadRepository.copiarAsignaciones(origenId, destinoId);
+        int quitadas = especialidadRepository.quitarAsignacionesCubiertas(origenId, destinoId);
+        log.info("Especialidad ID {} reasignada a ID {}: {} asignaciones creadas, {} quitadas",
+                origenId, destinoId, creadas, quitadas);
+        invalidarAsignaciones();
+        return new ReasignacionResponse(origenId, destinoId, creadas, quitadas);
+    }
+
+    private void verificarDestino(Long origenId, Long destinoId) {
+        if (origenId.equals(destinoId)) {
+            throw new BadRequestException("La especialidad de origen y la de destino son la misma");
+        }
+        if (!buscar(destinoId).isActiva()) {
+            throw new BadRequestException("La especialidad destino está inactiva: " + destinoId);
+        }
+    }
+
+    // Hibernate no invalida la colección por su cuenta: de una sentencia nativa solo deduce
+    // las regiones de las entidades cuyas tablas toca, y medico_especialidad no es de
+    // ninguna. Se invalida al confirmar, una vez por operación.
+    private void invalidarAsignaciones() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evictCollectionData(COLECCION_ESPECIALIDADES);
+                // Sin eventos por médico, ReinvalidacionReplicas tampoco se entera sola
+                reinvalidacionReplicas.ifAvailable(r -> r.coleccionCompleta(COLECCION_ESPECIALIDADES));
+            }
+        });
+    }
+
+    private Especialidad cargar(Long id) {
+        return especialidadRepository.findById(id)
+                .orElseThrow(() -> new EspecialidadNotFoundException("Especialidad no encontrada con ID: " + id));
+    }
+
+    // Sin tildes ni mayúsculas: "Cardiologia" choca con "Cardiología"
+    private void verificarNombreLibre(String nombre, Long idPropio) {
+        catalogo().porNombre(nombre)
+                .filter(e -> !e.getId().equals(idPropio))
+                .ifPresent(e -> {
+                    throw new DuplicateResourceException("Especialidad", "nombre", e.getNombre());
+                });
+    }
+
+    // ==================== Sincronización del catálogo ====================
+
+    /**
+     * Aplica el cambio a la foto al confirmar la transacción (un rollback no lo publica)
+     */
+    private EspecialidadResponse publicar(Especialidad especialidad) {
+        EspecialidadResponse response = convertir(especialidad);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(response);
+                }
+            });
+        } else {
+            aplicar(response);
+        }
+        return response;
+    }
+
+    private void aplicar(EspecialidadResponse especialidad) {
+        // Sin foto todavía: la primera lectura carga el catálogo completo, ya con el cambio
+        catalogo.updateAndGet(actual -> actual != null ? actual.con(especialidad) : null);
+    }
+
+    /**
+     * Carga el catálogo completo. Si mientras tanto se publicó un cambio, la foto leída
+     * puede no tenerlo: no se pisa y se vuelve a leer.
+     */
+    @Scheduled(fixedDelayString = "${especialidades.refresco:PT1M}")
+    public CatalogoEspecialidades recargar() {
+        while (true) {
+            CatalogoEspecialidades anterior = catalogo.get();
+            List<EspecialidadResponse> todas = lecturaPrimario.execute(status -> especialidadRepository.findAll().stream()
+                    .map(EspecialidadService::convertir)
+                    .toList());
+            CatalogoEspecialidades nuevo = new CatalogoEspecialidades(todas);
+            ultimaCarga = System.nanoTime();
+            if (catalogo.compareAndSet(anterior, nuevo)) {
+                if (anterior == null) {
+                    log.info("Catálogo de especialidades cargado: {} especialidades", nuevo.tamanio());
+                }
+                return nuevo;
+            }
+        }
+    }
+
+    private boolean recargarSiCorresponde() {
+        if (System.nanoTime() - ultimaCarga < recargaMinimaNanos) {
+            return false;
+        }
+        recargar();
+        return true;
+    }
+
+    private static EspecialidadResponse convertir(Especialidad especialidad) {
+        return new EspecialidadResponse(especialidad.getId(), especialidad.getNombre(), especialidad.estaActiva());
+    }
+}
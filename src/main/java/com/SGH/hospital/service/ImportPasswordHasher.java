@@ -0,0 +1,55 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashea en paralelo las contraseñas de las importaciones masivas.
+ *
+ * Los hashes pasan por el pool acotado de BCrypt, compartido con el login: con la
+ * mitad de los núcleos (por defecto) las importaciones, aun simultáneas, nunca ocupan
+ * todos sus hilos ni llenan su cola.
+ */
+@Component
+class ImportPasswordHasher implements DisposableBean {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService executor;
+
+    ImportPasswordHasher(PasswordEncoder passwordEncoder,
+                         @Value("${import.hash-threads:0}") int hashThreads) {
+        this.passwordEncoder = passwordEncoder;
+        int hilos = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "import-hash-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    CompletableFuture<String> hashear(String password) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), executor);
+    }
+
+    // Motivo para el reporte cuando join() de un hash falla
+    static String motivo(CompletionException e) {
+        return e.getCause() instanceof ServiceUnavailableException
+                ? "Servidor saturado al procesar la contraseña, reintente la fila"
+                : "No se pudo procesar la contraseña";
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
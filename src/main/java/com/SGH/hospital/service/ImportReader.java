@@ -0,0 +1,154 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.exception.BadRequestException;
+import com.SGH.hospital.util.CsvLineParser;
+import org.springframework.http.MediaType;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Lee un archivo de importación registro por registro, sin cargarlo en memoria.
+ *
+ * NDJSON: un objeto JSON por línea. CSV: la primera línea tiene los nombres de los
+ * campos del DTO (nombre,apellido,dni,...) y cada línea siguiente es un registro.
+ * Una línea que no se puede convertir no corta la lectura: se devuelve como fila
+ * con error para el reporte.
+ */
+final class ImportReader<T> implements Closeable {
+
+    enum Formato { NDJSON, CSV }
+
+    private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+    private static final MediaType CSV = MediaType.valueOf("text/csv");
+
+    // Resultado de leer una línea: el valor convertido o el motivo del error
+    record Fila<T>(long numero, T valor, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final JsonMapper jsonMapper;
+    private final Class<T> tipo;
+    private final Formato formato;
+    private final List<String> encabezados;
+    private long numero;
+
+    ImportReader(InputStream in, Formato formato, JsonMapper jsonMapper, Class<T> tipo) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.formato = formato;
+        this.jsonMapper = jsonMapper;
+        this.tipo = tipo;
+        this.encabezados = formato == Formato.CSV ? leerEncabezados() : null;
+    }
+
+    static Formato formato(MediaType contentType) {
+        if (contentType != null && NDJSON.isCompatibleWith(contentType)) {
+            return Formato.NDJSON;
+        }
+        if (contentType != null && CSV.isCompatibleWith(contentType)) {
+            return Formato.CSV;
+        }
+        throw new BadRequestException("Formato no soportado: use application/x-ndjson o text/csv");
+    }
+
+    /**
+     * Lee el archivo completo entregando las filas en lotes de hasta tamanio filas.
+     * La lista se reutiliza entre lotes: no debe guardarse fuera de procesar.
+     */
+    void porLotes(int tamanio, Consumer<List<Fila<T>>> procesar) {
+        List<Fila<T>> lote = new ArrayList<>(tamanio);
+        Fila<T> fila;
+        while ((fila = next()) != null) {
+            lote.add(fila);
+            if (lote.size() == tamanio) {
+                procesar.accept(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesar.accept(lote);
+        }
+    }
+
+    /**
+     * Devuelve la próxima fila no vacía, o null al final del archivo.
+     */
+    Fila<T> next() {
+        String linea;
+        do {
+            linea = leerLinea();
+            if (linea == null) {
+                return null;
+            }
+            numero++;
+        } while (linea.isBlank());
+
+        try {
+            T valor = formato == Formato.NDJSON
+                    ? jsonMapper.readValue(linea, tipo)
+                    : jsonMapper.convertValue(aMapa(CsvLineParser.parse(linea)), tipo);
+            return new Fila<>(numero, valor, null);
+        } catch (JacksonException | IllegalArgumentException e) {
+            return new Fila<>(numero, null, "Formato inválido: " + primeraLinea(e.getMessage()));
+        }
+    }
+
+    private Map<String, String> aMapa(List<String> valores) {
+        if (valores.size() != encabezados.size()) {
+            throw new IllegalArgumentException("Se esperaban " + encabezados.size()
+                    + " columnas y hay " + valores.size());
+        }
+        Map<String, String> mapa = new HashMap<>();
+        for (int i = 0; i < valores.size(); i++) {
+            String valor = valores.get(i).trim();
+            // Vacío = ausente, así lo reporta la validación del DTO y no el parser
+            mapa.put(encabezados.get(i), valor.isEmpty() ? null : valor);
+        }
+        return mapa;
+    }
+
+    private List<String> leerEncabezados() {
+        String linea = leerLinea();
+        if (linea == null || linea.isBlank()) {
+            throw new BadRequestException("El CSV no tiene encabezado");
+        }
+        // Excel agrega un BOM al inicio de los CSV en UTF-8
+        if (linea.charAt(0) == '\uFEFF') {
+            linea = linea.substring(1);
+        }
+        return CsvLineParser.parse(linea).stream().map(String::trim).toList();
+    }
+
+    private String leerLinea() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String primeraLinea(String mensaje) {
+        if (mensaje == null) {
+            return "";
+        }
+        int salto = mensaje.indexOf('\n');
+        return salto < 0 ? mensaje : mensaje.substring(0, salto);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,77 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.importacion.ErrorImportacion;
+import com.SGH.hospital.dto.importacion.ImportacionResponse;
+import jakarta.validation.ConstraintViolation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Conteos y errores acumulados de una importación masiva.
+ * La lista de errores se corta en maxErrores; el resto solo se cuenta.
+ */
+final class ImportReporte {
+
+    private final int maxErrores;
+    private final List<ErrorImportacion> errores = new ArrayList<>();
+    private final long inicio = System.nanoTime();
+    long total;
+    long importadas;
+    long rechazadas;
+    private long omitidos;
+
+    ImportReporte(int maxErrores) {
+        this.maxErrores = maxErrores;
+    }
+
+    void rechazar(long fila, String campo, String mensaje) {
+        rechazada();
+        error(fila, campo, mensaje);
+    }
+
+    // Una fila rechazada con un error por restricción violada
+    void rechazar(long fila, Collection<? extends ConstraintViolation<?>> violaciones) {
+        rechazada();
+        errores(fila, "", violaciones);
+    }
+
+    // Errores de validación ordenados por campo; prefijo ubica los de objetos anidados
+    void errores(long fila, String prefijo, Collection<? extends ConstraintViolation<?>> violaciones) {
+        violaciones.stream()
+                .sorted(Comparator.comparing((ConstraintViolation<?> v) -> v.getPropertyPath().toString())
+                        .thenComparing(ConstraintViolation::getMessage))
+                .forEach(v -> error(fila, prefijo + v.getPropertyPath(), v.getMessage()));
+    }
+
+    void rechazada() {
+        rechazadas++;
+    }
+
+    void error(long fila, String campo, String mensaje) {
+        if (errores.size() < maxErrores) {
+            errores.add(new ErrorImportacion(fila, campo, mensaje));
+        } else {
+            omitidos++;
+        }
+    }
+
+    long duracionMs() {
+        return (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    ImportacionResponse toResponse() {
+        long duracionMs = duracionMs();
+        return ImportacionResponse.builder()
+                .totalFilas(total)
+                .importadas(importadas)
+                .rechazadas(rechazadas)
+                .errores(errores)
+                .erroresOmitidos(omitidos)
+                .duracionMs(duracionMs)
+                .filasPorSegundo(duracionMs > 0 ? total * 1000.0 / duracionMs : total)
+                .build();
+    }
+}
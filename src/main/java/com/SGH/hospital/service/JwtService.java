@@ -2,19 +2,35 @@ package com.SGH.hospital.service;
 
 // Clases de la librería jjwt para manejar JWT
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 
+// Caché y métricas
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
 // Spring
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 // Java
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
@@ -23,6 +39,11 @@ import javax.crypto.SecretKey;
 @Service
 public class JwtService {
 
+    // Claims propios: familia (sesión) y tipo de token
+    public static final String CLAIM_FAMILY = "fam";
+    public static final String CLAIM_TYPE = "typ";
+    public static final String TYPE_REFRESH = "refresh";
+
     // Clave secreta para firmar los tokens
     // Se obtiene desde application.properties o yml
     @Value("${jwt.secret}")
@@ -36,9 +57,63 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    // Cantidad máxima de tokens verificados que se mantienen en memoria
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private final MeterRegistry meterRegistry;
+
+    // Clave y parser se construyen una sola vez (son inmutables y thread-safe)
+    private SecretKey signInKey;
+    private JwtParser parser;
+
+    // Tokens ya verificados, indexados por el digest SHA-256 del token
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    // Latencia de parseo + verificación de firma (solo en cache miss)
+    private Timer parseTimer;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        this.signInKey = buildSignInKey();
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+
+        // Cada entrada vive hasta que expira su token, nunca más
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long restante = value.getExpirationMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(restante, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        this.parseTimer = Timer.builder("jwt.parse")
+                .description("Tiempo de parseo y verificación de firma de un JWT")
+                .register(meterRegistry);
+    }
+
     // Extrae el username (subject) desde el token
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     // Extrae un claim específico usando una función
@@ -47,6 +122,27 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifica el token una sola vez y devuelve sus claims inmutables.
+     * Si el mismo token ya fue verificado (y no expiró) se devuelve desde la caché
+     * sin volver a chequear la firma. Lanza JwtException si el token es inválido.
+     */
+    public VerifiedToken verify(String token) {
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isExpired(System.currentTimeMillis())) {
+                return cached;
+            }
+            verifiedTokens.invalidate(key);
+        }
+
+        // El parser lanza ExpiredJwtException / SignatureException si corresponde
+        VerifiedToken verified = parseTimer.record(() -> VerifiedToken.fromClaims(extractAllClaims(token)));
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
     // Genera un token JWT sin claims extra
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
@@ -57,9 +153,27 @@ public class JwtService {
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
 
-    // Genera un refresh token
+    // Genera un refresh token que inicia una nueva sesión
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return generateRefreshToken(userDetails, newFamily());
+    }
+
+    // Genera un refresh token de una sesión existente, con un jti único para poder rotarlo
+    public String generateRefreshToken(UserDetails userDetails, String family) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        claims.put(CLAIM_FAMILY, family);
+        claims.put(CLAIM_TYPE, TYPE_REFRESH);
+        return buildToken(claims, userDetails, refreshExpiration);
+    }
+
+    // Identificador de una nueva sesión (familia de tokens)
+    public String newFamily() {
+        return UUID.randomUUID().toString();
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
     }
 
     // Construye el token JWT
@@ -73,40 +187,43 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey()) // ← forma nueva
+                .signWith(signInKey) // ← forma nueva
                 .compact();
     }
 
     // Verifica si el token es válido para un usuario
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername())
-                && !isTokenExpired(token);
-    }
-
-    // Verifica si el token ya expiró
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenValid(verify(token), userDetails);
     }
 
-    // Extrae la fecha de expiración del token
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Igual que el anterior pero sobre un token ya verificado
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired(System.currentTimeMillis());
     }
 
     // Extrae todos los claims del token
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
     // Convierte la secret key en una Key válida para JWT
-    private SecretKey getSignInKey() {
+    private SecretKey buildSignInKey() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
     }
+
+    // La caché no guarda el token en claro, solo su digest
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
 }
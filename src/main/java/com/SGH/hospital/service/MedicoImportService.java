@@ -0,0 +1,260 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.config.PiiCipher;
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.importacion.ImportacionResponse;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.entity.Especialidad;
+import com.SGH.hospital.entity.Medico;
+import com.SGH.hospital.repository.EspecialidadRepository;
+import com.SGH.hospital.repository.MedicoRepository;
+import com.SGH.hospital.repository.UsuarioRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de médicos con sus especialidades y horarios, desde NDJSON
+ * (un MedicoRequest por línea, con la lista de horarios anidada).
+ *
+ * Por cada lote de chunk-size registros, en lugar del costo por médico de crearMedico:
+ *  - las especialidades referenciadas se verifican contra el catálogo en memoria
+ *    de EspecialidadService, sin consultas
+ *  - matrícula, email y DNI se verifican para todo el lote con una consulta cada uno
+ *  - médicos, filas de medico_especialidad y horarios se insertan en una única
+ *    transacción con el batching JDBC de Hibernate
+ *
+ * Si la transacción del lote falla (por ejemplo, un alta concurrente con la misma
+ * matrícula) se reintenta registro por registro, así el reporte indica exactamente
+ * qué registros no se pudieron guardar.
+ */
+@Slf4j
+@Service
+public class MedicoImportService {
+
+    private final MedicoRepository medicoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final EspecialidadRepository especialidadRepository;
+    private final EspecialidadService especialidadService;
+    private final ImportPasswordHasher passwordHasher;
+    private final PiiCipher piiCipher;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxErrores;
+
+    public MedicoImportService(MedicoRepository medicoRepository,
+                               UsuarioRepository usuarioRepository,
+                               EspecialidadRepository especialidadRepository,
+                               EspecialidadService especialidadService,
+                               ImportPasswordHasher passwordHasher,
+                               PiiCipher piiCipher,
+                               Validator validator,
+                               JsonMapper jsonMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${import.chunk-size:1000}") int chunkSize,
+                               @Value("${import.max-errores:1000}") int maxErrores) {
+        this.medicoRepository = medicoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.especialidadRepository = especialidadRepository;
+        this.especialidadService = especialidadService;
+        this.passwordHasher = passwordHasher;
+        this.piiCipher = piiCipher;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrores = maxErrores;
+    }
+
+    /**
+     * Importa los médicos del archivo NDJSON y devuelve el reporte de la importación.
+     */
+    public ImportacionResponse importar(InputStream archivo) {
+        ImportReporte reporte = new ImportReporte(maxErrores);
+        try (ImportReader<MedicoRequest> reader = new ImportReader<>(
+                archivo, ImportReader.Formato.NDJSON, jsonMapper, MedicoRequest.class)) {
+            reader.porLotes(chunkSize, lote -> procesarLote(lote, reporte));
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Importación de médicos interrumpida tras {} registros", reporte.total, e);
+            reporte.error(reporte.total + 1, null, "Lectura interrumpida: " + e.getMessage());
+        }
+
+        ImportacionResponse response = reporte.toResponse();
+        log.info("Importación de médicos: {} registros, {} importados, {} rechazados en {} ms",
+                response.getTotalFilas(), response.getImportadas(), response.getRechazadas(), response.getDuracionMs());
+        return response;
+    }
+
+    private void procesarLote(List<ImportReader.Fila<MedicoRequest>> lote, ImportReporte reporte) {
+        reporte.total += lote.size();
+
+        // 1. Formato, validación y repetidos dentro del lote
+        List<Candidato> candidatos = new ArrayList<>(lote.size());
+        Set<String> matriculas = new HashSet<>();
+        Set<String> dnis = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (ImportReader.Fila<MedicoRequest> fila : lote) {
+            if (fila.error() != null) {
+                reporte.rechazar(fila.numero(), null, fila.error());
+                continue;
+            }
+            MedicoRequest request = fila.valor();
+            if (!validar(fila.numero(), request, reporte)) {
+                continue;
+            }
+            Candidato c = new Candidato(fila.numero(), request,
+                    piiCipher.blindIndexDni(request.getDni()), piiCipher.blindIndexEmail(request.getEmail()));
+            if (matriculas.contains(request.getMatricula())) {
+                reporte.rechazar(c.fila, "matricula", "Matrícula repetida en el archivo");
+            } else if (dnis.contains(c.dniHash)) {
+                reporte.rechazar(c.fila, "dni", "DNI repetido en el archivo");
+            } else if (emails.contains(c.emailHash)) {
+                reporte.rechazar(c.fila, "email", "Email repetido en el archivo");
+            } else {
+                matriculas.add(request.getMatricula());
+                dnis.add(c.dniHash);
+                emails.add(c.emailHash);
+                candidatos.add(c);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return;
+        }
+
+        // 2. Especialidades contra el catálogo en memoria (sin consultas) y unicidad
+        // contra la base: una consulta por columna para todo el lote
+        Set<String> matriculasExistentes = medicoRepository.findMatriculasExistentes(matriculas);
+        Set<String> dnisExistentes = medicoRepository.findDniHashesExistentes(dnis);
+        Set<String> emailsExistentes = usuarioRepository.findEmailHashesExistentes(emails);
+        candidatos.removeIf(c -> {
+            Long faltante = c.datos.getEspecialidadIds().stream()
+                    .filter(id -> !especialidadService.existe(id))
+                    .findFirst().orElse(null);
+            if (faltante != null) {
+                reporte.rechazar(c.fila, "especialidadIds", "Especialidad no encontrada con ID: " + faltante);
+            } else if (matriculasExistentes.contains(c.datos.getMatricula())) {
+                reporte.rechazar(c.fila, "matricula", "Ya existe un médico con esa matrícula");
+            } else if (dnisExistentes.contains(c.dniHash)) {
+                reporte.rechazar(c.fila, "dni", "Ya existe un médico con ese DNI");
+            } else if (emailsExistentes.contains(c.emailHash)) {
+                reporte.rechazar(c.fila, "email", "Ya existe un usuario con ese email");
+            } else {
+                return false;
+            }
+            return true;
+        });
+
+        // 3. Contraseñas en paralelo
+        List<CompletableFuture<String>> hashes = candidatos.stream()
+                .map(c -> passwordHasher.hashear(c.datos.getPassword()))
+                .toList();
+        List<Candidato> listos = new ArrayList<>(candidatos.size());
+        for (int i = 0; i < candidatos.size(); i++) {
+            Candidato c = candidatos.get(i);
+            try {
+                c.passwordHash = hashes.get(i).join();
+                listos.add(c);
+            } catch (CompletionException e) {
+                reporte.rechazar(c.fila, "password", ImportPasswordHasher.motivo(e));
+            }
+        }
+        if (listos.isEmpty()) {
+            return;
+        }
+
+        // 4. Inserción del lote; si falla, uno por uno para aislar los registros con problemas
+        try {
+            guardar(listos);
+            reporte.importadas += listos.size();
+        } catch (DataAccessException e) {
+            log.warn("Falló el lote de {} médicos, se reintenta de a uno: {}", listos.size(), e.getMessage());
+            for (Candidato c : listos) {
+                try {
+                    guardar(List.of(c));
+                    reporte.importadas++;
+                } catch (DataAccessException individual) {
+                    reporte.rechazar(c.fila, null, individual instanceof DataIntegrityViolationException
+                            ? "El registro viola una restricción de la base (matrícula, DNI o email ya usados, o un valor demasiado largo)"
+                            : "No se pudo guardar el registro");
+                }
+            }
+        }
+    }
+
+    // Entidades nuevas en cada intento: tras un rollback las anteriores quedan con id asignado
+    private void guardar(List<Candidato> candidatos) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Medico> medicos = new ArrayList<>(candidatos.size());
+            for (Candidato c : candidatos) {
+                // Referencias sin SELECT: la existencia ya se verificó en el paso 2
+                Set<Especialidad> especialidades = c.datos.getEspecialidadIds().stream()
+                        .map(especialidadRepository::getReferenceById)
+                        .collect(Collectors.toSet());
+                medicos.add(MedicoService.construirMedico(c.datos, c.passwordHash, especialidades));
+            }
+            medicoRepository.saveAll(medicos);
+        });
+    }
+
+    // MedicoRequest no propaga la validación a los horarios: se validan acá uno por uno
+    private boolean validar(long fila, MedicoRequest request, ImportReporte reporte) {
+        Set<ConstraintViolation<MedicoRequest>> violaciones = validator.validate(request);
+        List<Set<ConstraintViolation<HorarioAtencionDTO>>> deHorarios = new ArrayList<>();
+        if (request.getHorarios() != null) {
+            for (HorarioAtencionDTO horario : request.getHorarios()) {
+                if (horario != null) {
+                    Set<ConstraintViolation<HorarioAtencionDTO>> v = validator.validate(horario);
+                    if (!v.isEmpty()) {
+                        deHorarios.add(v);
+                    }
+                }
+            }
+        }
+        boolean idNulo = request.getEspecialidadIds() != null && request.getEspecialidadIds().contains(null);
+        if (violaciones.isEmpty() && deHorarios.isEmpty() && !idNulo) {
+            return true;
+        }
+        reporte.rechazada();
+        reporte.errores(fila, "", violaciones);
+        deHorarios.forEach(v -> reporte.errores(fila, "horarios.", v));
+        if (idNulo) {
+            reporte.error(fila, "especialidadIds", "Los ids de especialidad no pueden ser nulos");
+        }
+        return false;
+    }
+
+    private static final class Candidato {
+        final long fila;
+        final MedicoRequest datos;
+        final String dniHash;
+        final String emailHash;
+        String passwordHash;
+
+        Candidato(long fila, MedicoRequest datos, String dniHash, String emailHash) {
+            this.fila = fila;
+            this.datos = datos;
+            this.dniHash = dniHash;
+            this.emailHash = emailHash;
+        }
+    }
+}
@@ -1,28 +1,51 @@
 package com.SGH.hospital.service;
 
+import com.SGH.hospital.config.PiiCipher;
 import com.SGH.hospital.dto.especialidad.EspecialidadDTO;
+import com.SGH.hospital.dto.especialidad.EspecialidadResponse;
 import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.horarioAtencion.HorariosPatchRequest;
 import com.SGH.hospital.dto.medico.MedicoRequest;
 import com.SGH.hospital.dto.medico.MedicoResponse;
 import com.SGH.hospital.dto.medico.MedicoUpdateRequest;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.dto.paginacion.PaginaCursor;
+import com.SGH.hospital.dto.paginacion.PaginaResponse;
 import com.SGH.hospital.entity.*;
 import com.SGH.hospital.enums.EstadoUsuario;
 import com.SGH.hospital.enums.Rol;
+import com.SGH.hospital.exception.BadRequestException;
 import com.SGH.hospital.exception.EspecialidadNotFoundException;
 import com.SGH.hospital.exception.MedicoNotFoundException;
 import com.SGH.hospital.repository.EspecialidadRepository;
 import com.SGH.hospital.repository.HorarioAtencionRepository;
 import com.SGH.hospital.repository.MedicoRepository;
+import com.SGH.hospital.repository.MedicoSpecs;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,14 +57,29 @@ public class MedicoService {
     private final MedicoRepository medicoRepository;
     private final EspecialidadRepository especialidadRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserStatusCache userStatusCache;
+    private final PiiCipher piiCipher;
+    private final SuspensionScheduler suspensionScheduler;
+    private final ConteoService conteoService;
+    private final EspecialidadService especialidadService;
 
     public MedicoService(MedicoRepository medicoRepository, 
                         EspecialidadRepository especialidadRepository,
                         HorarioAtencionRepository horarioRepository,
-                        PasswordEncoder passwordEncoder) {
+                        PasswordEncoder passwordEncoder,
+                        UserStatusCache userStatusCache,
+                        PiiCipher piiCipher,
+                        SuspensionScheduler suspensionScheduler,
+                        ConteoService conteoService,
+                        EspecialidadService especialidadService) {
         this.medicoRepository = medicoRepository;
         this.especialidadRepository = especialidadRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userStatusCache = userStatusCache;
+        this.piiCipher = piiCipher;
+        this.suspensionScheduler = suspensionScheduler;
+        this.conteoService = conteoService;
+        this.especialidadService = especialidadService;
     }
 
     // ==================== CRUD Básico ====================
@@ -53,38 +91,17 @@ public class MedicoService {
         if (medicoRepository.existsByMatricula(request.getMatricula())) {
             throw new IllegalArgumentException("Ya existe un médico con la matrícula: " + request.getMatricula());
         }
-        if (medicoRepository.existsByEmail(request.getEmail())) {
+        if (medicoRepository.existsByEmailHash(piiCipher.blindIndexEmail(request.getEmail()))) {
             throw new IllegalArgumentException("Ya existe un médico con el email: " + request.getEmail());
         }
-        if (medicoRepository.existsByDni(request.getDni())) {
+        if (medicoRepository.existsByDniHash(piiCipher.blindIndexDni(request.getDni()))) {
             throw new IllegalArgumentException("Ya existe un médico con el DNI: " + request.getDni());
         }
 
         // Obtener especialidades
         Set<Especialidad> especialidades = obtenerEspecialidades(request.getEspecialidadIds());
 
-        // Crear entidad
-        Medico medico = new Medico();
-        medico.setMatricula(request.getMatricula());
-        medico.setNombre(request.getNombre());
-        medico.setApellido(request.getApellido());
-        medico.setDni(request.getDni());
-        medico.setEmail(request.getEmail());
-        medico.setPassword(passwordEncoder.encode(request.getPassword()));
-        medico.setTelefono(request.getTelefono());
-        medico.setDireccion(request.getDireccion());
-        medico.setFechaNacimiento(request.getFechaNacimiento());
-        medico.setEspecialidades(especialidades);
-        medico.setEstado(EstadoUsuario.ACTIVO);
-        medico.setRol(Rol.MEDICO);
-
-        // Guardar horarios si existen
-        if (request.getHorarios() != null && !request.getHorarios().isEmpty()) {
-            Set<HorarioAtencion> horarios = request.getHorarios().stream()
-                    .map(dto -> crearHorario(dto, medico))
-                    .collect(Collectors.toSet());
-            medico.setHorariosAtencion(horarios);
-        }
+        Medico medico = construirMedico(request, passwordEncoder.encode(request.getPassword()), especialidades);
 
         Medico medicoGuardado = medicoRepository.save(medico);
         log.info("Médico creado exitosamente con ID: {}", medicoGuardado.getId());
@@ -92,17 +109,32 @@ public class MedicoService {
         return convertirAResponse(medicoGuardado);
     }
 
+    // Sin fetch join: especialidades y horarios salen de la caché de segundo nivel
+    // (una sola consulta con la caché caliente, tres con la caché fría)
     @Transactional(readOnly = true)
     public MedicoResponse obtenerPorId(Long id) {
-        Medico medico = medicoRepository.findByIdWithAll(id)
+        Medico medico = medicoRepository.findById(id)
                 .orElseThrow(() -> new MedicoNotFoundException("Médico no encontrado con ID: " + id));
         return convertirAResponse(medico);
     }
 
+    // Total EXACTO solo con conteoExacto; si no, estimado (ver ConteoService)
+    @Transactional(readOnly = true)
+    public PaginaResponse<MedicoResponse> listarTodos(Pageable pageable, boolean conteoExacto) {
+        return conteoService.paginaDeTabla(cargarPagina(medicoRepository.findPaginaIds(pageable)),
+                "medico", conteoExacto, medicoRepository::count);
+    }
+
+    // Listado por cursor: sin OFFSET ni COUNT, cualquier página cuesta lo mismo que la primera
     @Transactional(readOnly = true)
-    public Page<MedicoResponse> listarTodos(Pageable pageable) {
-        return medicoRepository.findAll(pageable)
-                .map(this::convertirAResponse);
+    public PaginaCursor<MedicoResponse> listarPorCursor(Cursor cursor, int size) {
+        int tamanio = Math.max(1, Math.min(size, Cursor.TAMANIO_MAXIMO));
+        Slice<Cursor> posiciones = medicoRepository.findPosicionesDesde(cursor, tamanio);
+        List<MedicoResponse> medicos = cargarMedicos(posiciones.map(Cursor::id).getContent());
+        Cursor siguiente = posiciones.hasNext()
+                ? posiciones.getContent().get(posiciones.getNumberOfElements() - 1)
+                : null;
+        return PaginaCursor.de(medicos, siguiente);
     }
 
     public MedicoResponse actualizarMedico(Long id, MedicoUpdateRequest request) {
@@ -148,13 +180,23 @@ public class MedicoService {
     }
 
     public void cambiarEstado(Long id, EstadoUsuario nuevoEstado) {
+        cambiarEstado(id, nuevoEstado, null);
+    }
+
+    // Con SUSPENDIDO y una fecha de fin, la suspensión se levanta sola al vencer
+    public void cambiarEstado(Long id, EstadoUsuario nuevoEstado, Instant suspendidoHasta) {
         log.info("Cambiando estado del médico ID: {} a {}", id, nuevoEstado);
 
+        Instant hasta = SuspensionScheduler.validarVencimiento(nuevoEstado, suspendidoHasta);
+
         Medico medico = medicoRepository.findById(id)
                 .orElseThrow(() -> new MedicoNotFoundException("Médico no encontrado con ID: " + id));
 
         medico.setEstado(nuevoEstado);
+        medico.setSuspendidoHasta(hasta);
         medicoRepository.save(medico);
+        userStatusCache.invalidate(id);
+        suspensionScheduler.reprogramar(id, hasta);
 
         log.info("Estado cambiado exitosamente");
     }
@@ -204,24 +246,49 @@ public class MedicoService {
 
     // ==================== Horarios ====================
 
+    /**
+     * Reemplaza los horarios del médico por los recibidos, tocando solo lo que cambió:
+     * las franjas que ya están quedan igual (a lo sumo cambia activo), una franja que
+     * cambia de hora reusa la fila de una que sale el mismo día, y el resto se inserta
+     * o se borra. Antes se borraban todas y se insertaban de nuevo.
+     */
     public MedicoResponse configurarHorarios(Long medicoId, Set<HorarioAtencionDTO> horariosDTO) {
         log.info("Configurando horarios para médico ID: {}", medicoId);
 
         Medico medico = medicoRepository.findByIdWithHorarios(medicoId)
                 .orElseThrow(() -> new MedicoNotFoundException("Médico no encontrado con ID: " + medicoId));
 
-        // Eliminar horarios existentes
-        medico.getHorariosAtencion().clear();
-
-        // Agregar nuevos horarios
-        Set<HorarioAtencion> nuevosHorarios = horariosDTO.stream()
-                .map(dto -> crearHorario(dto, medico))
+        Map<ClaveHorario, HorarioAtencionDTO> deseados = porClave(horariosDTO);
+        Set<ClaveHorario> sobrantes = medico.getHorariosAtencion().stream()
+                .map(ClaveHorario::de)
+                .filter(clave -> !deseados.containsKey(clave))
                 .collect(Collectors.toSet());
 
-        medico.getHorariosAtencion().addAll(nuevosHorarios);
+        sincronizarHorarios(medico, deseados, sobrantes);
+        return convertirAResponse(medico);
+    }
+
+    /**
+     * Agrega y quita franjas sueltas sin mandar el horario completo. Quitar una franja
+     * que no está no es error (el PATCH se puede repetir); pedir agregar y quitar la
+     * misma franja sí.
+     */
+    public MedicoResponse modificarHorarios(Long medicoId, HorariosPatchRequest request) {
+        log.info("Modificando horarios para médico ID: {}", medicoId);
+
+        Map<ClaveHorario, HorarioAtencionDTO> agregar = porClave(request.getAgregar());
+        Set<ClaveHorario> quitar = porClave(request.getQuitar()).keySet();
+        for (ClaveHorario clave : quitar) {
+            if (agregar.containsKey(clave)) {
+                throw new BadRequestException("La franja " + clave + " no se puede agregar y quitar a la vez");
+            }
+        }
 
-        Medico medicoActualizado = medicoRepository.save(medico);
-        return convertirAResponse(medicoActualizado);
+        Medico medico = medicoRepository.findByIdWithHorarios(medicoId)
+                .orElseThrow(() -> new MedicoNotFoundException("Médico no encontrado con ID: " + medicoId));
+
+        sincronizarHorarios(medico, agregar, quitar);
+        return convertirAResponse(medico);
     }
 
     public void cambiarDisponibilidad(Long id, Boolean disponible) {
@@ -234,49 +301,207 @@ public class MedicoService {
         medicoRepository.save(medico);
     }
 
+    /**
+     * Aplica el cambio mínimo: ajusta activo en las franjas que ya están, reusa las filas
+     * que salen para las franjas nuevas del mismo día (UPDATE en vez de DELETE + INSERT)
+     * y recién ahí borra o inserta. Hibernate agrupa cada tipo de sentencia en lotes
+     * (hibernate.jdbc.batch_size).
+     */
+    private void sincronizarHorarios(Medico medico, Map<ClaveHorario, HorarioAtencionDTO> agregar,
+                                     Set<ClaveHorario> quitar) {
+        // La tabla no impide franjas repetidas: las copias de más se reusan o se borran
+        Map<ClaveHorario, HorarioAtencion> actuales = new HashMap<>();
+        List<HorarioAtencion> libres = new ArrayList<>();
+        for (HorarioAtencion horario : medico.getHorariosAtencion()) {
+            if (actuales.putIfAbsent(ClaveHorario.de(horario), horario) != null) {
+                libres.add(horario);
+            }
+        }
+
+        Map<DayOfWeek, Deque<HorarioAtencionDTO>> nuevas = new EnumMap<>(DayOfWeek.class);
+        agregar.forEach((clave, dto) -> {
+            HorarioAtencion existente = actuales.get(clave);
+            if (existente == null) {
+                nuevas.computeIfAbsent(clave.dia(), dia -> new ArrayDeque<>()).add(dto);
+            } else if (!existente.getActivo().equals(activo(dto))) {
+                existente.setActivo(activo(dto));
+            }
+        });
+        for (ClaveHorario clave : quitar) {
+            HorarioAtencion horario = actuales.get(clave);
+            if (horario != null) {
+                libres.add(horario);
+            }
+        }
+
+        int actualizadas = 0;
+        int borradas = 0;
+        for (HorarioAtencion horario : libres) {
+            HorarioAtencionDTO dto = Optional.ofNullable(nuevas.get(horario.getDiaSemana()))
+                    .map(Deque::poll)
+                    .orElse(null);
+            if (dto != null) {
+                horario.setHoraInicio(dto.getHoraInicio());
+                horario.setHoraFin(dto.getHoraFin());
+                horario.setActivo(activo(dto));
+                actualizadas++;
+            } else {
+                medico.removeHorario(horario);
+                borradas++;
+            }
+        }
+        int insertadas = 0;
+        for (Deque<HorarioAtencionDTO> delDia : nuevas.values()) {
+            for (HorarioAtencionDTO dto : delDia) {
+                medico.addHorario(crearHorario(dto, medico));
+                insertadas++;
+            }
+        }
+
+        // Los horarios nuevos toman id al hacer flush, y la respuesta los incluye
+        medicoRepository.flush();
+        log.debug("Horarios del médico ID {}: {} insertados, {} reusados, {} borrados",
+                medico.getId(), insertadas, actualizadas, borradas);
+    }
+
+    // Franjas repetidas en el pedido cuentan una vez (gana la última)
+    private static Map<ClaveHorario, HorarioAtencionDTO> porClave(Set<HorarioAtencionDTO> horarios) {
+        Map<ClaveHorario, HorarioAtencionDTO> porClave = new LinkedHashMap<>();
+        if (horarios != null) {
+            horarios.forEach(dto -> porClave.put(ClaveHorario.de(dto), dto));
+        }
+        return porClave;
+    }
+
+    private static boolean activo(HorarioAtencionDTO dto) {
+        return dto.getActivo() != null ? dto.getActivo() : true;
+    }
+
+    /**
+     * Identidad de una franja: dos horarios con el mismo día y horas son la misma franja
+     */
+    private record ClaveHorario(DayOfWeek dia, LocalTime inicio, LocalTime fin) {
+
+        static ClaveHorario de(HorarioAtencion horario) {
+            return new ClaveHorario(horario.getDiaSemana(), horario.getHoraInicio(), horario.getHoraFin());
+        }
+
+        static ClaveHorario de(HorarioAtencionDTO dto) {
+            return new ClaveHorario(dto.getDiaSemana(), dto.getHoraInicio(), dto.getHoraFin());
+        }
+
+        @Override
+        public String toString() {
+            return dia + " " + inicio + "-" + fin;
+        }
+    }
+
     // ==================== Búsquedas ====================
 
     @Transactional(readOnly = true)
-    public Page<MedicoResponse> buscarPorEspecialidad(Long especialidadId, Pageable pageable) {
-        return medicoRepository.findByEspecialidadId(especialidadId, pageable)
-                .map(this::convertirAResponse);
+    public PaginaResponse<MedicoResponse> buscarPorEspecialidad(Long especialidadId, Pageable pageable,
+                                                                boolean conteoExacto) {
+        return conteoService.pagina(
+                cargarPagina(medicoRepository.findIdsByEspecialidadId(especialidadId, pageable)),
+                ConteoService.clave("medicos:especialidad", especialidadId), conteoExacto,
+                () -> medicoRepository.countByEspecialidadId(especialidadId));
     }
 
     @Transactional(readOnly = true)
-    public Page<MedicoResponse> buscarDisponibles(Pageable pageable) {
-        return medicoRepository.findByEspecialidadAndDisponibilidad(
-                null, true, EstadoUsuario.ACTIVO, pageable
-        ).map(this::convertirAResponse);
+    public PaginaResponse<MedicoResponse> buscarDisponibles(Pageable pageable, boolean conteoExacto) {
+        Specification<Medico> filtros = MedicoSpecs.filtros(null, null, null, true, EstadoUsuario.ACTIVO);
+        return conteoService.pagina(
+                cargarPagina(medicoRepository.findIds(filtros, pageable)),
+                ConteoService.clave("medicos:disponibles"), conteoExacto,
+                () -> medicoRepository.count(filtros));
     }
 
     @Transactional(readOnly = true)
-    public Page<MedicoResponse> buscarConFiltros(
+    public PaginaResponse<MedicoResponse> buscarConFiltros(
             String nombre, String apellido, Long especialidadId, 
-            Boolean disponible, EstadoUsuario estado, Pageable pageable) {
+            Boolean disponible, EstadoUsuario estado, Pageable pageable, boolean conteoExacto) {
         
-        return medicoRepository.buscarConFiltros(
-                nombre, apellido, especialidadId, disponible, estado, pageable
-        ).map(this::convertirAResponse);
+        // Solo los predicados de los filtros recibidos: cada combinación tiene su propio plan
+        Specification<Medico> filtros = MedicoSpecs.filtros(nombre, apellido, especialidadId, disponible, estado);
+        return conteoService.pagina(
+                cargarPagina(medicoRepository.findIds(filtros, pageable)),
+                ConteoService.clave("medicos:buscar", nombre, apellido, especialidadId, disponible, estado),
+                conteoExacto,
+                () -> medicoRepository.count(filtros));
     }
 
     // ==================== Métodos Auxiliares ====================
 
+    /**
+     * Arma la página de respuestas a partir de la página de ids, cargando especialidades
+     * y horarios de todos los médicos con una consulta por colección (sin N+1).
+     * Se respeta el orden de los ids, que es el orden pedido en el Pageable.
+     */
+    private Slice<MedicoResponse> cargarPagina(Slice<Long> ids) {
+        return new SliceImpl<>(cargarMedicos(ids.getContent()), ids.getPageable(), ids.hasNext());
+    }
+
+    // Respuestas de los médicos en el orden de ids, con dos consultas para toda la lista
+    private List<MedicoResponse> cargarMedicos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Medico> medicos = medicoRepository.findAllWithEspecialidades(ids).stream()
+                .collect(Collectors.toMap(Medico::getId, Function.identity()));
+        medicoRepository.findAllWithHorarios(ids);
+        return ids.stream().map(id -> convertirAResponse(medicos.get(id))).toList();
+    }
+
+    // Se validan contra el catálogo en memoria y se referencian sin SELECT
     private Set<Especialidad> obtenerEspecialidades(Set<Long> ids) {
-        Set<Especialidad> especialidades = new HashSet<>();
-        for (Long id : ids) {
-            Especialidad especialidad = especialidadRepository.findById(id)
-                    .orElseThrow(() -> new EspecialidadNotFoundException("Especialidad no encontrada con ID: " + id));
-            especialidades.add(especialidad);
+        especialidadService.verificarExistentes(ids);
+        return ids.stream()
+                .map(especialidadRepository::getReferenceById)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Arma un médico nuevo (sin guardar) con sus especialidades y horarios.
+     * La contraseña ya viene hasheada. También lo usa la importación masiva.
+     */
+    static Medico construirMedico(MedicoRequest request, String passwordHash, Set<Especialidad> especialidades) {
+        Medico medico = new Medico();
+        medico.setMatricula(request.getMatricula());
+        medico.setNombre(request.getNombre());
+        medico.setApellido(request.getApellido());
+        medico.setDni(request.getDni());
+        medico.setEmail(request.getEmail());
+        medico.setPassword(passwordHash);
+        medico.setTelefono(request.getTelefono());
+        medico.setDireccion(request.getDireccion());
+        medico.setFechaNacimiento(request.getFechaNacimiento());
+        if (request.getAniosExperiencia() != null) {
+            medico.setAniosExperiencia(request.getAniosExperiencia());
+        }
+        medico.setBiografia(request.getBiografia());
+        if (request.getDisponible() != null) {
+            medico.setDisponible(request.getDisponible());
+        }
+        medico.setEspecialidades(especialidades);
+        medico.setEstado(EstadoUsuario.ACTIVO);
+        medico.setRol(Rol.MEDICO);
+
+        // Horarios (se guardan en cascada con el médico)
+        if (request.getHorarios() != null && !request.getHorarios().isEmpty()) {
+            Set<HorarioAtencion> horarios = request.getHorarios().stream()
+                    .map(dto -> crearHorario(dto, medico))
+                    .collect(Collectors.toSet());
+            medico.setHorariosAtencion(horarios);
         }
-        return especialidades;
+        return medico;
     }
 
-    private HorarioAtencion crearHorario(HorarioAtencionDTO dto, Medico medico) {
+    private static HorarioAtencion crearHorario(HorarioAtencionDTO dto, Medico medico) {
         HorarioAtencion horario = new HorarioAtencion();
         horario.setDiaSemana(dto.getDiaSemana());
         horario.setHoraInicio(dto.getHoraInicio());
         horario.setHoraFin(dto.getHoraFin());
-        horario.setActivo(dto.getActivo() != null ? dto.getActivo() : true);
+        horario.setActivo(activo(dto));
         horario.setMedico(medico);
         return horario;
     }
@@ -303,12 +528,17 @@ public class MedicoService {
         return response;
     }
 
+    // Las referencias sin cargar (obtenerEspecialidades) toman el nombre del catálogo:
+    // getNombre() las inicializaría con una consulta por especialidad
     private Set<EspecialidadDTO> convertirEspecialidades(Set<Especialidad> especialidades) {
         return especialidades.stream()
                 .map(e -> {
                     EspecialidadDTO dto = new EspecialidadDTO();
                     dto.setId(e.getId());
-                    dto.setNombre(e.getNombre());
+                    dto.setNombre(Hibernate.isInitialized(e) ? e.getNombre()
+                            : especialidadService.catalogo().porId(e.getId())
+                                    .map(EspecialidadResponse::getNombre)
+                                    .orElseGet(e::getNombre));
                     return dto;
                 })
                 .collect(Collectors.toSet());
@@ -0,0 +1,334 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.paciente.BusquedaPacientesResponse;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.dto.paciente.PacienteSugerencia;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.repository.PacienteRepository;
+import com.SGH.hospital.util.IndicePrefijos;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Búsqueda rápida de pacientes para mostrador (typeahead) por nombre, apellido,
+ * DNI y número de afiliado.
+ *
+ * El DNI está cifrado en la base (solo tiene índice ciego para igualdad), así que
+ * ni un LIKE ni pg_trgm pueden buscar por parte del DNI. Se mantiene en memoria un
+ * índice por prefijo (IndicePrefijos) de las palabras de nombre y apellido, sin
+ * tildes ni mayúsculas, y de DNI y afiliado compactados (solo letras y dígitos):
+ *  - se carga completo al arrancar y se refresca cada busqueda.pacientes.refresco
+ *    con los pacientes modificados (altas masivas, cambios hechos en otra instancia)
+ *  - las altas y cambios de PacienteService se aplican al confirmar la transacción
+ *
+ * Cada término de la consulta debe coincidir como prefijo con algún campo; los
+ * resultados se ordenan por puntaje (DNI o afiliado exactos primero, después
+ * apellido y nombre). La búsqueda corta al agotar busqueda.pacientes.presupuesto y
+ * marca la respuesta como parcial.
+ *
+ * Caché por consulta: las coincidencias completas de "gonz" sirven de candidatos para
+ * "gonza", "gonzal"... (cada tecla solo filtra la lista anterior). Se vacía con cada
+ * cambio del índice.
+ */
+@Service
+public class PacienteBusquedaService {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteBusquedaService.class);
+
+    // Consultas más cortas traen media base: no se buscan
+    static final int LONGITUD_MINIMA = 2;
+    private static final int LOTE_CARGA = 5_000;
+    // Solapamiento del refresco: cubre transacciones que confirmaron después de leer la marca
+    private static final Duration SOLAPAMIENTO = Duration.ofMinutes(1);
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Comparator<Coincidencia> ORDEN = Comparator
+            .comparingInt(Coincidencia::puntaje).reversed()
+            .thenComparing(c -> c.entrada().apellidoNormalizado())
+            .thenComparing(c -> c.entrada().nombreNormalizado())
+            .thenComparingLong(c -> c.entrada().id());
+
+    private final PacienteRepository pacienteRepository;
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+    private final IndicePrefijos palabras = new IndicePrefijos();
+    private final IndicePrefijos numeros = new IndicePrefijos();
+    private final Cache<String, Coincidencias> consultas;
+    private final long presupuestoNanos;
+    private final int maxCandidatos;
+
+    // Cambia con cada indexar: un cálculo que se cruzó con un cambio no entra a la caché
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean cargado;
+    private LocalDateTime marcaRefresco;
+
+    public PacienteBusquedaService(PacienteRepository pacienteRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${busqueda.pacientes.presupuesto:PT0.05S}") Duration presupuesto,
+                                   @Value("${busqueda.pacientes.max-candidatos:5000}") int maxCandidatos,
+                                   @Value("${busqueda.pacientes.cache-max-size:10000}") long cacheMaxSize,
+                                   @Value("${busqueda.pacientes.cache-ttl:PT30S}") Duration cacheTtl) {
+        this.pacienteRepository = pacienteRepository;
+        this.presupuestoNanos = presupuesto.toNanos();
+        this.maxCandidatos = maxCandidatos;
+        this.consultas = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, consultas, "busqueda.pacientes");
+    }
+
+    /**
+     * Hasta limite pacientes que coinciden con la consulta, mejores primero
+     */
+    public BusquedaPacientesResponse buscar(String consulta, int limite) {
+        long limiteTiempo = System.nanoTime() + presupuestoNanos;
+        List<String> terminos = terminos(IndicePrefijos.normalizar(consulta));
+        String clave = String.join(" ", terminos);
+        if (clave.length() < LONGITUD_MINIMA) {
+            return new BusquedaPacientesResponse(List.of(), false);
+        }
+
+        Coincidencias coincidencias = consultas.getIfPresent(clave);
+        if (coincidencias == null) {
+            long versionInicial = version.get();
+            coincidencias = calcular(clave, terminos, limiteTiempo);
+            if (coincidencias.completo() && version.get() == versionInicial) {
+                consultas.put(clave, coincidencias);
+            }
+        }
+
+        List<PacienteSugerencia> resultados = new ArrayList<>(Math.min(limite, coincidencias.ids().size()));
+        for (int i = 0; i < coincidencias.ids().size() && resultados.size() < limite; i++) {
+            Entrada entrada = entradas.get(coincidencias.ids().get(i));
+            if (entrada != null) {
+                resultados.add(entrada.sugerencia(coincidencias.puntajes()[i]));
+            }
+        }
+        return new BusquedaPacientesResponse(resultados, !coincidencias.completo());
+    }
+
+    private Coincidencias calcular(String clave, List<String> terminos, long limiteTiempo) {
+        // Candidatos: las coincidencias completas del prefijo más largo ya consultado, o el índice
+        Collection<Long> candidatos = null;
+        boolean truncado = false;
+        for (int fin = clave.length() - 1; fin >= LONGITUD_MINIMA && candidatos == null; fin--) {
+            Coincidencias previas = consultas.getIfPresent(clave.substring(0, fin).trim());
+            if (previas != null) {
+                candidatos = previas.ids();
+            }
+        }
+        if (candidatos == null) {
+            // El término más largo suele ser el más selectivo
+            String guia = terminos.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+            String palabraGuia = palabras(guia).stream()
+                    .max(Comparator.comparingInt(String::length)).orElse("");
+            Set<Long> ids = palabras.buscar(palabraGuia, maxCandidatos);
+            ids.addAll(numeros.buscar(IndicePrefijos.compactar(guia), maxCandidatos));
+            truncado = ids.size() > maxCandidatos;
+            candidatos = ids;
+        }
+
+        List<Coincidencia> encontradas = new ArrayList<>();
+        int revisados = 0;
+        for (Long id : candidatos) {
+            // El reloj se consulta cada 128 candidatos
+            if ((++revisados & 127) == 0 && System.nanoTime() > limiteTiempo) {
+                truncado = true;
+                break;
+            }
+            Entrada entrada = entradas.get(id);
+            if (entrada != null) {
+                int puntaje = entrada.puntaje(terminos);
+                if (puntaje > 0) {
+                    encontradas.add(new Coincidencia(entrada, puntaje));
+                }
+            }
+        }
+        encontradas.sort(ORDEN);
+
+        List<Long> ids = new ArrayList<>(encontradas.size());
+        int[] puntajes = new int[encontradas.size()];
+        for (int i = 0; i < encontradas.size(); i++) {
+            ids.add(encontradas.get(i).entrada().id());
+            puntajes[i] = encontradas.get(i).puntaje();
+        }
+        return new Coincidencias(List.copyOf(ids), puntajes, !truncado);
+    }
+
+    // ==================== Sincronización del índice ====================
+
+    /**
+     * Aplica el alta o cambio del paciente al índice. Dentro de una transacción se
+     * aplica después del commit, para no indexar un cambio que termine en rollback.
+     */
+    public void actualizar(PacienteResponse paciente) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexar(List.of(paciente));
+                }
+            });
+        } else {
+            indexar(List.of(paciente));
+        }
+    }
+
+    /**
+     * Carga completa la primera vez; después, solo los pacientes modificados desde el
+     * último refresco (con un minuto de solapamiento).
+     */
+    @Scheduled(fixedDelayString = "${busqueda.pacientes.refresco:PT30S}")
+    public synchronized void refrescar() {
+        LocalDateTime inicio = LocalDateTime.now();
+        if (!cargado) {
+            long desdeId = 0;
+            List<PacienteResponse> lote;
+            do {
+                lote = pacienteRepository.findResponsesDesdeId(desdeId, Limit.of(LOTE_CARGA));
+                indexar(lote);
+                if (!lote.isEmpty()) {
+                    desdeId = lote.get(lote.size() - 1).getId();
+                }
+            } while (lote.size() == LOTE_CARGA);
+            cargado = true;
+            log.info("Índice de búsqueda de pacientes cargado: {} pacientes, {} palabras",
+                    entradas.size(), palabras.claves());
+        } else {
+            indexar(pacienteRepository.findResponsesModificadosDesde(marcaRefresco));
+        }
+        marcaRefresco = inicio.minus(SOLAPAMIENTO);
+    }
+
+    private synchronized void indexar(List<PacienteResponse> pacientes) {
+        boolean cambios = false;
+        for (PacienteResponse paciente : pacientes) {
+            Entrada nueva = Entrada.de(paciente);
+            Entrada anterior = entradas.put(nueva.id(), nueva);
+            if (nueva.equals(anterior)) {
+                continue;
+            }
+            if (anterior != null) {
+                anterior.palabras().forEach(p -> palabras.quitar(p, anterior.id()));
+                anterior.numeros().forEach(n -> numeros.quitar(n, anterior.id()));
+            }
+            nueva.palabras().forEach(p -> palabras.agregar(p, nueva.id()));
+            nueva.numeros().forEach(n -> numeros.agregar(n, nueva.id()));
+            cambios = true;
+        }
+        if (cambios) {
+            version.incrementAndGet();
+            consultas.invalidateAll();
+        }
+    }
+
+    private static List<String> terminos(String texto) {
+        return Arrays.stream(texto.trim().split("\\s+")).filter(t -> !t.isEmpty()).toList();
+    }
+
+    // Palabras de un texto ya normalizado: "garcia-lopez" → [garcia, lopez]
+    private static List<String> palabras(String texto) {
+        return Arrays.stream(SEPARADORES.split(texto)).filter(t -> !t.isEmpty()).toList();
+    }
+
+    // ==================== Tipos internos ====================
+
+    private record Coincidencia(Entrada entrada, int puntaje) {
+    }
+
+    // Ids ordenados con su puntaje; completo = no se cortó por tiempo ni por candidatos
+    private record Coincidencias(List<Long> ids, int[] puntajes, boolean completo) {
+    }
+
+    private record Entrada(long id, String nombre, String apellido, String dni, String numeroAfiliado,
+                           EstadoUsuario estado, String nombreNormalizado, String apellidoNormalizado,
+                           List<String> palabrasNombre, List<String> palabrasApellido,
+                           String dniCompacto, String afiliadoCompacto) {
+
+        static Entrada de(PacienteResponse p) {
+            String nombre = IndicePrefijos.normalizar(p.getNombre());
+            String apellido = IndicePrefijos.normalizar(p.getApellido());
+            return new Entrada(p.getId(), p.getNombre(), p.getApellido(), p.getDni(), p.getNumeroAfiliado(),
+                    p.getEstado(), nombre, apellido, PacienteBusquedaService.palabras(nombre),
+                    PacienteBusquedaService.palabras(apellido),
+                    IndicePrefijos.compactar(p.getDni()), IndicePrefijos.compactar(p.getNumeroAfiliado()));
+        }
+
+        List<String> palabras() {
+            List<String> todas = new ArrayList<>(palabrasNombre);
+            todas.addAll(palabrasApellido);
+            return todas;
+        }
+
+        List<String> numeros() {
+            return List.of(dniCompacto, afiliadoCompacto);
+        }
+
+        // Suma del mejor puntaje de cada término; 0 si algún término no coincide
+        int puntaje(List<String> terminos) {
+            int total = 0;
+            for (String termino : terminos) {
+                int mejor = puntajeTermino(termino);
+                if (mejor == 0) {
+                    return 0;
+                }
+                total += mejor;
+            }
+            return total;
+        }
+
+        // Como número (DNI o afiliado, sin puntos ni guiones) o como palabras del nombre:
+        // "garcia-l" coincide si "garcia" y "l" son prefijos de palabras del paciente
+        private int puntajeTermino(String termino) {
+            String compacto = IndicePrefijos.compactar(termino);
+            int mejor = Math.max(prefijo(dniCompacto, compacto, 100, 80),
+                    prefijo(afiliadoCompacto, compacto, 90, 70));
+            int comoNombre = Integer.MAX_VALUE;
+            for (String parte : PacienteBusquedaService.palabras(termino)) {
+                int parcial = 0;
+                for (String palabra : palabrasApellido) {
+                    parcial = Math.max(parcial, prefijo(palabra, parte, 60, 50));
+                }
+                for (String palabra : palabrasNombre) {
+                    parcial = Math.max(parcial, prefijo(palabra, parte, 45, 35));
+                }
+                comoNombre = Math.min(comoNombre, parcial);
+            }
+            return comoNombre == Integer.MAX_VALUE ? mejor : Math.max(mejor, comoNombre);
+        }
+
+        private static int prefijo(String valor, String termino, int exacto, int inicio) {
+            if (termino.isEmpty() || !valor.startsWith(termino)) {
+                return 0;
+            }
+            return valor.length() == termino.length() ? exacto : inicio;
+        }
+
+        PacienteSugerencia sugerencia(int puntaje) {
+            return new PacienteSugerencia(id, nombre, apellido, dni, numeroAfiliado, estado, puntaje);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.config.PiiCipher;
+import com.SGH.hospital.dto.importacion.ImportacionResponse;
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.repository.PacienteBulkRepository;
+import com.SGH.hospital.repository.PacienteBulkRepository.NuevoPaciente;
+import com.SGH.hospital.repository.PacienteRepository;
+import com.SGH.hospital.repository.UsuarioRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Importación masiva de pacientes desde NDJSON o CSV.
+ *
+ * El archivo se lee en streaming y se procesa por lotes de chunk-size filas, así que
+ * la memoria no depende del tamaño del archivo. Por cada lote:
+ *  1. se valida cada fila con las mismas restricciones que PacienteRequest
+ *  2. se descartan DNI/email repetidos dentro del lote y, con una consulta por
+ *     columna, los que ya existen en la base
+ *  3. se hashean las contraseñas en paralelo
+ *  4. se insertan las filas válidas en una transacción propia (COPY en PostgreSQL); si
+ *     el lote falla se reintenta fila por fila para rechazar solo las que violan una
+ *     restricción
+ *
+ * Una fila inválida no frena la importación: queda en el reporte con su motivo.
+ * Los lotes ya confirmados no se deshacen si uno posterior falla.
+ */
+@Slf4j
+@Service
+public class PacienteImportService {
+
+    private final PacienteRepository pacienteRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final PacienteBulkRepository pacienteBulkRepository;
+    private final PacienteBusquedaService pacienteBusquedaService;
+    private final ImportPasswordHasher passwordHasher;
+    private final PiiCipher piiCipher;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxErrores;
+
+    public PacienteImportService(PacienteRepository pacienteRepository,
+                                 UsuarioRepository usuarioRepository,
+                                 PacienteBulkRepository pacienteBulkRepository,
+                                 PacienteBusquedaService pacienteBusquedaService,
+                                 ImportPasswordHasher passwordHasher,
+                                 PiiCipher piiCipher,
+                                 Validator validator,
+                                 JsonMapper jsonMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${import.chunk-size:1000}") int chunkSize,
+                                 @Value("${import.max-errores:1000}") int maxErrores) {
+        this.pacienteRepository = pacienteRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.pacienteBulkRepository = pacienteBulkRepository;
+        this.pacienteBusquedaService = pacienteBusquedaService;
+        this.passwordHasher = passwordHasher;
+        this.piiCipher = piiCipher;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrores = maxErrores;
+    }
+
+    /**
+     * Importa los pacientes del archivo y devuelve el reporte de la importación.
+     */
+    public ImportacionResponse importar(InputStream archivo, MediaType contentType) {
+        ImportReader.Formato formato = ImportReader.formato(contentType);
+        ImportReporte reporte = new ImportReporte(maxErrores);
+
+        try (ImportReader<PacienteRequest> reader =
+                     new ImportReader<>(archivo, formato, jsonMapper, PacienteRequest.class)) {
+            reader.porLotes(chunkSize, lote -> procesarLote(lote, reporte));
+        } catch (IOException | UncheckedIOException e) {
+            // Se corta la lectura: los lotes ya confirmados quedan, el reporte indica hasta dónde llegó
+            log.warn("Importación de pacientes interrumpida tras {} filas", reporte.total, e);
+            reporte.error(reporte.total + 1, null, "Lectura interrumpida: " + e.getMessage());
+        }
+
+        // Las filas van por JDBC, sin pasar por PacienteService: se indexan para la búsqueda rápida ahora
+        if (reporte.importadas > 0) {
+            pacienteBusquedaService.refrescar();
+        }
+
+        ImportacionResponse response = reporte.toResponse();
+        log.info("Importación de pacientes: {} filas, {} importadas, {} rechazadas en {} ms",
+                response.getTotalFilas(), response.getImportadas(), response.getRechazadas(), response.getDuracionMs());
+        return response;
+    }
+
+    private void procesarLote(List<ImportReader.Fila<PacienteRequest>> lote, ImportReporte reporte) {
+        reporte.total += lote.size();
+
+        // 1. Formato y validación, 2a. repetidos dentro del lote
+        List<Candidato> candidatos = new ArrayList<>(lote.size());
+        Set<String> dnisDelLote = new HashSet<>();
+        Set<String> emailsDelLote = new HashSet<>();
+        for (ImportReader.Fila<PacienteRequest> fila : lote) {
+            if (fila.error() != null) {
+                reporte.rechazar(fila.numero(), null, fila.error());
+                continue;
+            }
+            Set<ConstraintViolation<PacienteRequest>> violaciones = validator.validate(fila.valor());
+            if (!violaciones.isEmpty()) {
+                reporte.rechazar(fila.numero(), violaciones);
+                continue;
+            }
+            Candidato candidato = new Candidato(fila.numero(), fila.valor(),
+                    piiCipher.blindIndexDni(fila.valor().getDni()),
+                    piiCipher.blindIndexEmail(fila.valor().getEmail()));
+            if (!dnisDelLote.add(candidato.dniHash)) {
+                reporte.rechazar(fila.numero(), "dni", "DNI repetido en el archivo");
+            } else if (!emailsDelLote.add(candidato.emailHash)) {
+                dnisDelLote.remove(candidato.dniHash);
+                reporte.rechazar(fila.numero(), "email", "Email repetido en el archivo");
+            } else {
+                candidatos.add(candidato);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return;
+        }
+
+        // 2b. Existentes en la base: una consulta por columna para todo el lote
+        Set<String> dnisExistentes = pacienteRepository.findDniHashesExistentes(dnisDelLote);
+        Set<String> emailsExistentes = usuarioRepository.findEmailHashesExistentes(emailsDelLote);
+        candidatos.removeIf(c -> {
+            if (dnisExistentes.contains(c.dniHash)) {
+                reporte.rechazar(c.fila, "dni", "Ya existe un paciente con ese DNI");
+                return true;
+            }
+            if (emailsExistentes.contains(c.emailHash)) {
+                reporte.rechazar(c.fila, "email", "Ya existe un usuario con ese email");
+                return true;
+            }
+            return false;
+        });
+
+        // 3. Contraseñas en paralelo (solo de las filas que se van a insertar)
+        List<CompletableFuture<String>> hashes = candidatos.stream()
+                .map(c -> passwordHasher.hashear(c.datos.getPassword()))
+                .toList();
+        List<Candidato> listos = new ArrayList<>(candidatos.size());
+        List<NuevoPaciente> nuevos = new ArrayList<>(candidatos.size());
+        for (int i = 0; i < candidatos.size(); i++) {
+            Candidato c = candidatos.get(i);
+            try {
+                nuevos.add(new NuevoPaciente(c.datos, hashes.get(i).join(), c.dniHash, c.emailHash));
+                listos.add(c);
+            } catch (CompletionException e) {
+                reporte.rechazar(c.fila, "password", ImportPasswordHasher.motivo(e));
+            }
+        }
+
+        // 4. Inserción del lote en su propia transacción; si falla, fila por fila
+        try {
+            Integer insertadas = transactionTemplate.execute(status -> pacienteBulkRepository.insertar(nuevos));
+            reporte.importadas += insertadas != null ? insertadas : 0;
+        } catch (DataAccessException e) {
+            // Típicamente un alta concurrente con el mismo email
+            log.warn("Falló el lote de {} pacientes, se reintenta de a uno: {}", nuevos.size(), e.getMessage());
+            reintentarDeAUno(listos, nuevos, reporte);
+        }
+    }
+
+    // Los ids se reservan una vez para todo el reintento: cada fila va en su propia transacción
+    private void reintentarDeAUno(List<Candidato> listos, List<NuevoPaciente> nuevos, ImportReporte reporte) {
+        List<Long> ids;
+        try {
+            ids = pacienteBulkRepository.reservarIds(nuevos.size());
+        } catch (DataAccessException e) {
+            listos.forEach(c -> reporte.rechazar(c.fila, null, "No se pudo guardar el registro"));
+            return;
+        }
+        for (int i = 0; i < nuevos.size(); i++) {
+            List<NuevoPaciente> fila = List.of(nuevos.get(i));
+            List<Long> id = List.of(ids.get(i));
+            try {
+                transactionTemplate.executeWithoutResult(status -> pacienteBulkRepository.insertarConIds(fila, id));
+                reporte.importadas++;
+            } catch (DataAccessException e) {
+                rechazarPorError(listos.get(i).fila, e, reporte);
+            }
+        }
+    }
+
+    private static void rechazarPorError(long fila, DataAccessException e, ImportReporte reporte) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            reporte.rechazar(fila, null, "No se pudo guardar el registro");
+            return;
+        }
+        // La primera línea del error de la base nombra la restricción o la columna
+        String causa = Objects.requireNonNullElse(e.getMostSpecificCause().getMessage(), "")
+                .lines().findFirst().orElse("");
+        if (causa.toLowerCase(Locale.ROOT).contains("email_hash")) {
+            reporte.rechazar(fila, "email", "Ya existe un usuario con ese email");
+        } else {
+            reporte.rechazar(fila, null, "El registro viola una restricción de la base: " + causa);
+        }
+    }
+
+    private record Candidato(long fila, PacienteRequest datos, String dniHash, String emailHash) {
+    }
+}
@@ -1,8 +1,13 @@
 package com.SGH.hospital.service;
 
+import com.SGH.hospital.config.PiiCipher;
+import com.SGH.hospital.dto.paciente.BusquedaPacientesResponse;
 import com.SGH.hospital.dto.paciente.PacienteRequest;
 import com.SGH.hospital.dto.paciente.PacienteResponse;
 import com.SGH.hospital.dto.paciente.PacienteUpdateRequest;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.dto.paginacion.PaginaCursor;
+import com.SGH.hospital.dto.paginacion.PaginaResponse;
 import com.SGH.hospital.entity.Paciente;
 import com.SGH.hospital.enums.EstadoUsuario;
 import com.SGH.hospital.enums.Rol;
@@ -13,10 +18,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 /**
@@ -27,12 +34,30 @@ import java.util.Optional;
 @RequiredArgsConstructor // inyecta dependencias finales por constructor
 public class PacienteService {
 
+    // Máximo de resultados de la búsqueda rápida
+    private static final int LIMITE_BUSQUEDA_RAPIDA = 50;
+
     // Acceso a la base de datos de pacientes
     private final PacienteRepository pacienteRepository;
 
     // Se usa para encriptar la contraseña
     private final PasswordEncoder passwordEncoder;
 
+    // Estado de cuenta cacheado que usa el filtro JWT
+    private final UserStatusCache userStatusCache;
+
+    // DNI y email se guardan cifrados: las búsquedas usan su índice ciego
+    private final PiiCipher piiCipher;
+
+    // Vencimiento de suspensiones temporales
+    private final SuspensionScheduler suspensionScheduler;
+
+    // Totales de los listados sin COUNT en cada request
+    private final ConteoService conteoService;
+
+    // Índice de la búsqueda rápida: se actualiza con cada alta o cambio
+    private final PacienteBusquedaService pacienteBusquedaService;
+
     /**
      * Crea un nuevo paciente
      */
@@ -41,12 +66,12 @@ public class PacienteService {
         log.info("Creando paciente con DNI: {}", request.getDni());
 
         // Verifica que no exista otro paciente con el mismo DNI
-        if (pacienteRepository.existsByDni(request.getDni())) {
+        if (pacienteRepository.existsByDniHash(piiCipher.blindIndexDni(request.getDni()))) {
             throw new DuplicateResourceException("Paciente", "DNI", request.getDni());
         }
 
         // Verifica que no exista otro paciente con el mismo email
-        if (pacienteRepository.existsByEmail(request.getEmail())) {
+        if (pacienteRepository.existsByEmailHash(piiCipher.blindIndexEmail(request.getEmail()))) {
             throw new DuplicateResourceException("Paciente", "email", request.getEmail());
         }
 
@@ -79,7 +104,9 @@ public class PacienteService {
         log.info("Paciente creado exitosamente con ID: {}", savedPaciente.getId());
 
         // Se devuelve el paciente convertido a DTO de respuesta
-        return PacienteResponse.fromEntity(savedPaciente);
+        PacienteResponse response = PacienteResponse.fromEntity(savedPaciente);
+        pacienteBusquedaService.actualizar(response);
+        return response;
     }
 
     /**
@@ -90,10 +117,8 @@ public class PacienteService {
         log.info("Obteniendo paciente con ID: {}", id);
 
         // Busca el paciente o lanza excepción si no existe
-        Paciente paciente = pacienteRepository.findById(id)
+        return pacienteRepository.findResponseById(id)
                 .orElseThrow(() -> new PacienteNotFoundException(id));
-
-        return PacienteResponse.fromEntity(paciente);
     }
 
     /**
@@ -103,10 +128,8 @@ public class PacienteService {
     public PacienteResponse obtenerPorDni(String dni) {
         log.info("Obteniendo paciente con DNI: {}", dni);
 
-        Paciente paciente = pacienteRepository.findByDni(dni)
+        return pacienteRepository.findResponseByDniHash(piiCipher.blindIndexDni(dni))
                 .orElseThrow(() -> new PacienteNotFoundException("DNI", dni));
-
-        return PacienteResponse.fromEntity(paciente);
     }
 
     /**
@@ -116,26 +139,46 @@ public class PacienteService {
     public PacienteResponse obtenerPorEmail(String email) {
         log.info("Obteniendo paciente con email: {}", email);
 
-        Paciente paciente = pacienteRepository.findByEmail(email)
+        return pacienteRepository.findResponseByEmailHash(piiCipher.blindIndexEmail(email))
                 .orElseThrow(() -> new PacienteNotFoundException("email", email));
-
-        return PacienteResponse.fromEntity(paciente);
     }
 
     /**
-     * Lista todos los pacientes con paginación
+     * Lista todos los pacientes con paginación.
+     * El total es EXACTO solo si se pide conteoExacto; si no, sale de la caché de
+     * conteos o de la estimación de PostgreSQL (ver ConteoService)
      */
     @Transactional(readOnly = true)
-    public Page<PacienteResponse> listarTodos(Pageable pageable) {
+    public PaginaResponse<PacienteResponse> listarTodos(Pageable pageable, boolean conteoExacto) {
         log.info(
             "Listando pacientes - página: {}, tamaño: {}",
             pageable.getPageNumber(),
             pageable.getPageSize()
         );
 
-        // Convierte cada entidad Paciente a PacienteResponse
-        return pacienteRepository.findAll(pageable)
-                .map(PacienteResponse::fromEntity);
+        // Proyección directa a PacienteResponse, sin entidades ni COUNT
+        return conteoService.paginaDeTabla(pacienteRepository.findAllResponses(pageable),
+                "paciente", conteoExacto, pacienteRepository::count);
+    }
+
+    /**
+     * Lista pacientes por cursor: continúa desde la posición del cursor, sin OFFSET ni COUNT
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<PacienteResponse> listarPorCursor(Cursor cursor, int size) {
+        int tamanio = Math.max(1, Math.min(size, Cursor.TAMANIO_MAXIMO));
+        Slice<PacienteResponse> slice = pacienteRepository.findResponsesDesde(cursor, tamanio);
+
+        Cursor siguiente = null;
+        if (slice.hasNext()) {
+            PacienteResponse ultimo = slice.getContent().get(slice.getNumberOfElements() - 1);
+            siguiente = cursor.siguiente(switch (cursor.orden()) {
+                case CREATED_AT -> ultimo.getCreatedAt();
+                case APELLIDO -> ultimo.getApellido();
+                case ID -> ultimo.getId();
+            }, ultimo.getId());
+        }
+        return PaginaCursor.de(slice.getContent(), siguiente);
     }
 
     /**
@@ -145,8 +188,7 @@ public class PacienteService {
     public Page<PacienteResponse> listarActivos(Pageable pageable) {
         log.info("Listando pacientes activos");
 
-        return pacienteRepository.findAllActivos(pageable)
-                .map(PacienteResponse::fromEntity);
+        return pacienteRepository.findResponsesByEstado(EstadoUsuario.ACTIVO, pageable);
     }
 
     /**
@@ -156,8 +198,7 @@ public class PacienteService {
     public Page<PacienteResponse> listarPorEstado(EstadoUsuario estado, Pageable pageable) {
         log.info("Listando pacientes con estado: {}", estado);
 
-        return pacienteRepository.findByEstado(estado, pageable)
-                .map(PacienteResponse::fromEntity);
+        return pacienteRepository.findResponsesByEstado(estado, pageable);
     }
 
     /**
@@ -167,8 +208,14 @@ public class PacienteService {
     public Page<PacienteResponse> buscarPorNombreOApellido(String searchTerm, Pageable pageable) {
         log.info("Buscando pacientes con término: {}", searchTerm);
 
-        return pacienteRepository.searchByNombreOrApellido(searchTerm, pageable)
-                .map(PacienteResponse::fromEntity);
+        return pacienteRepository.searchResponsesByNombreOrApellido(searchTerm, pageable);
+    }
+
+    /**
+     * Búsqueda rápida (typeahead) por nombre, apellido, DNI o número de afiliado
+     */
+    public BusquedaPacientesResponse buscarRapido(String consulta, int limite) {
+        return pacienteBusquedaService.buscar(consulta, Math.max(1, Math.min(limite, LIMITE_BUSQUEDA_RAPIDA)));
     }
 
     /**
@@ -184,7 +231,7 @@ public class PacienteService {
 
         // Si cambia el email, se valida que no esté en uso
         if (request.getEmail() != null && !request.getEmail().equals(paciente.getEmail())) {
-            if (pacienteRepository.existsByEmailAndIdNot(request.getEmail(), id)) {
+            if (pacienteRepository.existsByEmailHashAndIdNot(piiCipher.blindIndexEmail(request.getEmail()), id)) {
                 throw new DuplicateResourceException("Paciente", "email", request.getEmail());
             }
             paciente.setEmail(request.getEmail());
@@ -204,7 +251,9 @@ public class PacienteService {
 
         log.info("Paciente actualizado exitosamente con ID: {}", id);
 
-        return PacienteResponse.fromEntity(updatedPaciente);
+        PacienteResponse response = PacienteResponse.fromEntity(updatedPaciente);
+        pacienteBusquedaService.actualizar(response);
+        return response;
     }
 
     /**
@@ -212,16 +261,34 @@ public class PacienteService {
      */
     @Transactional
     public PacienteResponse cambiarEstado(Long id, EstadoUsuario nuevoEstado) {
+        return cambiarEstado(id, nuevoEstado, null);
+    }
+
+    /**
+     * Cambia el estado de un paciente; con SUSPENDIDO y una fecha de fin la
+     * suspensión se levanta sola al vencer
+     */
+    @Transactional
+    public PacienteResponse cambiarEstado(Long id, EstadoUsuario nuevoEstado, Instant suspendidoHasta) {
         log.info("Cambiando estado del paciente {} a {}", id, nuevoEstado);
 
+        Instant hasta = SuspensionScheduler.validarVencimiento(nuevoEstado, suspendidoHasta);
+
         Paciente paciente = pacienteRepository.findById(id)
                 .orElseThrow(() -> new PacienteNotFoundException(id));
 
         paciente.setEstado(nuevoEstado);
+        paciente.setSuspendidoHasta(hasta);
 
         Paciente updatedPaciente = pacienteRepository.save(paciente);
 
-        return PacienteResponse.fromEntity(updatedPaciente);
+        // El nuevo estado debe verse en el próximo request del usuario
+        userStatusCache.invalidate(id);
+        suspensionScheduler.reprogramar(id, hasta);
+
+        PacienteResponse response = PacienteResponse.fromEntity(updatedPaciente);
+        pacienteBusquedaService.actualizar(response);
+        return response;
     }
 
     /**
@@ -0,0 +1,148 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.exception.BadRequestException;
+import com.SGH.hospital.repository.SuspensionPendiente;
+import com.SGH.hospital.repository.UsuarioRepository;
+import com.SGH.hospital.util.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Vencimiento de suspensiones temporales (estado SUSPENDIDO con suspendidoHasta).
+ *
+ * En lugar de consultar periódicamente la tabla usuario, cada suspensión se programa
+ * en una rueda de tiempo jerárquica en memoria (insertar y cancelar O(1)) que se
+ * reconstruye desde la base al arrancar. En cada tick las suspensiones vencidas se
+ * pasan a ACTIVO con UPDATEs por lotes y se invalida su estado cacheado.
+ *
+ * El UPDATE solo afecta filas que siguen SUSPENDIDO y vencidas, así que una entrada
+ * desactualizada en la rueda (rollback, cambio manual, otra instancia) no hace daño.
+ */
+@Service
+public class SuspensionScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SuspensionScheduler.class);
+
+    private final UsuarioRepository usuarioRepository;
+    private final UserStatusCache userStatusCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final TimingWheel<Long> rueda;
+    private final Counter levantadas;
+
+    public SuspensionScheduler(UsuarioRepository usuarioRepository,
+                               UserStatusCache userStatusCache,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.suspension.tick:PT1S}") Duration tick,
+                               @Value("${auth.suspension.batch-size:500}") int batchSize,
+                               @Value("${auth.suspension.retry-delay:PT30S}") Duration retryDelay) {
+        this.usuarioRepository = usuarioRepository;
+        this.userStatusCache = userStatusCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.rueda = new TimingWheel<>(tick.toMillis(), System.currentTimeMillis());
+
+        Gauge.builder("auth.suspension.pending", rueda, TimingWheel::size)
+                .description("Suspensiones temporales programadas")
+                .register(meterRegistry);
+        this.levantadas = Counter.builder("auth.suspension.expired")
+                .description("Suspensiones levantadas por vencimiento")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Valida el vencimiento pedido para un cambio de estado y lo devuelve
+     * (null si el nuevo estado no es una suspensión temporal).
+     */
+    public static Instant validarVencimiento(EstadoUsuario nuevoEstado, Instant hasta) {
+        if (hasta == null) {
+            return null;
+        }
+        if (nuevoEstado != EstadoUsuario.SUSPENDIDO) {
+            throw new BadRequestException("Solo una suspensión puede tener fecha de vencimiento");
+        }
+        if (!hasta.isAfter(Instant.now())) {
+            throw new BadRequestException("La fecha de fin de la suspensión debe ser futura");
+        }
+        return hasta;
+    }
+
+    /**
+     * Programa el vencimiento del usuario, o lo cancela si hasta es null.
+     * Dentro de una transacción se aplica recién después del commit.
+     */
+    public void reprogramar(Long usuarioId, Instant hasta) {
+        Runnable cambio = hasta != null
+                ? () -> rueda.schedule(usuarioId, hasta.toEpochMilli())
+                : () -> rueda.cancel(usuarioId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargarPendientes() {
+        int cargadas = 0;
+        try (Stream<SuspensionPendiente> pendientes = usuarioRepository.streamSuspensionesPendientes()) {
+            for (SuspensionPendiente pendiente : (Iterable<SuspensionPendiente>) pendientes::iterator) {
+                // Lo programado por un request durante la carga es más nuevo que esta lectura
+                if (rueda.scheduleIfAbsent(pendiente.getId(), pendiente.getSuspendidoHasta().toEpochMilli())) {
+                    cargadas++;
+                }
+            }
+        }
+        log.info("Suspensiones temporales pendientes cargadas: {}", cargadas);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.suspension.tick:PT1S}")
+    public void procesarVencidas() {
+        Instant ahora = Instant.now();
+        List<Long> vencidas = rueda.advance(ahora.toEpochMilli());
+
+        for (int desde = 0; desde < vencidas.size(); desde += batchSize) {
+            List<Long> lote = vencidas.subList(desde, Math.min(desde + batchSize, vencidas.size()));
+            try {
+                Integer actualizadas = transactionTemplate.execute(
+                        status -> usuarioRepository.levantarSuspensionesVencidas(lote, ahora, LocalDateTime.now()));
+                lote.forEach(userStatusCache::invalidate);
+                levantadas.increment(actualizadas != null ? actualizadas : 0);
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron levantar {} suspensiones, se reintenta en {}", lote.size(), retryDelay, e);
+                long reintento = ahora.plus(retryDelay).toEpochMilli();
+                lote.forEach(id -> rueda.scheduleIfAbsent(id, reintento));
+            }
+        }
+    }
+}
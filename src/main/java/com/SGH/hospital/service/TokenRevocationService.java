@@ -0,0 +1,164 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.enums.TipoRevocacion;
+import com.SGH.hospital.repository.TokenRevocadoRepository;
+import com.SGH.hospital.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Registro de refresh tokens usados (rotados) y de sesiones revocadas.
+ *
+ * La fuente de verdad es la tabla tokens_revocados; en memoria se mantiene un
+ * filtro de Bloom con los mismos ids. Como el filtro no tiene falsos negativos,
+ * el caso común ("no revocado") se resuelve sin I/O y solo los positivos se
+ * confirman contra la base. Las filas vencidas se purgan y el filtro se
+ * reconstruye periódicamente, así la memoria no crece con los tokens emitidos.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final TokenRevocadoRepository tokenRevocadoRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long refreshExpiration;
+
+    // Se reemplaza completo al reconstruir; null hasta la primera carga
+    private volatile BloomFilter filtro;
+
+    // Ids revocados desde la última reconstrucción y la anterior. Cubren las
+    // transacciones que todavía no habían hecho commit cuando se leyó la tabla.
+    private volatile Set<String> recientes = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> previos = ConcurrentHashMap.newKeySet();
+
+    private final Counter descartadosEnMemoria;
+    private final Counter consultasBd;
+
+    public TokenRevocationService(TokenRevocadoRepository tokenRevocadoRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.revocation.expected-insertions:1000000}") long expectedInsertions,
+                                  @Value("${auth.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  @Value("${jwt.refresh-expiration}") long refreshExpiration) {
+        this.tokenRevocadoRepository = tokenRevocadoRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.refreshExpiration = refreshExpiration;
+        this.descartadosEnMemoria = Counter.builder("auth.revocation.checks")
+                .tag("result", "filter-negative")
+                .register(meterRegistry);
+        this.consultasBd = Counter.builder("auth.revocation.checks")
+                .tag("result", "db-lookup")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el token (su jti) o su sesión (familia) fueron revocados.
+     * Los tokens sin jti ni familia (emitidos antes de la rotación) nunca lo están.
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        return isRevoked(token.getTokenId()) || isRevoked(token.getFamily());
+    }
+
+    /**
+     * Marca el refresh token como usado. Devuelve false si ya lo estaba:
+     * alguien está reutilizando un token rotado.
+     */
+    @Transactional
+    public boolean retire(VerifiedToken token) {
+        // Un token rotado solo puede volver a presentarse hasta que expira
+        return revocar(token.getTokenId(), TipoRevocacion.TOKEN, token,
+                Instant.ofEpochMilli(token.getExpirationMillis()));
+    }
+
+    /**
+     * Revoca toda la sesión: ningún token de esa familia vuelve a aceptarse.
+     *
+     * El token presentado puede ser uno viejo (reuso de un token rotado), y la sesión
+     * tiene refresh tokens emitidos después que vencen más tarde. La revocación dura
+     * entonces lo que un refresh token emitido ahora, el último posible de la familia;
+     * si la familia ya estaba revocada se extiende, nunca se acorta.
+     */
+    @Transactional
+    public void revokeFamily(VerifiedToken token) {
+        if (token.getFamily() != null) {
+            Instant expiraEn = Instant.now().plusMillis(refreshExpiration);
+            if (!revocar(token.getFamily(), TipoRevocacion.FAMILIA, token, expiraEn)) {
+                tokenRevocadoRepository.extenderExpiracion(token.getFamily(), expiraEn);
+            }
+        }
+    }
+
+    private boolean isRevoked(String id) {
+        if (id == null) {
+            return false;
+        }
+        BloomFilter actual = filtro;
+        if (actual != null && !actual.mightContain(id)) {
+            descartadosEnMemoria.increment();
+            return false;
+        }
+        // Posible positivo (o filtro aún no cargado): se confirma en la base
+        consultasBd.increment();
+        return tokenRevocadoRepository.existsById(id);
+    }
+
+    private boolean revocar(String id, TipoRevocacion tipo, VerifiedToken token, Instant expiraEn) {
+        int insertadas = tokenRevocadoRepository.insertIfAbsent(
+                id, tipo.name(), token.getUserId(), expiraEn, Instant.now());
+
+        recientes.add(id);
+        BloomFilter actual = filtro;
+        if (actual != null) {
+            actual.put(id);
+        }
+        return insertadas > 0;
+    }
+
+    // Carga inicial del filtro con las revocaciones vigentes
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargarFiltro() {
+        reconstruir();
+    }
+
+    // Purga las revocaciones vencidas y reconstruye el filtro sin ellas
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval:PT1H}")
+    @Transactional
+    public void purgar() {
+        int eliminadas = tokenRevocadoRepository.deleteExpiradas(Instant.now());
+        reconstruir();
+        log.info("Revocaciones vencidas purgadas: {}", eliminadas);
+    }
+
+    private synchronized void reconstruir() {
+        previos = recientes;
+        recientes = ConcurrentHashMap.newKeySet();
+
+        BloomFilter nuevo = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        long cargados;
+        try (Stream<String> ids = tokenRevocadoRepository.streamIdsVigentes(Instant.now())) {
+            cargados = ids.peek(nuevo::put).count();
+        }
+        previos.forEach(nuevo::put);
+        filtro = nuevo;
+        // Lo revocado mientras se leía la tabla pudo ir solo al filtro anterior
+        recientes.forEach(nuevo::put);
+
+        log.info("Filtro de revocación cargado con {} ids ({} bytes)", cargados, nuevo.sizeInBytes());
+    }
+}
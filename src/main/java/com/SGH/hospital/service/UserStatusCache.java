@@ -0,0 +1,74 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caché en memoria del estado (ACTIVO / INACTIVO / SUSPENDIDO) de cada usuario.
+ *
+ * El filtro JWT la consulta en cada request en lugar de cargar el Usuario completo.
+ * Los servicios que cambian el estado deben llamar a invalidate(); el TTL acota
+ * la desactualización cuando el cambio ocurre en otra instancia.
+ */
+@Service
+public class UserStatusCache {
+
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<Long, EstadoUsuario> estados;
+
+    public UserStatusCache(UsuarioRepository usuarioRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${auth.status-cache.max-size:50000}") long maxSize,
+                           @Value("${auth.status-cache.ttl:PT5M}") Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.estados = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, estados, "auth.user-status");
+    }
+
+    /**
+     * Devuelve el estado del usuario; vacío si el usuario no existe.
+     * En un cache miss hace una única consulta por PK sobre la tabla usuario, siempre
+     * en el primario (ver UsuarioRepository.findEstadoById).
+     */
+    public Optional<EstadoUsuario> getEstado(Long userId) {
+        EstadoUsuario estado = estados.getIfPresent(userId);
+        if (estado == null) {
+            estado = usuarioRepository.findEstadoById(userId).orElse(null);
+            if (estado != null) {
+                estados.put(userId, estado);
+            }
+        }
+        return Optional.ofNullable(estado);
+    }
+
+    /**
+     * Descarta el estado cacheado. Si hay una transacción activa se invalida también
+     * después del commit, para que una lectura concurrente no deje cacheado el valor viejo.
+     */
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    estados.invalidate(userId);
+                }
+            });
+        }
+        estados.invalidate(userId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.auth.CredencialUsuario;
+import com.SGH.hospital.entity.Usuario;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuario autenticado que Spring Security guarda en el SecurityContext.
+ *
+ * A diferencia de org.springframework.security.core.userdetails.User expone el ID,
+ * así las expresiones como "#id == authentication.principal.id" funcionan.
+ * Puede construirse desde la entidad (login) o desde los claims del JWT (requests).
+ */
+public final class UsuarioPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final Rol rol;
+    private final EstadoUsuario estado;
+    private final int rolMask;
+    private final List<GrantedAuthority> authorities;
+
+    private UsuarioPrincipal(Long id, String email, String password, Rol rol, EstadoUsuario estado) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.rol = rol;
+        this.estado = estado;
+        this.rolMask = 1 << rol.ordinal();
+        // Prefijo ROLE_ obligatorio en Spring Security
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + rol.name()));
+    }
+
+    // Desde la base de datos (incluye el hash de la contraseña para el login)
+    public static UsuarioPrincipal fromUsuario(Usuario usuario) {
+        return new UsuarioPrincipal(
+                usuario.getId(), usuario.getEmail(), usuario.getPassword(), usuario.getRol(), usuario.getEstado());
+    }
+
+    // Desde la proyección de login
+    public static UsuarioPrincipal fromCredencial(CredencialUsuario credencial) {
+        return new UsuarioPrincipal(
+                credencial.getId(), credencial.getEmail(), credencial.getPassword(),
+                credencial.getRol(), credencial.getEstado());
+    }
+
+    // Mismo usuario con otro hash (tras re-hashear la contraseña)
+    public UsuarioPrincipal withPassword(String nuevoPassword) {
+        return new UsuarioPrincipal(id, email, nuevoPassword, rol, estado);
+    }
+
+    // Desde un JWT ya verificado: no hay contraseña
+    public static UsuarioPrincipal fromToken(VerifiedToken token, EstadoUsuario estado) {
+        return new UsuarioPrincipal(
+                token.getUserId(), token.getSubject(), null, Rol.valueOf(token.getRol()), estado);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Rol getRol() {
+        return rol;
+    }
+
+    // Bit del rol, para las reglas compiladas de @RolesPermitidos
+    public int getRolMask() {
+        return rolMask;
+    }
+
+    public EstadoUsuario getEstado() {
+        return estado;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    // La cuenta se bloquea si el estado NO es ACTIVO
+    @Override
+    public boolean isAccountNonLocked() {
+        return estado == EstadoUsuario.ACTIVO;
+    }
+
+    // El usuario se deshabilita si está INACTIVO
+    @Override
+    public boolean isEnabled() {
+        return estado != EstadoUsuario.INACTIVO;
+    }
+}
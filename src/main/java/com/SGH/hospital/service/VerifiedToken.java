@@ -0,0 +1,93 @@
+package com.SGH.hospital.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Resultado inmutable de verificar un JWT.
+ *
+ * Se construye una sola vez cuando la firma del token es válida y luego se
+ * reutiliza (filtro, servicios, caché) sin volver a parsear ni verificar.
+ */
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Long userId;
+    private final String rol;
+    private final String tokenId;
+    private final String family;
+    private final boolean refresh;
+    private final Date issuedAt;
+    private final Date expiration;
+
+    private VerifiedToken(String subject, Long userId, String rol, String tokenId, String family,
+                          boolean refresh, Date issuedAt, Date expiration) {
+        this.subject = subject;
+        this.userId = userId;
+        this.rol = rol;
+        this.tokenId = tokenId;
+        this.family = family;
+        this.refresh = refresh;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    // Copia solo los claims que la aplicación usa, así no se retiene el mapa completo
+    static VerifiedToken fromClaims(Claims claims) {
+        Number userId = claims.get("userId", Number.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                userId != null ? userId.longValue() : null,
+                claims.get("rol", String.class),
+                claims.getId(),
+                claims.get(JwtService.CLAIM_FAMILY, String.class),
+                JwtService.TYPE_REFRESH.equals(claims.get(JwtService.CLAIM_TYPE, String.class)),
+                claims.getIssuedAt(),
+                claims.getExpiration()
+        );
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getRol() {
+        return rol;
+    }
+
+    // jti: identificador único del token (solo refresh tokens)
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    // Sesión a la que pertenece el token; todos los tokens rotados comparten familia
+    public String getFamily() {
+        return family;
+    }
+
+    public boolean isRefresh() {
+        return refresh;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt != null ? new Date(issuedAt.getTime()) : null;
+    }
+
+    public Date getExpiration() {
+        return expiration != null ? new Date(expiration.getTime()) : null;
+    }
+
+    // Milisegundos epoch de expiración (Long.MAX_VALUE si el token no expira)
+    public long getExpirationMillis() {
+        return expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return getExpirationMillis() <= nowMillis;
+    }
+}
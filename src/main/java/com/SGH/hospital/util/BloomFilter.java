@@ -0,0 +1,104 @@
+package com.SGH.hospital.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente para Strings.
+ *
+ * mightContain() nunca da falsos negativos: si devuelve false el valor seguro no
+ * fue agregado. Puede dar falsos positivos con la probabilidad indicada al crearlo,
+ * por eso un "true" debe confirmarse contra la fuente real (la base de datos).
+ *
+ * Los bits viven en un AtomicLongArray: put() y mightContain() no usan locks.
+ */
+public final class BloomFilter {
+
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.bits = new AtomicLongArray((int) ((numBits + 63) >>> 6));
+    }
+
+    /**
+     * Dimensiona el filtro para una cantidad esperada de elementos y una tasa de
+     * falsos positivos (p. ej. 1_000_000 y 0.001 ocupan ~1.8 MB).
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions debe ser positivo");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate debe estar entre 0 y 1");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bits = Math.max(64, Math.min(bits, (long) Integer.MAX_VALUE * 64));
+        int hashes = (int) Math.max(1, Math.round((double) bits / expectedInsertions * ln2));
+        return new BloomFilter(bits, hashes);
+    }
+
+    public void put(String value) {
+        long h1 = hash(value, SEED_1);
+        long h2 = hash(value, SEED_2);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            setBit(bit);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value, SEED_1);
+        long h2 = hash(value, SEED_2);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Tamaño en memoria del arreglo de bits
+    public long sizeInBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long actual;
+        do {
+            actual = bits.get(index);
+            if ((actual & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(index, actual, actual | mask));
+    }
+
+    // Hash de 64 bits por caracteres con el finalizador de MurmurHash3
+    private static long hash(String value, long seed) {
+        long h = seed ^ (value.length() * 0x87C37B91114253D5L);
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x4CF5AD432745937FL;
+            h = Long.rotateLeft(h, 31);
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
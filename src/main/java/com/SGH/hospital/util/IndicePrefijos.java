@@ -0,0 +1,89 @@
+package com.SGH.hospital.util;
+
+import java.text.Normalizer;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice concurrente de claves de texto a ids para búsquedas por prefijo.
+ *
+ * Las claves se guardan ordenadas (skip list), así que todas las que empiezan con un
+ * prefijo son un rango contiguo: buscar cuesta O(log n) más los ids recorridos, sin
+ * guardar cada prefijo por separado como un índice de edge n-grams. Cada clave apunta
+ * al conjunto de ids que la contienen (un apellido repetido se guarda una sola vez).
+ *
+ * Las claves se normalizan con {@link #normalizar(String)} antes de usarse.
+ */
+public final class IndicePrefijos {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final ConcurrentSkipListMap<String, Set<Long>> claves = new ConcurrentSkipListMap<>();
+
+    /**
+     * Minúsculas y sin tildes ni diéresis: "Núñez" y "nunez" son la misma clave
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinMarcas.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalizado y solo letras y dígitos: "30.111.222" → "30111222", "AF-12" → "af12"
+     */
+    public static String compactar(String texto) {
+        return NO_ALFANUMERICO.matcher(normalizar(texto)).replaceAll("");
+    }
+
+    public void agregar(String clave, long id) {
+        if (!clave.isEmpty()) {
+            claves.computeIfAbsent(clave, c -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public void quitar(String clave, long id) {
+        // compute por clave: un agregar concurrente no puede perder su id
+        claves.computeIfPresent(clave, (c, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Ids de las claves que empiezan con el prefijo, en orden de clave y hasta
+     * maximo + 1 (uno de más indica que el resultado quedó truncado).
+     */
+    public Set<Long> buscar(String prefijo, int maximo) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (prefijo.isEmpty()) {
+            return ids;
+        }
+        ConcurrentNavigableMap<String, Set<Long>> rango =
+                claves.subMap(prefijo, true, prefijo + Character.MAX_VALUE, true);
+        Iterator<Map.Entry<String, Set<Long>>> it = rango.entrySet().iterator();
+        while (it.hasNext() && ids.size() <= maximo) {
+            for (Long id : it.next().getValue()) {
+                ids.add(id);
+                if (ids.size() > maximo) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    public int claves() {
+        return claves.size();
+    }
+}
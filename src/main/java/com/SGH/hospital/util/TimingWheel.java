@@ -0,0 +1,192 @@
+package com.SGH.hospital.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rueda de tiempo jerárquica (hashed hierarchical timing wheel) para vencimientos por clave.
+ *
+ * Hay LEVELS ruedas de 64 ranuras: el nivel 0 avanza de a un tick, el nivel 1 de a 64
+ * ticks, el nivel 2 de a 64² y así. Cada vencimiento se guarda en un nodo de una lista
+ * doblemente enlazada dentro de su ranura, y un mapa clave → nodo permite reprogramar
+ * o cancelar sin recorrer nada: insertar y cancelar son O(1). Al avanzar, las ranuras
+ * de niveles altos que llegan a su turno se "bajan" (cascade) reinsertando sus nodos
+ * con la precisión del nivel inferior.
+ *
+ * Con tick de 1 s y 4 niveles el horizonte directo es de ~194 días; los vencimientos
+ * más lejanos se guardan en el último nivel y se reubican en cada vuelta.
+ *
+ * Los métodos son synchronized: las operaciones son O(1) y el avance solo toca las
+ * ranuras vencidas, así que el lock se mantiene por muy poco tiempo.
+ */
+public final class TimingWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Node<K>[][] wheels;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis debe ser positivo");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Node[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = Node.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Programa (o reprograma) el vencimiento de la clave. Un deadline ya pasado
+     * vence en el próximo tick.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        Node<K> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            nodes.put(key, node);
+        } else {
+            node.unlink();
+        }
+        node.deadlineTick = deadlineMillis / tickMillis;
+        // La ranura del tick actual ya se procesó: lo vencido sale en el próximo tick
+        place(node, currentTick + 1);
+    }
+
+    /**
+     * Programa la clave solo si no tiene un vencimiento pendiente.
+     * @return true si se programó
+     */
+    public synchronized boolean scheduleIfAbsent(K key, long deadlineMillis) {
+        if (nodes.containsKey(key)) {
+            return false;
+        }
+        schedule(key, deadlineMillis);
+        return true;
+    }
+
+    /**
+     * Cancela el vencimiento de la clave.
+     * @return true si tenía uno pendiente
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        node.unlink();
+        return true;
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Avanza la rueda hasta nowMillis y devuelve las claves vencidas, en orden de tick.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            drain(wheels[0][(int) (currentTick & MASK)], expired);
+        }
+        return expired;
+    }
+
+    // Al completar una vuelta del nivel inferior, la ranura que toca en el nivel
+    // superior se reparte con más precisión (solo si el nivel inferior volvió a 0)
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            long unidad = currentTick >> (BITS * level);
+            if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Node<K> sentinel = wheels[level][(int) (unidad & MASK)];
+            Node<K> node = sentinel.next;
+            while (node != sentinel) {
+                Node<K> next = node.next;
+                node.unlink();
+                // Lo que vence justo en este tick cae en la ranura que se drena a continuación
+                place(node, currentTick);
+                node = next;
+            }
+        }
+    }
+
+    private void drain(Node<K> sentinel, List<K> expired) {
+        Node<K> node = sentinel.next;
+        while (node != sentinel) {
+            Node<K> next = node.next;
+            node.unlink();
+            nodes.remove(node.key);
+            expired.add(node.key);
+            node = next;
+        }
+    }
+
+    private void place(Node<K> node, long minTick) {
+        long deadline = Math.max(node.deadlineTick, minTick);
+        long delta = deadline - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        // Más allá del horizonte: se estaciona en la última ranura del nivel superior
+        // y se vuelve a ubicar cuando esa ranura haga cascade
+        if (delta >= (1L << (BITS * LEVELS))) {
+            deadline = currentTick + (1L << (BITS * LEVELS)) - 1;
+        }
+        int slot = (int) ((deadline >> (BITS * level)) & MASK);
+        wheels[level][slot].append(node);
+    }
+
+    private static final class Node<K> {
+        final K key;
+        long deadlineTick;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+
+        static <K> Node<K> sentinel() {
+            Node<K> s = new Node<>(null);
+            s.prev = s;
+            s.next = s;
+            return s;
+        }
+
+        void append(Node<K> node) {
+            node.prev = prev;
+            node.next = this;
+            prev.next = node;
+            prev = node;
+        }
+
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.SGH.hospital.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks, implementado con GCRA (generic cell rate algorithm).
+ *
+ * En lugar de guardar "tokens disponibles + último refill" guarda un solo valor:
+ * el instante teórico (TAT) en que el balde volvería a estar lleno. Consumir es
+ * un compareAndSet sobre ese long, así que no hay locks ni objetos por request.
+ *
+ * Equivale a un balde de {@code capacity} tokens que se recarga a razón de un
+ * token cada {@code intervalNanos}.
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+    private final long intervalNanos;
+    private final AtomicLong tat;
+
+    public TokenBucket(long capacity, long intervalNanos, long nowNanos) {
+        if (capacity <= 0 || intervalNanos <= 0) {
+            throw new IllegalArgumentException("capacity e intervalNanos deben ser positivos");
+        }
+        this.capacity = capacity;
+        this.intervalNanos = intervalNanos;
+        // TAT = ahora significa balde lleno
+        this.tat = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Intenta consumir {@code cost} tokens. Devuelve 0 si se permitió, o los
+     * nanosegundos que faltan para que haya tokens suficientes.
+     */
+    public long tryConsume(long cost, long nowNanos) {
+        long costo = Math.min(Math.max(cost, 1), capacity);
+        long limite = capacity * intervalNanos;
+        while (true) {
+            long actual = tat.get();
+            long base = actual - nowNanos > 0 ? actual : nowNanos;
+            long nuevo = base + costo * intervalNanos;
+            long exceso = nuevo - nowNanos - limite;
+            if (exceso > 0) {
+                return exceso;
+            }
+            if (tat.compareAndSet(actual, nuevo)) {
+                return 0;
+            }
+        }
+    }
+
+    // Tokens disponibles en este momento (para el header X-RateLimit-Remaining)
+    public long available(long nowNanos) {
+        long pendiente = tat.get() - nowNanos;
+        if (pendiente <= 0) {
+            return capacity;
+        }
+        return Math.max(0, (capacity * intervalNanos - pendiente) / intervalNanos);
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+}
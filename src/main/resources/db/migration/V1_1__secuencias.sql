@@ -0,0 +1,31 @@
+-- Bases que venían de ddl-auto=update (marcadas como V1 sin ejecutarlo): los ids eran
+-- IDENTITY y las secuencias que usan hoy Usuario, Especialidad y HorarioAtencion pueden
+-- faltar o haber quedado por debajo de los ids (antes de Flyway las ajustaba la
+-- aplicación al arrancar). En una base creada desde V1 no cambia nada.
+--
+-- Con pooled-lo cada nextval es el primer id de un bloque, así que alcanza con que el
+-- próximo valor sea mayor que el id más alto ya usado.
+
+CREATE SEQUENCE IF NOT EXISTS especialidades_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS horarios_atencion_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS usuario_seq START WITH 1 INCREMENT BY 50;
+
+-- Las columnas IDENTITY ya no generan ids (también se borran sus secuencias *_id_seq)
+ALTER TABLE especialidades ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE horarios_atencion ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE usuario ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- is_called = false: el próximo nextval devuelve exactamente este valor. Nunca se baja
+-- una secuencia que ya repartió ids por encima del máximo.
+SELECT setval('especialidades_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM especialidades),
+                       (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM especialidades_seq)),
+              false);
+SELECT setval('horarios_atencion_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM horarios_atencion),
+                       (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM horarios_atencion_seq)),
+              false);
+SELECT setval('usuario_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM usuario),
+                       (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM usuario_seq)),
+              false);
@@ -0,0 +1,20 @@
+-- Bases que venían de ddl-auto=update (marcadas como V1 sin ejecutarlo): created_at y
+-- apellido admitían NULL. Son las claves de los listados por cursor, que comparan
+-- (valor, id) y no pueden posicionarse en un NULL, así que pasan a NOT NULL como en V1.
+-- En una base creada desde V1 no hay NULL y no cambia nada.
+
+-- Sin fecha de alta se toma la última modificación o, si tampoco hay, la fecha de alta
+-- más antigua: son registros anteriores a la auditoría
+UPDATE usuario
+SET created_at = COALESCE(updated_at,
+                          (SELECT MIN(u.created_at) FROM usuario u),
+                          CURRENT_TIMESTAMP)
+WHERE created_at IS NULL;
+
+UPDATE usuario SET apellido = '' WHERE apellido IS NULL;
+
+ALTER TABLE usuario ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE usuario ALTER COLUMN apellido SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_usuario_created_at_id ON usuario (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_usuario_apellido_id ON usuario (apellido, id);
@@ -0,0 +1,29 @@
+-- Bases que venían de ddl-auto=update (marcadas como V1 sin ejecutarlo): les faltan la
+-- tabla de revocaciones, la fecha de fin de las suspensiones temporales y el orden de
+-- la PK de medico_especialidad que usan los índices de V2. Las secuencias, el cifrado y
+-- las claves de los cursores se migran en V1_1, V1_2 y V1_3. En una base creada desde
+-- V1 no cambia nada.
+
+CREATE TABLE IF NOT EXISTS tokens_revocados (
+    id          VARCHAR(64)                 NOT NULL,
+    tipo        VARCHAR(10)                 NOT NULL CHECK (tipo IN ('TOKEN', 'FAMILIA')),
+    usuario_id  BIGINT,
+    expira_en   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revocado_en TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_tokens_revocados PRIMARY KEY (id)
+);
+
+ALTER TABLE usuario ADD COLUMN IF NOT EXISTS suspendido_hasta TIMESTAMP(6) WITH TIME ZONE;
+
+-- Hibernate la había creado como (medico_id, especialidad_id): los filtros por
+-- especialidad no podían usarla. Por médico sirve idx_medico_especialidad_medico (V2).
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint
+               WHERE conrelid = 'medico_especialidad'::regclass AND conname = 'medico_especialidad_pkey') THEN
+        ALTER TABLE medico_especialidad DROP CONSTRAINT medico_especialidad_pkey;
+        ALTER TABLE medico_especialidad
+            ADD CONSTRAINT pk_medico_especialidad PRIMARY KEY (especialidad_id, medico_id);
+    END IF;
+END
+$$;
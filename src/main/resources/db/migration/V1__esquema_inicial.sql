@@ -0,0 +1,92 @@
+-- Esquema inicial: el mismo que generaba Hibernate con ddl-auto=update.
+-- Las bases existentes se marcan como V1 (spring.flyway.baseline-on-migrate) y
+-- continúan desde V2.
+
+CREATE SEQUENCE especialidades_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE horarios_atencion_seq START WITH 1 INCREMENT BY 50;
+-- Asignación por bloques (pooled-lo): Usuario.ID_ALLOCATION_SIZE
+CREATE SEQUENCE usuario_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE especialidades (
+    id     BIGINT       NOT NULL,
+    nombre VARCHAR(100) NOT NULL,
+    activa BOOLEAN      NOT NULL,
+    CONSTRAINT pk_especialidades PRIMARY KEY (id),
+    CONSTRAINT uk_especialidades_nombre UNIQUE (nombre)
+);
+
+-- Herencia JOINED: usuario tiene los campos comunes, medico y paciente los propios
+CREATE TABLE usuario (
+    id               BIGINT       NOT NULL,
+    tipo_usuario     VARCHAR(31)  NOT NULL CHECK (tipo_usuario IN ('MEDICO', 'PACIENTE')),
+    nombre           VARCHAR(255),
+    apellido         VARCHAR(255) NOT NULL,
+    -- Cifrados (AES-GCM): las búsquedas usan los índices ciegos dni_hash / email_hash
+    dni              VARCHAR(128),
+    telefono         VARCHAR(128),
+    email            VARCHAR(512) NOT NULL,
+    dni_hash         VARCHAR(44),
+    email_hash       VARCHAR(44)  NOT NULL,
+    direccion        VARCHAR(255),
+    fecha_nacimiento DATE,
+    password         VARCHAR(255) NOT NULL,
+    rol              VARCHAR(255) CHECK (rol IN ('ADMIN', 'MEDICO', 'PACIENTE', 'ENFERMERO')),
+    estado           VARCHAR(255) CHECK (estado IN ('ACTIVO', 'INACTIVO', 'SUSPENDIDO')),
+    suspendido_hasta TIMESTAMP(6) WITH TIME ZONE,
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6),
+    CONSTRAINT pk_usuario PRIMARY KEY (id),
+    CONSTRAINT uk_usuario_email_hash UNIQUE (email_hash)
+);
+
+CREATE TABLE medico (
+    id                BIGINT        NOT NULL,
+    matricula         VARCHAR(20)   NOT NULL,
+    anios_experiencia INTEGER       NOT NULL,
+    biografia         VARCHAR(1000),
+    disponible        BOOLEAN       NOT NULL,
+    CONSTRAINT pk_medico PRIMARY KEY (id),
+    CONSTRAINT uk_medico_matricula UNIQUE (matricula),
+    CONSTRAINT fk_medico_usuario FOREIGN KEY (id) REFERENCES usuario (id)
+);
+
+CREATE TABLE paciente (
+    id              BIGINT       NOT NULL,
+    numero_afiliado VARCHAR(255) NOT NULL,
+    obra_social     VARCHAR(255),
+    CONSTRAINT pk_paciente PRIMARY KEY (id),
+    CONSTRAINT fk_paciente_usuario FOREIGN KEY (id) REFERENCES usuario (id)
+);
+
+CREATE TABLE medico_especialidad (
+    especialidad_id BIGINT NOT NULL,
+    medico_id       BIGINT NOT NULL,
+    CONSTRAINT pk_medico_especialidad PRIMARY KEY (especialidad_id, medico_id),
+    CONSTRAINT fk_medico_especialidad_especialidad FOREIGN KEY (especialidad_id) REFERENCES especialidades (id),
+    CONSTRAINT fk_medico_especialidad_medico FOREIGN KEY (medico_id) REFERENCES medico (id)
+);
+
+CREATE TABLE horarios_atencion (
+    id          BIGINT       NOT NULL,
+    medico_id   BIGINT       NOT NULL,
+    dia_semana  VARCHAR(255) NOT NULL
+        CHECK (dia_semana IN ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    hora_inicio TIME(0)      NOT NULL,
+    hora_fin    TIME(0)      NOT NULL,
+    activo      BOOLEAN      NOT NULL,
+    CONSTRAINT pk_horarios_atencion PRIMARY KEY (id),
+    CONSTRAINT fk_horarios_atencion_medico FOREIGN KEY (medico_id) REFERENCES medico (id)
+);
+
+CREATE TABLE tokens_revocados (
+    id          VARCHAR(64)                 NOT NULL,
+    tipo        VARCHAR(10)                 NOT NULL CHECK (tipo IN ('TOKEN', 'FAMILIA')),
+    usuario_id  BIGINT,
+    expira_en   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revocado_en TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_tokens_revocados PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_usuario_dni_hash ON usuario (dni_hash);
+CREATE INDEX idx_usuario_created_at_id ON usuario (created_at, id);
+CREATE INDEX idx_usuario_apellido_id ON usuario (apellido, id);
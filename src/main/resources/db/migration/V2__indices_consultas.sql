@@ -0,0 +1,41 @@
+-- Índices para las consultas de PacienteRepository, MedicoRepository,
+-- HorarioAtencionRepository, UsuarioRepository y TokenRevocadoRepository.
+-- CONCURRENTLY: se crean sin bloquear escrituras en una base con datos (Flyway corre
+-- esta migración fuera de una transacción). IF NOT EXISTS: las bases que venían de
+-- ddl-auto=update pueden tener ya los índices declarados en las entidades.
+--
+-- usuario.dni no se indexa: está cifrado con IV aleatorio, así que dos DNI iguales
+-- no tienen el mismo valor. Las búsquedas por DNI usan idx_usuario_dni_hash (V1).
+
+-- Listados por estado (pacientes y médicos) ordenados por apellido, y sus COUNT
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_usuario_estado_apellido_id
+    ON usuario (estado, apellido, id);
+
+-- Médicos disponibles y búsquedas sobre usuarios activos, por apellido (parcial:
+-- los inactivos y suspendidos no ocupan lugar)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_usuario_activo_apellido_id
+    ON usuario (apellido, id) WHERE estado = 'ACTIVO';
+
+-- Suspensiones temporales pendientes (UsuarioRepository.streamSuspensionesPendientes)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_usuario_suspension_pendiente
+    ON usuario (suspendido_hasta) WHERE estado = 'SUSPENDIDO' AND suspendido_hasta IS NOT NULL;
+
+-- Refresco incremental del índice de búsqueda rápida (findResponsesModificadosDesde)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_usuario_updated_at
+    ON usuario (updated_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_paciente_numero_afiliado
+    ON paciente (numero_afiliado);
+
+-- La PK (especialidad_id, medico_id) sirve a los filtros por especialidad; este índice
+-- sirve a la carga de especialidades por médico (findAllWithEspecialidades)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medico_especialidad_medico
+    ON medico_especialidad (medico_id, especialidad_id);
+
+-- Horarios por médico y por médico y día (findByMedicoId, findByMedicoAndDia, findAllWithHorarios)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_horarios_atencion_medico_dia
+    ON horarios_atencion (medico_id, dia_semana);
+
+-- Purga de revocaciones expiradas (deleteExpiradas)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tokens_revocados_expira_en
+    ON tokens_revocados (expira_en);
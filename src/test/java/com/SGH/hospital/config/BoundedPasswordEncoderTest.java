@@ -0,0 +1,73 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void encodesAndMatchesOnThePool() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, 2, 8, 5_000, new SimpleMeterRegistry());
+
+        String hash = encoder.encode("Secreta123");
+
+        assertThat(encoder.matches("Secreta123", hash)).isTrue();
+        assertThat(encoder.matches("otra", hash)).isFalse();
+        encoder.destroy();
+    }
+
+    @Test
+    void flagsHashesWithLowerCostForUpgrade() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(6, 1, 1, 5_000, new SimpleMeterRegistry());
+        String viejo = new BCryptPasswordEncoder(4).encode("Secreta123");
+
+        assertThat(encoder.upgradeEncoding(viejo)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("Secreta123"))).isFalse();
+        encoder.destroy();
+    }
+
+    @Test
+    void rejectsFastWhenQueueIsFull() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(12, 1, 1, 10_000, registry);
+
+        // Hilos propios: el common pool puede tener un solo hilo y serializar los intentos
+        ExecutorService clientes = Executors.newFixedThreadPool(6);
+        List<CompletableFuture<String>> intentos = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            intentos.add(CompletableFuture.supplyAsync(() -> encoder.encode("Secreta123"), clientes));
+        }
+
+        long rechazados = intentos.stream().filter(f -> {
+            try {
+                f.join();
+                return false;
+            } catch (CompletionException e) {
+                return e.getCause() instanceof ServiceUnavailableException;
+            }
+        }).count();
+
+        assertThat(rechazados).isPositive();
+        assertThat(registry.get("bcrypt.rejected").counter().count()).isEqualTo(rechazados);
+        clientes.shutdown();
+        encoder.destroy();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        int strength = BoundedPasswordEncoder.calibrate(50, 4, 8);
+
+        assertThat(strength).isBetween(4, 8);
+    }
+}
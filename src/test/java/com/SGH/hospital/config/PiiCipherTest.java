@@ -0,0 +1,73 @@
+package com.SGH.hospital.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PiiCipherTest {
+
+    private static final String CLAVE_AES = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String CLAVE_HMAC = Base64.getEncoder().encodeToString("indice-ciego-de-prueba-32-bytes!".getBytes());
+
+    private final PiiCipher piiCipher = new PiiCipher(CLAVE_AES, CLAVE_HMAC);
+
+    @Test
+    void encryptsWithRandomIvAndDecryptsBack() {
+        String a = piiCipher.encrypt("juan@hospital.com");
+        String b = piiCipher.encrypt("juan@hospital.com");
+
+        assertThat(a).isNotEqualTo(b).doesNotContain("juan");
+        assertThat(piiCipher.decrypt(a)).isEqualTo("juan@hospital.com");
+        assertThat(piiCipher.decrypt(b)).isEqualTo("juan@hospital.com");
+        assertThat(piiCipher.encrypt(null)).isNull();
+    }
+
+    @Test
+    void rejectsTamperedCiphertext() {
+        byte[] data = Base64.getDecoder().decode(piiCipher.encrypt("30123456"));
+        data[data.length - 1] ^= 1;
+
+        assertThatThrownBy(() -> piiCipher.decrypt(Base64.getEncoder().encodeToString(data)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void tellsLegacyPlaintextFromEncryptedValues() {
+        assertThat(piiCipher.isEncrypted(piiCipher.encrypt("30123456"))).isTrue();
+        assertThat(piiCipher.isEncrypted("30123456")).isFalse();
+        assertThat(piiCipher.isEncrypted("juan@hospital.com")).isFalse();
+        assertThat(piiCipher.isEncrypted(null)).isFalse();
+    }
+
+    @Test
+    void blindIndexIsDeterministicOverNormalizedValues() {
+        assertThat(piiCipher.blindIndexEmail(" Juan@Hospital.com "))
+                .isEqualTo(piiCipher.blindIndexEmail("juan@hospital.com"))
+                .hasSizeLessThanOrEqualTo(44);
+        assertThat(piiCipher.blindIndexDni("30.123.456"))
+                .isEqualTo(piiCipher.blindIndexDni("30123456"))
+                .isNotEqualTo(piiCipher.blindIndexDni("30123457"));
+        // Mismo valor en distintos campos no comparte índice
+        assertThat(piiCipher.blindIndexDni("abc")).isNotEqualTo(piiCipher.blindIndexEmail("abc"));
+    }
+
+    @Test
+    void blindIndexDependsOnTheKey() {
+        PiiCipher otraClave = new PiiCipher(CLAVE_AES, Base64.getEncoder().encodeToString(new byte[32]));
+
+        assertThat(otraClave.blindIndexDni("30123456")).isNotEqualTo(piiCipher.blindIndexDni("30123456"));
+    }
+
+    @Test
+    void refusesToStartWithoutKeys() {
+        assertThatThrownBy(() -> new PiiCipher("", CLAVE_HMAC))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("PII_ENCRYPTION_KEY");
+        assertThatThrownBy(() -> new PiiCipher(CLAVE_AES, " "))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("PII_BLIND_INDEX_KEY");
+    }
+}
@@ -0,0 +1,60 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.entity.Paciente;
+import com.SGH.hospital.entity.Usuario;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
+import com.SGH.hospital.service.UsuarioPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReglaAutorizacionTest {
+
+    static class Endpoints {
+        @RolesPermitidos({Rol.ADMIN, Rol.MEDICO})
+        public void listar() {
+        }
+
+        @RolesPermitidos(value = Rol.ADMIN, propietario = Rol.PACIENTE)
+        public void actualizar(Long id) {
+        }
+    }
+
+    @Test
+    void allowsOnlyListedRoles() throws Exception {
+        ReglaAutorizacion regla = compilar("listar");
+
+        assertThat(regla.permite(principal(1L, Rol.ADMIN), Map.of())).isTrue();
+        assertThat(regla.permite(principal(1L, Rol.MEDICO), Map.of())).isTrue();
+        assertThat(regla.permite(principal(1L, Rol.PACIENTE), Map.of())).isFalse();
+    }
+
+    @Test
+    void ownerRuleRequiresMatchingPathId() throws Exception {
+        ReglaAutorizacion regla = compilar("actualizar", Long.class);
+
+        assertThat(regla.permite(principal(7L, Rol.PACIENTE), Map.of("id", "7"))).isTrue();
+        assertThat(regla.permite(principal(7L, Rol.PACIENTE), Map.of("id", "8"))).isFalse();
+        assertThat(regla.permite(principal(7L, Rol.PACIENTE), Map.of("id", "abc"))).isFalse();
+        assertThat(regla.permite(principal(7L, Rol.MEDICO), Map.of("id", "7"))).isFalse();
+        assertThat(regla.permite(principal(1L, Rol.ADMIN), Map.of("id", "7"))).isTrue();
+    }
+
+    private static ReglaAutorizacion compilar(String metodo, Class<?>... tipos) throws NoSuchMethodException {
+        return ReglaAutorizacion.compilar(
+                Endpoints.class.getMethod(metodo, tipos).getAnnotation(RolesPermitidos.class));
+    }
+
+    private static UsuarioPrincipal principal(Long id, Rol rol) {
+        Usuario usuario = new Paciente();
+        ReflectionTestUtils.setField(usuario, "id", id);
+        usuario.setEmail("usuario" + id + "@hospital.com");
+        usuario.setRol(rol);
+        usuario.setEstado(EstadoUsuario.ACTIVO);
+        return UsuarioPrincipal.fromUsuario(usuario);
+    }
+}
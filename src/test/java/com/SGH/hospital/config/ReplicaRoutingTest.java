@@ -0,0 +1,164 @@
+package com.SGH.hospital.config;
+
+import com.SGH.hospital.dto.auth.CredencialUsuario;
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.Rol;
+import com.SGH.hospital.service.PacienteService;
+import com.SGH.hospital.service.UserStatusCache;
+import com.SGH.hospital.service.UsuarioPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ruteo de lecturas a réplicas con dos pools H2 sobre la misma base como primario y
+ * réplica. El retraso de la réplica sale de una tabla que el test controla.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicas;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "replicas.urls=jdbc:h2:mem:replicas;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "replicas.lag-query=SELECT COALESCE(MAX(segundos), 0) FROM retraso_simulado",
+        "replicas.max-lag=PT5S",
+        // Los chequeos los dispara el test
+        "replicas.health-check=PT1H"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static Long pacienteId;
+
+    @BeforeEach
+    void preparar() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS retraso_simulado (segundos DOUBLE PRECISION)");
+        jdbcTemplate.update("DELETE FROM retraso_simulado");
+        replicaRoutingDataSource.verificarReplicas();
+        if (pacienteId == null) {
+            pacienteId = crear(1).getId();
+        }
+    }
+
+    @AfterEach
+    void limpiarUsuario() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        double antes = lecturas("replica", "sana");
+
+        pacienteService.obtenerPorId(pacienteId);
+
+        assertThat(lecturas("replica", "sana")).isEqualTo(antes + 1);
+    }
+
+    @Test
+    void writesStayOnThePrimary() {
+        double antes = lecturas("replica", "sana");
+
+        crear(2);
+
+        assertThat(lecturas("replica", "sana")).isEqualTo(antes);
+    }
+
+    @Test
+    void aUserReadsTheirOwnWritesFromThePrimary() {
+        autenticar(500L);
+        PacienteResponse creado = crear(3);
+        double propias = lecturas("primario", "escritura_reciente");
+
+        assertThat(pacienteService.obtenerPorId(creado.getId()).getId()).isEqualTo(creado.getId());
+        assertThat(lecturas("primario", "escritura_reciente")).isEqualTo(propias + 1);
+
+        // Otro usuario sigue leyendo de la réplica
+        autenticar(501L);
+        double replica = lecturas("replica", "sana");
+        pacienteService.obtenerPorId(creado.getId());
+        assertThat(lecturas("replica", "sana")).isEqualTo(replica + 1);
+    }
+
+    @Test
+    void aLaggingReplicaIsSkippedUntilItCatchesUp() {
+        jdbcTemplate.update("INSERT INTO retraso_simulado VALUES (30)");
+        replicaRoutingDataSource.verificarReplicas();
+        double sinReplica = lecturas("primario", "sin_replica");
+
+        pacienteService.obtenerPorId(pacienteId);
+        assertThat(lecturas("primario", "sin_replica")).isEqualTo(sinReplica + 1);
+
+        jdbcTemplate.update("DELETE FROM retraso_simulado");
+        replicaRoutingDataSource.verificarReplicas();
+        double replica = lecturas("replica", "sana");
+        pacienteService.obtenerPorId(pacienteId);
+        assertThat(lecturas("replica", "sana")).isEqualTo(replica + 1);
+    }
+
+    @Test
+    void userStatusIsReadFromThePrimaryWhileTheReplicaLags() {
+        Long id = crear(4).getId();
+        assertThat(userStatusCache.getEstado(id)).contains(EstadoUsuario.ACTIVO);
+
+        // Atrasada pero dentro de max-lag: sigue recibiendo lecturas
+        jdbcTemplate.update("INSERT INTO retraso_simulado VALUES (3)");
+        replicaRoutingDataSource.verificarReplicas();
+        double replica = lecturas("replica", "sana");
+
+        pacienteService.cambiarEstado(id, EstadoUsuario.SUSPENDIDO);
+
+        // El estado que vuelve a la caché sale del primario, no de la réplica
+        assertThat(userStatusCache.getEstado(id)).contains(EstadoUsuario.SUSPENDIDO);
+        assertThat(lecturas("replica", "sana")).isEqualTo(replica);
+    }
+
+    private PacienteResponse crear(int i) {
+        return pacienteService.crearPaciente(PacienteRequest.builder()
+                .nombre("Réplica")
+                .apellido("Ruteo" + i)
+                .dni(String.valueOf(36_000_000 + i))
+                .email("replica" + i + "@hospital.com")
+                .password("Secreta123")
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .direccion("Av. Siempre Viva 742")
+                .numeroAfiliado("AF-R" + i)
+                .obraSocial("OSDE")
+                .build());
+    }
+
+    private static void autenticar(Long usuarioId) {
+        UsuarioPrincipal principal = UsuarioPrincipal.fromCredencial(new CredencialUsuario(
+                usuarioId, "admin" + usuarioId + "@hospital.com", null, Rol.ADMIN, EstadoUsuario.ACTIVO, "Admin", "Test"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private double lecturas(String destino, String motivo) {
+        return meterRegistry.get("datasource.lecturas").tag("destino", destino).tag("motivo", motivo).counter().count();
+    }
+}
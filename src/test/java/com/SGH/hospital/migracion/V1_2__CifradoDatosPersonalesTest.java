@@ -0,0 +1,131 @@
+package com.SGH.hospital.migracion;
+
+import com.SGH.hospital.config.PiiCipher;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Usuarios de una base anterior al cifrado (texto plano, sin índices ciegos y con la
+ * unicidad sobre email) quedan legibles por PiiCipher y buscables por índice.
+ */
+class V1_2__CifradoDatosPersonalesTest {
+
+    private static final String CLAVE_AES = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String CLAVE_HMAC = Base64.getEncoder().encodeToString("indice-ciego-de-prueba-32-bytes!".getBytes());
+
+    private final PiiCipher piiCipher = new PiiCipher(CLAVE_AES, CLAVE_HMAC);
+    private final V1_2__CifradoDatosPersonales migracion = new V1_2__CifradoDatosPersonales(piiCipher);
+
+    private Connection connection;
+
+    @BeforeEach
+    void esquemaAnterior() throws SQLException {
+        connection = DriverManager.getConnection(
+                "jdbc:h2:mem:cifrado;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        // Tabla tal como la dejaba ddl-auto=update antes del cifrado
+        ejecutar("CREATE TABLE usuario (id BIGINT PRIMARY KEY, nombre VARCHAR(255), dni VARCHAR(255),"
+                + " telefono VARCHAR(255), email VARCHAR(255) NOT NULL, CONSTRAINT uk5171l57faosmj8myawaucatdw UNIQUE (email))");
+    }
+
+    @AfterEach
+    void borrar() throws SQLException {
+        ejecutar("DROP ALL OBJECTS");
+        connection.close();
+    }
+
+    @Test
+    void encryptsPlaintextRowsAndIndexesThem() throws SQLException {
+        ejecutar("INSERT INTO usuario (id, nombre, dni, telefono, email) VALUES"
+                + " (1, 'Ana', '30.123.456', '1144445555', 'Ana@Hospital.com'),"
+                + " (2, 'Beto', NULL, NULL, 'beto@hospital.com')");
+
+        migracion.migrate(contexto());
+
+        try (ResultSet rs = consultar("SELECT dni, telefono, email, dni_hash, email_hash FROM usuario WHERE id = 1")) {
+            rs.next();
+            assertThat(rs.getString("dni")).doesNotContain("30");
+            assertThat(piiCipher.decrypt(rs.getString("dni"))).isEqualTo("30.123.456");
+            assertThat(piiCipher.decrypt(rs.getString("telefono"))).isEqualTo("1144445555");
+            assertThat(piiCipher.decrypt(rs.getString("email"))).isEqualTo("Ana@Hospital.com");
+            assertThat(rs.getString("dni_hash")).isEqualTo(piiCipher.blindIndexDni("30123456"));
+            assertThat(rs.getString("email_hash")).isEqualTo(piiCipher.blindIndexEmail("ana@hospital.com"));
+        }
+        try (ResultSet rs = consultar("SELECT dni, dni_hash FROM usuario WHERE id = 2")) {
+            rs.next();
+            assertThat(rs.getString("dni")).isNull();
+            assertThat(rs.getString("dni_hash")).isNull();
+        }
+
+        // La unicidad pasa del email (cifrado, ya no sirve) al índice ciego
+        assertThatThrownBy(() -> ejecutar("INSERT INTO usuario (id, email, email_hash) VALUES (3, 'x', '"
+                + piiCipher.blindIndexEmail("beto@hospital.com") + "')"))
+                .isInstanceOf(SQLException.class);
+        ejecutar("INSERT INTO usuario (id, email, email_hash) VALUES (3, 'mismo', 'a'), (4, 'mismo', 'b')");
+    }
+
+    @Test
+    void keepsValuesAlreadyEncryptedAndIsIdempotent() throws SQLException {
+        String dniCifrado = piiCipher.encrypt("28999111");
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO usuario (id, dni, email) VALUES (1, ?, 'carla@hospital.com')")) {
+            ps.setString(1, dniCifrado);
+            ps.executeUpdate();
+        }
+
+        migracion.migrate(contexto());
+        migracion.migrate(contexto());
+
+        try (ResultSet rs = consultar("SELECT dni, dni_hash FROM usuario WHERE id = 1")) {
+            rs.next();
+            assertThat(rs.getString("dni")).isEqualTo(dniCifrado);
+            assertThat(rs.getString("dni_hash")).isEqualTo(piiCipher.blindIndexDni("28999111"));
+        }
+    }
+
+    @Test
+    void failsListingUsersWhoseEmailsOnlyDifferInCase() throws SQLException {
+        ejecutar("INSERT INTO usuario (id, email) VALUES (7, 'dora@hospital.com'), (9, 'DORA@hospital.com ')");
+
+        assertThatThrownBy(() -> migracion.migrate(contexto()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[7, 9]");
+    }
+
+    private void ejecutar(String sql) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private ResultSet consultar(String sql) throws SQLException {
+        return connection.createStatement().executeQuery(sql);
+    }
+
+    private Context contexto() {
+        return new Context() {
+            @Override
+            public Configuration getConfiguration() {
+                return null;
+            }
+
+            @Override
+            public Connection getConnection() {
+                return connection;
+            }
+        };
+    }
+}
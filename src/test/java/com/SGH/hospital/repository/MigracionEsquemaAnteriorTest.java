@@ -0,0 +1,209 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.dto.auth.AuthResponse;
+import com.SGH.hospital.dto.auth.LoginRequest;
+import com.SGH.hospital.dto.auth.RefreshTokenRequest;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.dto.medico.MedicoResponse;
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.dto.paginacion.PaginaCursor;
+import com.SGH.hospital.enums.CampoOrden;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.service.AuthService;
+import com.SGH.hospital.service.EspecialidadService;
+import com.SGH.hospital.service.MedicoService;
+import com.SGH.hospital.service.PacienteService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Una base creada con ddl-auto=update antes de Flyway, con datos, se marca como V1 y
+ * recibe V1_1 a V2: al terminar tiene el mismo esquema que una base creada desde V1 y
+ * sus datos se pueden usar (login, búsquedas por índice ciego, altas, cursores).
+ *
+ * Necesita Docker: sin Docker el test se saltea.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.main.keep-alive=false",
+        "spring.devtools.restart.enabled=false",
+        "logging.level.root=WARN",
+        "security.bcrypt.strength=4",
+        "security.bcrypt.min-strength=4",
+        "pii.encryption-key=AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=",
+        "pii.blind-index-key=aW5kaWNlLWNpZWdvLWRlLXBydWViYS0zMi1ieXRlcyE="
+})
+@Testcontainers(disabledWithoutDocker = true)
+class MigracionEsquemaAnteriorTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine")
+            .withInitScripts("db/esquema-anterior.sql", "db/datos-anteriores.sql");
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EspecialidadService especialidadService;
+
+    @Test
+    void baselinedDatabaseReceivesEveryUpgradeMigration() {
+        assertThat(Arrays.stream(flyway.info().applied()).map(MigrationInfo::getVersion).map(Object::toString))
+                .containsExactly("1", "1.1", "1.2", "1.3", "1.4", "2");
+    }
+
+    @Test
+    void legacyRowsAreEncryptedAndFoundByBlindIndex() {
+        assertThat(jdbcTemplate.queryForObject("SELECT dni FROM usuario WHERE id = 1", String.class))
+                .doesNotContain("30");
+
+        // El email se busca normalizado y la contraseña anterior sigue valiendo
+        LoginRequest login = new LoginRequest();
+        login.setEmail("ana.paz@hospital.com");
+        login.setPassword("secreta123");
+        AuthResponse auth = authService.login(login);
+        assertThat(auth.getId()).isEqualTo(1L);
+        assertThat(auth.getEmail()).isEqualTo("Ana.Paz@hospital.com");
+
+        PacienteResponse ana = pacienteService.obtenerPorDni("30123456");
+        assertThat(ana.getDni()).isEqualTo("30.123.456");
+        assertThat(ana.getTelefono()).isEqualTo("1144445555");
+        assertThat(pacienteService.obtenerPorEmail("carla@hospital.com").getId()).isEqualTo(75L);
+
+        // tokens_revocados existe: el logout retira el token y revoca su familia
+        RefreshTokenRequest refresh = new RefreshTokenRequest();
+        refresh.setRefreshToken(auth.getRefreshToken());
+        authService.logout(refresh);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tokens_revocados", Long.class)).isEqualTo(2L);
+
+        // usuario.suspendido_hasta existe
+        Instant hasta = Instant.now().plus(1, ChronoUnit.DAYS);
+        pacienteService.cambiarEstado(75L, EstadoUsuario.SUSPENDIDO, hasta);
+        assertThat(jdbcTemplate.queryForObject("SELECT suspendido_hasta FROM usuario WHERE id = 75", Instant.class))
+                .isCloseTo(hasta, within(1, ChronoUnit.MILLIS));
+    }
+
+    @Test
+    void newRowsTakeIdsAboveTheLegacyOnes() {
+        Long especialidad = especialidadService.crear(new EspecialidadRequest("Neurología Migrada")).getId();
+        assertThat(especialidad).isGreaterThan(2L);
+
+        PacienteResponse paciente = pacienteService.crearPaciente(PacienteRequest.builder()
+                .nombre("Diego")
+                .apellido("Nuevo")
+                .dni("37000001")
+                .email("diego.nuevo@hospital.com")
+                .password("Secreta123")
+                .telefono("1155556666")
+                .fechaNacimiento(LocalDate.of(1992, 3, 4))
+                .direccion("Calle 1")
+                .numeroAfiliado("AF-NUEVO-1")
+                .build());
+        assertThat(paciente.getId()).isGreaterThan(75L);
+
+        HorarioAtencionDTO horario = new HorarioAtencionDTO();
+        horario.setDiaSemana(DayOfWeek.TUESDAY);
+        horario.setHoraInicio(LocalTime.of(9, 0));
+        horario.setHoraFin(LocalTime.of(13, 0));
+        MedicoRequest request = new MedicoRequest();
+        request.setMatricula("MN-NUEVO-1");
+        request.setNombre("Elena");
+        request.setApellido("Nueva");
+        request.setDni("37000002");
+        request.setEmail("elena.nueva@hospital.com");
+        request.setPassword("secreta123");
+        request.setEspecialidadIds(Set.of(1L, especialidad));
+        request.setHorarios(Set.of(horario));
+        MedicoResponse medico = medicoService.crearMedico(request);
+        assertThat(medico.getId()).isGreaterThan(paciente.getId());
+        assertThat(medico.getHorarios()).extracting(HorarioAtencionDTO::getId).allMatch(id -> id > 3L);
+    }
+
+    @Test
+    void cursorWalksRowsThatHadNoCreationDate() {
+        PaginaCursor<PacienteResponse> pagina = pacienteService.listarPorCursor(
+                Cursor.inicio(CampoOrden.CREATED_AT, Sort.Direction.ASC), 1);
+        List<Long> ids = new ArrayList<>();
+        while (true) {
+            pagina.getContenido().forEach(p -> ids.add(p.getId()));
+            if (!pagina.isHayMas()) {
+                break;
+            }
+            pagina = pacienteService.listarPorCursor(Cursor.decodificar(pagina.getSiguienteCursor()), 1);
+        }
+        assertThat(ids).contains(1L, 75L).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void upgradedSchemaMatchesAFreshOne() {
+        // Misma configuración que la de la aplicación, sobre un esquema vacío
+        Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .schemas("nuevo")
+                .defaultSchema("nuevo")
+                .load()
+                .migrate();
+
+        assertThat(esquema("nuevo")).containsExactlyInAnyOrderElementsOf(esquema("public"));
+    }
+
+    // Columnas, restricciones e índices del esquema, sin los nombres que eligió Hibernate
+    private List<String> esquema(String schema) {
+        List<String> columnas = jdbcTemplate.queryForList(
+                "SELECT table_name || '.' || column_name || ' ' || data_type || ' ' || "
+                        + "COALESCE(character_maximum_length, datetime_precision, 0) || ' ' || is_nullable || ' ' || is_identity "
+                        + "FROM information_schema.columns WHERE table_schema = ? AND table_name <> 'flyway_schema_history'",
+                String.class, schema);
+        List<String> restricciones = jdbcTemplate.queryForList(
+                "SELECT c.conrelid::regclass::text || ' ' || pg_get_constraintdef(c.oid) FROM pg_constraint c "
+                        + "WHERE c.connamespace = ?::regnamespace AND c.conrelid::regclass::text NOT LIKE '%flyway_schema_history'",
+                String.class, schema);
+        List<String> indices = jdbcTemplate.queryForList(
+                "SELECT tablename || ' ' || regexp_replace(indexdef, '^.* USING ', '') FROM pg_indexes "
+                        + "WHERE schemaname = ? AND tablename <> 'flyway_schema_history'",
+                String.class, schema);
+        List<String> todo = new ArrayList<>(columnas);
+        restricciones.forEach(r -> todo.add(r.replace(schema + ".", "")));
+        todo.addAll(indices);
+        return todo;
+    }
+}
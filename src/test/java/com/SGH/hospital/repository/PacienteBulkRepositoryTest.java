@@ -0,0 +1,115 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.config.PiiCipher;
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.repository.PacienteBulkRepository.NuevoPaciente;
+import com.SGH.hospital.service.PacienteService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Alta masiva por COPY sobre PostgreSQL real, con el esquema de las migraciones: ids
+ * reservados de usuario_seq en bloques pooled-lo, valores con comillas y comas en el CSV
+ * y errores de restricción traducidos, tanto por COPY como por el batch del reintento.
+ * El batch JDBC sobre H2 lo prueba PacienteImportServiceTest.
+ *
+ * Necesita Docker: sin Docker el test se saltea.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.main.keep-alive=false",
+        "spring.devtools.restart.enabled=false",
+        "logging.level.root=WARN",
+        "pii.encryption-key=AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=",
+        "pii.blind-index-key=aW5kaWNlLWNpZWdvLWRlLXBydWViYS0zMi1ieXRlcyE="
+})
+@Testcontainers(disabledWithoutDocker = true)
+class PacienteBulkRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired
+    private PacienteBulkRepository pacienteBulkRepository;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PiiCipher piiCipher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void copyLoadsUsersAndPatientsWithIdsFromTheSequence() {
+        long antes = siguienteDeLaSecuencia();
+        List<NuevoPaciente> nuevos = new ArrayList<>();
+        // Comillas y comas viajan escapadas en el CSV de COPY
+        nuevos.add(nuevo("39100000", "copy0@hospital.com", "Av. \"La Plata\", 1200"));
+        for (int i = 1; i < 60; i++) {
+            nuevos.add(nuevo(String.valueOf(39_100_000 + i), "copy" + i + "@hospital.com", "Mitre 100"));
+        }
+
+        Integer insertadas = transactionTemplate.execute(status -> pacienteBulkRepository.insertar(nuevos));
+
+        assertThat(insertadas).isEqualTo(60);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM paciente WHERE id > ? ORDER BY id", Long.class, antes))
+                .containsExactlyElementsOf(LongStream.range(antes + 50, antes + 110).boxed().toList());
+        assertThat(siguienteDeLaSecuencia()).isEqualTo(antes + 150);
+
+        PacienteResponse primero = pacienteService.obtenerPorId(antes + 50);
+        assertThat(primero.getDni()).isEqualTo("39100000");
+        assertThat(primero.getEmail()).isEqualTo("copy0@hospital.com");
+        assertThat(primero.getDireccion()).isEqualTo("Av. \"La Plata\", 1200");
+    }
+
+    @Test
+    void repeatedEmailIsADuplicateKeyByCopyAndByBatch() {
+        transactionTemplate.execute(status -> pacienteBulkRepository.insertar(
+                List.of(nuevo("39200000", "repetido@hospital.com", "Mitre 100"))));
+        List<NuevoPaciente> repetido = List.of(nuevo("39200001", "repetido@hospital.com", "Mitre 100"));
+
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> pacienteBulkRepository.insertar(repetido)))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        List<Long> ids = pacienteBulkRepository.reservarIds(1);
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+                status -> pacienteBulkRepository.insertarConIds(repetido, ids)))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessageContaining("email_hash");
+    }
+
+    private NuevoPaciente nuevo(String dni, String email, String direccion) {
+        PacienteRequest datos = PacienteRequest.builder()
+                .nombre("Carla").apellido("Copiada").dni(dni).email(email)
+                .password("Secreta123").telefono("1155550000").fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .direccion(direccion).numeroAfiliado("AF-" + dni).obraSocial("OSDE").build();
+        return new NuevoPaciente(datos, "hash", piiCipher.blindIndexDni(dni), piiCipher.blindIndexEmail(email));
+    }
+
+    private long siguienteDeLaSecuencia() {
+        return jdbcTemplate.queryForObject("SELECT nextval('usuario_seq')", Long.class);
+    }
+}
@@ -0,0 +1,312 @@
+package com.SGH.hospital.repository;
+
+import com.SGH.hospital.config.PiiCipher;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.enums.CampoOrden;
+import com.SGH.hospital.enums.EstadoUsuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sobre PostgreSQL real, con el esquema de las migraciones (Hibernate lo valida al
+ * arrancar) y un dataset sembrado y analizado, ninguna consulta de los repositorios
+ * planifica un Seq Scan sobre las tablas grandes. La base arranca con el esquema anterior
+ * a Flyway, como las de producción: los índices que se prueban son los que reciben ellas.
+ *
+ * Cada llamada se ejecuta una vez capturando sus sentencias con los parámetros
+ * enlazados; después se pide el EXPLAIN de cada una con esos mismos valores. medico y
+ * especialidades quedan fuera: son chicas y el planificador puede leerlas enteras con
+ * razón. Las búsquedas por texto contenido (LIKE '%x%') no usan índice B-tree y no se
+ * prueban acá.
+ *
+ * Necesita Docker: sin Docker el test se saltea.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.main.keep-alive=false",
+        "spring.devtools.restart.enabled=false",
+        "logging.level.root=WARN",
+        "pii.encryption-key=AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=",
+        "pii.blind-index-key=aW5kaWNlLWNpZWdvLWRlLXBydWViYS0zMi1ieXRlcyE="
+})
+@Testcontainers(disabledWithoutDocker = true)
+class PlanesConsultaTest {
+
+    private static final int MEDICOS = 10_000;
+    private static final int USUARIOS = 200_000;
+    private static final Set<String> TABLAS_GRANDES = Set.of(
+            "usuario", "paciente", "medico_especialidad", "horarios_atencion", "tokens_revocados");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine")
+            .withInitScript("db/esquema-anterior.sql");
+
+    // Sentencias de la llamada en curso (solo las del hilo del test, no las de los jobs)
+    private static final ThreadLocal<List<Sentencia>> capturadas = new ThreadLocal<>();
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private HorarioAtencionRepository horarioAtencionRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TokenRevocadoRepository tokenRevocadoRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PiiCipher piiCipher;
+
+    private static boolean sembrado;
+
+    @BeforeEach
+    void sembrar() {
+        if (sembrado) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO especialidades (id, nombre, activa) " +
+                "SELECT g, 'Especialidad ' || g, true FROM generate_series(1, 40) g");
+        // 1% suspendidos, 1% inactivos; los datos cifrados son válidos para que las proyecciones descifren
+        jdbcTemplate.update("INSERT INTO usuario (id, tipo_usuario, nombre, apellido, dni, dni_hash, email, " +
+                        "email_hash, password, rol, estado, suspendido_hasta, created_at, updated_at) " +
+                        "SELECT g, CASE WHEN g <= ? THEN 'MEDICO' ELSE 'PACIENTE' END, 'Nombre' || (g % 700), " +
+                        "'Apellido' || lpad((g % 20000)::text, 5, '0'), ?, md5('dni' || g), ?, md5('email' || g), " +
+                        "'x', CASE WHEN g <= ? THEN 'MEDICO' ELSE 'PACIENTE' END, " +
+                        "CASE WHEN g % 100 = 0 THEN 'SUSPENDIDO' WHEN g % 50 = 0 THEN 'INACTIVO' ELSE 'ACTIVO' END, " +
+                        "CASE WHEN g % 100 = 0 THEN now() + interval '1 day' END, " +
+                        "now() - g * interval '1 minute', now() - g * interval '1 minute' " +
+                        "FROM generate_series(1, ?) g",
+                MEDICOS, piiCipher.encrypt("30111222"), piiCipher.encrypt("seed@hospital.com"), MEDICOS, USUARIOS);
+        jdbcTemplate.update("INSERT INTO medico (id, matricula, anios_experiencia, disponible) " +
+                "SELECT g, 'MN' || g, g % 30, g % 3 <> 0 FROM generate_series(1, ?) g", MEDICOS);
+        jdbcTemplate.update("INSERT INTO paciente (id, numero_afiliado, obra_social) " +
+                "SELECT g, 'AF' || g, 'OSDE' FROM generate_series(?, ?) g", MEDICOS + 1, USUARIOS);
+        jdbcTemplate.update("INSERT INTO medico_especialidad (medico_id, especialidad_id) " +
+                "SELECT g, g % 40 + 1 FROM generate_series(1, ?) g " +
+                "UNION ALL SELECT g, (g + 7) % 40 + 1 FROM generate_series(1, ?) g", MEDICOS, MEDICOS);
+        jdbcTemplate.update("INSERT INTO horarios_atencion (id, medico_id, dia_semana, hora_inicio, hora_fin, activo) " +
+                "SELECT (g - 1) * 5 + d, g, (ARRAY['MONDAY','TUESDAY','WEDNESDAY','THURSDAY','FRIDAY'])[d], " +
+                "'08:00', '12:00', true FROM generate_series(1, ?) g, generate_series(1, 5) d", MEDICOS);
+        // Casi todas vigentes: la purga horaria borra las expiradas
+        jdbcTemplate.update("INSERT INTO tokens_revocados (id, tipo, usuario_id, expira_en, revocado_en) " +
+                "SELECT md5('token' || g), 'TOKEN', g % 200000 + 1, " +
+                "now() + CASE WHEN g % 100 = 0 THEN interval '-1 hour' ELSE interval '7 days' END, now() " +
+                "FROM generate_series(1, 50000) g");
+        jdbcTemplate.execute("VACUUM ANALYZE");
+        sembrado = true;
+    }
+
+    @Test
+    void pacienteQueriesUseIndexes() {
+        PageRequest porApellido = PageRequest.of(0, 20, Sort.by("apellido", "id"));
+        sinSeqScan("findResponseById", () -> pacienteRepository.findResponseById(150_000L));
+        sinSeqScan("findResponseByDniHash", () -> pacienteRepository.findResponseByDniHash(md5Sembrado("dni", 12_345)));
+        sinSeqScan("findResponseByEmailHash", () -> pacienteRepository.findResponseByEmailHash(md5Sembrado("email", 54_321)));
+        sinSeqScan("existsByDniHash", () -> pacienteRepository.existsByDniHash(md5Sembrado("dni", 99_999)));
+        sinSeqScan("findResponsesByEstado", () ->
+                pacienteRepository.findResponsesByEstado(EstadoUsuario.SUSPENDIDO, porApellido));
+        sinSeqScan("countByEstado", () -> pacienteRepository.countByEstado(EstadoUsuario.SUSPENDIDO));
+        sinSeqScan("findAllResponses", () -> pacienteRepository.findAllResponses(porApellido));
+        sinSeqScan("findResponsesDesde", () -> pacienteRepository.findResponsesDesde(
+                Cursor.inicio(CampoOrden.APELLIDO, Sort.Direction.ASC).siguiente("Apellido10000", 10_000L), 20));
+        sinSeqScan("findResponsesDesdeId", () -> pacienteRepository.findResponsesDesdeId(120_000L, Limit.of(5_000)));
+        sinSeqScan("findResponsesModificadosDesde", () ->
+                pacienteRepository.findResponsesModificadosDesde(LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void medicoQueriesUseIndexes() {
+        PageRequest porApellido = PageRequest.of(0, 20, Sort.by("apellido"));
+        List<Long> ids = List.of(10L, 20L, 30L, 40L, 50L);
+        sinSeqScan("findByMatricula", () -> medicoRepository.findByMatricula("MN4321"));
+        sinSeqScan("findByDniHash", () -> medicoRepository.findByDniHash(md5Sembrado("dni", 4_321)));
+        sinSeqScan("findByEstado", () -> medicoRepository.findByEstado(EstadoUsuario.SUSPENDIDO, porApellido));
+        sinSeqScan("findPaginaIds", () -> medicoRepository.findPaginaIds(porApellido));
+        sinSeqScan("findIdsByEspecialidadId", () -> medicoRepository.findIdsByEspecialidadId(7L, porApellido));
+        sinSeqScan("findByIdWithAll", () -> medicoRepository.findByIdWithAll(1_234L));
+        sinSeqScan("findAllWithEspecialidades", () -> medicoRepository.findAllWithEspecialidades(ids));
+        sinSeqScan("findAllWithHorarios", () -> medicoRepository.findAllWithHorarios(ids));
+    }
+
+    @Test
+    void horarioUsuarioAndTokenQueriesUseIndexes() {
+        sinSeqScan("findByMedicoId", () -> horarioAtencionRepository.findByMedicoId(2_345L));
+        sinSeqScan("findByMedicoIdAndActivo", () -> horarioAtencionRepository.findByMedicoIdAndActivo(2_345L, true));
+        sinSeqScan("findByMedicoAndDia", () -> horarioAtencionRepository.findByMedicoAndDia(2_345L, DayOfWeek.MONDAY));
+        sinSeqScan("findCredencialByEmailHash", () ->
+                usuarioRepository.findCredencialByEmailHash(md5Sembrado("email", 777)));
+        sinSeqScan("streamSuspensionesPendientes", () -> transactionTemplate.executeWithoutResult(
+                tx -> usuarioRepository.streamSuspensionesPendientes().close()));
+        sinSeqScan("deleteExpiradas", () -> transactionTemplate.executeWithoutResult(
+                tx -> tokenRevocadoRepository.deleteExpiradas(Instant.now())));
+    }
+
+    // ==================== Captura y EXPLAIN ====================
+
+    // md5 de la siembra: los índices ciegos sembrados son md5(prefijo || g)
+
+    private void sinSeqScan(String consulta, Runnable llamada) {
+        List<Sentencia> sentencias = new ArrayList<>();
+        capturadas.set(sentencias);
+        try {
+            llamada.run();
+        } finally {
+            capturadas.remove();
+        }
+
+        assertThat(sentencias).as(consulta).isNotEmpty();
+        for (Sentencia sentencia : sentencias) {
+            String plan = explicar(sentencia);
+            Matcher seqScan = SEQ_SCAN.matcher(plan);
+            while (seqScan.find()) {
+                assertThat(TABLAS_GRANDES).as("%s planifica Seq Scan:%n%s%n%s", consulta, sentencia.sql(), plan)
+                        .doesNotContain(seqScan.group(1));
+            }
+        }
+    }
+
+    // EXPLAIN de la sentencia con los mismos parámetros enlazados que usó la llamada
+    private String explicar(Sentencia sentencia) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sentencia.sql())) {
+            for (Parametro parametro : sentencia.parametros()) {
+                parametro.metodo().invoke(explain, parametro.args());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo explicar: " + sentencia.sql(), e);
+        }
+    }
+
+    // Una sentencia preparada ejecutada, con las llamadas set* que enlazaron sus parámetros
+    private record Sentencia(String sql, List<Parametro> parametros) {
+    }
+
+    private record Parametro(Method metodo, Object[] args) {
+    }
+
+    private static String md5Sembrado(String prefijo, int g) {
+        try {
+            byte[] hash = MessageDigest.getInstance("MD5").digest((prefijo + g).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class CapturaSentencias {
+
+        // Envuelve el DataSource: cada PreparedStatement anota sus parámetros y, al
+        // ejecutarse en un hilo que está capturando, se registra
+        @Bean
+        static BeanPostProcessor capturarSentencias() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? proxy(DataSource.class, dataSource, CapturaSentencias::dataSource) : bean;
+                }
+            };
+        }
+
+        private static Object dataSource(Object target, Method method, Object[] args) throws Exception {
+            Object result = method.invoke(target, args);
+            return result instanceof Connection connection
+                    ? proxy(Connection.class, connection, CapturaSentencias::conexion) : result;
+        }
+
+        private static Object conexion(Object target, Method method, Object[] args) throws Exception {
+            Object result = method.invoke(target, args);
+            if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                String sql = (String) args[0];
+                List<Parametro> parametros = new ArrayList<>();
+                return proxy(PreparedStatement.class, statement, (s, m, a) -> {
+                    if (m.getName().startsWith("set") && a != null && a.length >= 2 && a[0] instanceof Integer) {
+                        parametros.add(new Parametro(m, a.clone()));
+                    } else if (m.getName().equals("clearParameters")) {
+                        parametros.clear();
+                    } else if (m.getName().startsWith("execute") && capturadas.get() != null) {
+                        capturadas.get().add(new Sentencia(sql, List.copyOf(parametros)));
+                    }
+                    return m.invoke(s, a);
+                });
+            }
+            return result;
+        }
+
+        @FunctionalInterface
+        private interface Handler {
+            Object invoke(Object target, Method method, Object[] args) throws Exception;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<?> tipo, T target, Handler handler) {
+            return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (p, method, args) -> {
+                try {
+                    return handler.invoke(target, method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.auth.AuthResponse;
+import com.SGH.hospital.dto.auth.LoginRequest;
+import com.SGH.hospital.dto.auth.RefreshTokenRequest;
+import com.SGH.hospital.exception.UnauthorizedException;
+import com.SGH.hospital.config.PiiCipher;
+import com.SGH.hospital.repository.TokenRevocadoRepository;
+import com.SGH.hospital.repository.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.SGH.hospital.service.DatosDePrueba.PASSWORD;
+import static com.SGH.hospital.service.DatosDePrueba.paciente;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Login con una sola consulta, con el mismo trabajo de BCrypt exista o no el email y con
+ * re-hash de los costos viejos; y sesiones con refresh tokens rotados: el reuso de un
+ * token viejo revoca la sesión completa, también los tokens emitidos después.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        // Base propia: los usuarios de este test no cuentan en los listados de otros tests
+        "spring.datasource.url=jdbc:h2:mem:auth;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        // Un costo por encima del mínimo de BCrypt (4), para tener hashes más débiles que re-hashear
+        "security.bcrypt.strength=5"
+})
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PiiCipher piiCipher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private TokenRevocadoRepository tokenRevocadoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void loginReadsTheCredentialWithASingleQuery() {
+        String email = crearPaciente();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        AuthResponse auth = authService.login(login(email, PASSWORD));
+
+        assertThat(auth.getEmail()).isEqualTo(email);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void unknownEmailStillRunsBcryptAgainstADummyHash() {
+        assertThatThrownBy(() -> authService.login(login("desconocido@hospital.com", PASSWORD)))
+                .isInstanceOf(BadCredentialsException.class);
+
+        // Se compara contra un hash real del costo actual, como con una contraseña incorrecta
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(passwordEncoder).matches(eq(PASSWORD), hash.capture());
+        assertThat(hash.getValue()).startsWith("$2a$05$");
+        assertThat(passwordEncoder.upgradeEncoding(hash.getValue())).isFalse();
+    }
+
+    @Test
+    void weakerHashIsRewrittenOnlyAfterASuccessfulLogin() {
+        String email = crearPaciente();
+        String debil = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        transactionTemplate.executeWithoutResult(status ->
+                usuarioRepository.updatePasswordByEmailHash(piiCipher.blindIndexEmail(email), debil));
+
+        // Contraseña incorrecta: no se toca el hash
+        assertThatThrownBy(() -> authService.login(login(email, "Incorrecta123")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(passwordGuardada(email)).isEqualTo(debil);
+
+        // El login no tiene transacción: el nuevo hash se confirma en la de updatePassword
+        authService.login(login(email, PASSWORD));
+        String nuevo = passwordGuardada(email);
+        assertThat(nuevo).startsWith("$2a$05$");
+        assertThat(passwordEncoder.matches(PASSWORD, nuevo)).isTrue();
+        assertThat(authService.login(login(email, PASSWORD)).getEmail()).isEqualTo(email);
+    }
+
+    @Test
+    void bcryptRunsWithoutAnOpenTransaction() {
+        String email = crearPaciente();
+        List<Boolean> enTransaccion = new ArrayList<>();
+        doAnswer(invocation -> {
+            enTransaccion.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).matches(any(), any());
+
+        authService.login(login(email, PASSWORD));
+
+        // Ninguna conexión del pool queda tomada mientras corre BCrypt
+        assertThat(enTransaccion).containsExactly(false);
+    }
+
+    @Test
+    void reusedTokenKeepsTheFamilyRevokedAfterItExpiresAndIsPurged() {
+        String viejo = iniciarSesion().getRefreshToken();
+        String nuevo = authService.refreshToken(refresh(viejo)).getRefreshToken();
+
+        // Reuso del token ya rotado: se revoca la sesión
+        assertThatThrownBy(() -> authService.refreshToken(refresh(viejo)))
+                .isInstanceOf(UnauthorizedException.class);
+
+        // Purga corrida apenas vencido el token viejo: la revocación de la familia sigue
+        Instant vencimientoViejo = Instant.ofEpochMilli(jwtService.verify(viejo).getExpirationMillis());
+        transactionTemplate.executeWithoutResult(status -> tokenRevocadoRepository.deleteExpiradas(vencimientoViejo));
+        tokenRevocationService.cargarFiltro();
+
+        assertThatThrownBy(() -> authService.refreshToken(refresh(nuevo)))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+
+    @Test
+    void revokingAnAlreadyRevokedFamilyNeverShortensIt() {
+        String viejo = iniciarSesion().getRefreshToken();
+        String nuevo = authService.refreshToken(refresh(viejo)).getRefreshToken();
+        VerifiedToken token = jwtService.verify(nuevo);
+
+        tokenRevocationService.revokeFamily(token);
+        Instant primera = tokenRevocadoRepository.findById(token.getFamily()).orElseThrow().getExpiraEn();
+        // El token viejo vence antes que el nuevo: no debe acortar la revocación
+        tokenRevocationService.revokeFamily(jwtService.verify(viejo));
+
+        assertThat(tokenRevocadoRepository.findById(token.getFamily()).orElseThrow().getExpiraEn())
+                .isAfterOrEqualTo(primera)
+                .isAfter(Instant.ofEpochMilli(token.getExpirationMillis()));
+    }
+
+    private AuthResponse iniciarSesion() {
+        return authService.login(login(crearPaciente(), PASSWORD));
+    }
+
+    private String crearPaciente() {
+        return pacienteService.crearPaciente(paciente()).getEmail();
+    }
+
+    private String passwordGuardada(String email) {
+        return jdbcTemplate.queryForObject("SELECT password FROM usuario WHERE email_hash = ?",
+                String.class, piiCipher.blindIndexEmail(email));
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest login = new LoginRequest();
+        login.setEmail(email);
+        login.setPassword(password);
+        return login;
+    }
+
+    private static RefreshTokenRequest refresh(String token) {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(token);
+        return request;
+    }
+}
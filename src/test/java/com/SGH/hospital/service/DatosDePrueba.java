@@ -0,0 +1,68 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Requests válidos para los tests de servicio. Cada llamada usa DNI, email y matrícula
+ * nuevos, así que los tests pueden crear datos sin coordinar valores entre sí.
+ */
+final class DatosDePrueba {
+
+    static final String PASSWORD = "Secreta123";
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    private DatosDePrueba() {
+    }
+
+    static PacienteRequest paciente() {
+        int n = SECUENCIA.incrementAndGet();
+        return PacienteRequest.builder()
+                .nombre("Paula")
+                .apellido("Prueba")
+                .dni(dni(n))
+                .email("paciente" + n + "@hospital.com")
+                .password(PASSWORD)
+                .telefono("1150000000")
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .direccion("Calle 1")
+                .numeroAfiliado("AF-" + n)
+                .obraSocial("OSDE")
+                .build();
+    }
+
+    static MedicoRequest medico(Long especialidadId, HorarioAtencionDTO... horarios) {
+        int n = SECUENCIA.incrementAndGet();
+        MedicoRequest request = new MedicoRequest();
+        request.setMatricula("MN-" + n);
+        request.setNombre("Mario");
+        request.setApellido("Prueba");
+        request.setDni(dni(n));
+        request.setEmail("medico" + n + "@hospital.com");
+        request.setPassword(PASSWORD);
+        request.setEspecialidadIds(Set.of(especialidadId));
+        request.setHorarios(Set.of(horarios));
+        return request;
+    }
+
+    static HorarioAtencionDTO franja(DayOfWeek dia, int desde, int hasta) {
+        HorarioAtencionDTO dto = new HorarioAtencionDTO();
+        dto.setDiaSemana(dia);
+        dto.setHoraInicio(LocalTime.of(desde, 0));
+        dto.setHoraFin(LocalTime.of(hasta, 0));
+        return dto;
+    }
+
+    // 8 dígitos, fuera de los DNI fijos que usan algunos tests
+    private static String dni(int n) {
+        return String.valueOf(30_000_000 + n);
+    }
+}
@@ -0,0 +1,132 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.controller.EspecialidadController;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.especialidad.EspecialidadResponse;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.dto.medico.MedicoResponse;
+import com.SGH.hospital.entity.Especialidad;
+import com.SGH.hospital.exception.DuplicateResourceException;
+import com.SGH.hospital.exception.EspecialidadNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Catálogo de especialidades en memoria: los médicos se arman sin leer especialidades
+ * de la base, las escrituras se publican al confirmar y la lista pública responde 304
+ * mientras no cambie.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:especialidades;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class EspecialidadCatalogoTest {
+
+    @Autowired
+    private EspecialidadService especialidadService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void crearMockMvc() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new EspecialidadController(especialidadService, Duration.ofMinutes(5)))
+                .build();
+    }
+
+    @Test
+    void doctorsAreBuiltWithoutReadingSpecialtiesFromTheDatabase() {
+        Long neurologia = especialidadService.crear(new EspecialidadRequest("Neurología")).getId();
+        Long oftalmologia = especialidadService.crear(new EspecialidadRequest("Oftalmología")).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MedicoResponse medico = medicoService.crearMedico(medico(Set.of(neurologia, oftalmologia)));
+
+        assertThat(statistics.getEntityStatistics(Especialidad.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Especialidad.class.getName()).getFetchCount()).isZero();
+        assertThat(medico.getEspecialidades()).extracting(e -> e.getNombre())
+                .containsExactlyInAnyOrder("Neurología", "Oftalmología");
+        assertThatThrownBy(() -> especialidadService.verificarExistentes(Set.of(neurologia, 987_654L)))
+                .isInstanceOf(EspecialidadNotFoundException.class)
+                .hasMessageContaining("987654");
+    }
+
+    @Test
+    void writesArePublishedToTheSnapshot() {
+        EspecialidadResponse creada = especialidadService.crear(new EspecialidadRequest("Dermatologia"));
+        CatalogoEspecialidades antes = especialidadService.catalogo();
+
+        // El nombre se compara sin tildes ni mayúsculas
+        assertThatThrownBy(() -> especialidadService.crear(new EspecialidadRequest("  DERMATOLOGÍA ")))
+                .isInstanceOf(DuplicateResourceException.class);
+
+        especialidadService.actualizar(creada.getId(), new EspecialidadRequest("Dermatología"));
+        assertThat(especialidadService.catalogo().porId(creada.getId()))
+                .get().extracting(EspecialidadResponse::getNombre).isEqualTo("Dermatología");
+
+        especialidadService.cambiarEstado(creada.getId(), false);
+        CatalogoEspecialidades despues = especialidadService.catalogo();
+        assertThat(despues.activas()).extracting(EspecialidadResponse::getId).doesNotContain(creada.getId());
+        assertThat(despues.porId(creada.getId())).isPresent();
+        assertThat(despues.etag()).isNotEqualTo(antes.etag());
+        // Una foto ya entregada no cambia
+        assertThat(antes.activas()).extracting(EspecialidadResponse::getId).contains(creada.getId());
+    }
+
+    @Test
+    void publicListRevalidatesWithTheEtag() throws Exception {
+        especialidadService.crear(new EspecialidadRequest("Urología"));
+
+        MvcResult primera = mockMvc.perform(get("/api/public/especialidades"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+                .andReturn();
+        String etag = primera.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").doesNotStartWith("W/");
+        assertThat(primera.getResponse().getContentAsString()).contains("Urología");
+
+        mockMvc.perform(get("/api/public/especialidades").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        especialidadService.crear(new EspecialidadRequest("Nefrología"));
+        mockMvc.perform(get("/api/public/especialidades").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    private static MedicoRequest medico(Set<Long> especialidades) {
+        MedicoRequest request = new MedicoRequest();
+        request.setMatricula("MN-CAT1");
+        request.setNombre("Julia");
+        request.setApellido("Catálogo");
+        request.setDni("34000001");
+        request.setEmail("catalogo@hospital.com");
+        request.setPassword("secreta123");
+        request.setEspecialidadIds(especialidades);
+        return request;
+    }
+}
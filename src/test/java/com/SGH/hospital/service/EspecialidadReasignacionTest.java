@@ -0,0 +1,112 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.especialidad.EspecialidadDTO;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.especialidad.ReasignacionResponse;
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.entity.Medico;
+import com.SGH.hospital.exception.BadRequestException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reasignar, fusionar y desvincular especialidades con una sentencia para todos los
+ * médicos: sin cargar médicos y sin vaciar otras regiones de la caché.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        // Base propia: los médicos de este test no cuentan en los listados de otros tests
+        properties = "spring.datasource.url=jdbc:h2:mem:reasignacion;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class EspecialidadReasignacionTest {
+
+    private static final String ESPECIALIDADES = Medico.class.getName() + ".especialidades";
+    private static final String HORARIOS = Medico.class.getName() + ".horariosAtencion";
+
+    @Autowired
+    private EspecialidadService especialidadService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void mergeMovesEveryDoctorWithSetBasedStatements() {
+        Long traumatologia = especialidadService.crear(new EspecialidadRequest("Traumatología")).getId();
+        Long ortopedia = especialidadService.crear(new EspecialidadRequest("Ortopedia")).getId();
+        Long clinica = especialidadService.crear(new EspecialidadRequest("Clínica General")).getId();
+        Long soloTrauma = crearMedico(1, Set.of(traumatologia));
+        Long ambas = crearMedico(2, Set.of(traumatologia, ortopedia));
+        Long otro = crearMedico(3, Set.of(clinica));
+        Set.of(soloTrauma, ambas, otro).forEach(medicoService::obtenerPorId);
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        ReasignacionResponse resultado = especialidadService.fusionar(traumatologia, ortopedia);
+
+        // El médico que ya tenía ortopedia no la recibe dos veces
+        assertThat(resultado.getAsignacionesCreadas()).isEqualTo(1);
+        assertThat(resultado.getAsignacionesQuitadas()).isEqualTo(2);
+        assertThat(statistics.getEntityStatistics(Medico.class.getName()).getLoadCount()).isZero();
+
+        // Solo se invalidan las colecciones de especialidades, no el resto de la caché
+        Cache cache = sessionFactory.getCache();
+        assertThat(cache.containsCollection(ESPECIALIDADES, soloTrauma)).isFalse();
+        assertThat(cache.containsCollection(HORARIOS, soloTrauma)).isTrue();
+
+        assertThat(especialidades(soloTrauma)).containsExactly(ortopedia);
+        assertThat(especialidades(ambas)).containsExactly(ortopedia);
+        assertThat(especialidades(otro)).containsExactly(clinica);
+        assertThat(especialidadService.catalogo().porId(traumatologia)).get()
+                .extracting(e -> e.isActiva()).isEqualTo(false);
+
+        // Una especialidad inactiva no puede recibir médicos
+        assertThatThrownBy(() -> especialidadService.reasignar(clinica, traumatologia))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> especialidadService.reasignar(clinica, clinica))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(especialidadService.desvincular(clinica).getAsignacionesQuitadas()).isEqualTo(1);
+        assertThat(especialidades(otro)).isEmpty();
+    }
+
+    private Set<Long> especialidades(Long medicoId) {
+        return Set.copyOf(medicoService.obtenerPorId(medicoId).getEspecialidades().stream()
+                .map(EspecialidadDTO::getId)
+                .toList());
+    }
+
+    private Long crearMedico(int n, Set<Long> especialidades) {
+        HorarioAtencionDTO horario = new HorarioAtencionDTO();
+        horario.setDiaSemana(DayOfWeek.MONDAY);
+        horario.setHoraInicio(LocalTime.of(8, 0));
+        horario.setHoraFin(LocalTime.of(12, 0));
+
+        MedicoRequest request = new MedicoRequest();
+        request.setMatricula("MN-REA" + n);
+        request.setNombre("Ramiro");
+        request.setApellido("Reasignado");
+        request.setDni("3600000" + n);
+        request.setEmail("reasignacion" + n + "@hospital.com");
+        request.setPassword("secreta123");
+        request.setEspecialidadIds(especialidades);
+        request.setHorarios(Set.of(horario));
+        return medicoService.crearMedico(request).getId();
+    }
+}
@@ -0,0 +1,71 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportReaderTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Test
+    void readsCsvWithHeaderQuotesAndBom() throws IOException {
+        String csv = "\uFEFFnombre,apellido,dni,direccion,fechaNacimiento\n"
+                + "Ana,Pérez,30111222,\"Av. Rivadavia 1234, 3\"\"B\"\"\",1990-04-02\n"
+                + "\n"
+                + "Juan,,30111223,,1985-01-10\n";
+
+        try (ImportReader<PacienteRequest> reader = reader(csv, ImportReader.Formato.CSV)) {
+            ImportReader.Fila<PacienteRequest> primera = reader.next();
+            assertThat(primera.numero()).isEqualTo(1);
+            assertThat(primera.error()).isNull();
+            assertThat(primera.valor().getDireccion()).isEqualTo("Av. Rivadavia 1234, 3\"B\"");
+            assertThat(primera.valor().getFechaNacimiento()).isEqualTo(LocalDate.of(1990, 4, 2));
+
+            // La línea en blanco se saltea pero cuenta para el número de fila
+            ImportReader.Fila<PacienteRequest> segunda = reader.next();
+            assertThat(segunda.numero()).isEqualTo(3);
+            assertThat(segunda.valor().getApellido()).isNull();
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void malformedRowsAreReportedWithoutStoppingTheRead() throws IOException {
+        String ndjson = "{\"nombre\":\"Ana\",\"dni\":\"30111222\"}\n"
+                + "{\"nombre\":\"Juan\",\n"
+                + "{\"nombre\":\"Luis\",\"fechaNacimiento\":\"no-es-fecha\"}\n"
+                + "{\"nombre\":\"Eva\"}\n";
+
+        try (ImportReader<PacienteRequest> reader = reader(ndjson, ImportReader.Formato.NDJSON)) {
+            assertThat(reader.next().valor().getDni()).isEqualTo("30111222");
+            assertThat(reader.next().error()).startsWith("Formato inválido");
+            assertThat(reader.next().error()).startsWith("Formato inválido");
+            ImportReader.Fila<PacienteRequest> ultima = reader.next();
+            assertThat(ultima.numero()).isEqualTo(4);
+            assertThat(ultima.valor().getNombre()).isEqualTo("Eva");
+        }
+    }
+
+    @Test
+    void csvRowWithWrongColumnCountIsAnError() throws IOException {
+        String csv = "nombre,apellido\nAna,Pérez,sobra\n";
+
+        try (ImportReader<PacienteRequest> reader = reader(csv, ImportReader.Formato.CSV)) {
+            assertThat(reader.next().error()).contains("Se esperaban 2 columnas");
+        }
+    }
+
+    private ImportReader<PacienteRequest> reader(String contenido, ImportReader.Formato formato) {
+        return new ImportReader<>(new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)),
+                formato, jsonMapper, PacienteRequest.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.SGH.hospital.service;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private SimpleMeterRegistry registry;
+    private JwtService jwtService;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        jwtService = new JwtService(registry);
+        ReflectionTestUtils.setField(jwtService, "secretKey", "defaultSecretKeyForDevelopmentOnly123456789");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 120_000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 100L);
+        jwtService.init();
+
+        user = User.withUsername("ana@hospital.com").password("x").roles("PACIENTE").build();
+    }
+
+    @Test
+    void verifyParsesOnceAndServesRepeatsFromCache() {
+        String token = jwtService.generateToken(Map.of("rol", "PACIENTE", "userId", 7L), user);
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getSubject()).isEqualTo("ana@hospital.com");
+        assertThat(first.getUserId()).isEqualTo(7L);
+        assertThat(first.getRol()).isEqualTo("PACIENTE");
+        assertThat(jwtService.isTokenValid(token, user)).isTrue();
+        assertThat(registry.get("jwt.parse").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedAndNotCached() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+        // Cada intento vuelve a verificar la firma: los tokens inválidos no se cachean
+        assertThat(registry.get("jwt.parse").timer().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,135 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.config.CacheSegundoNivelConfig;
+import com.SGH.hospital.dto.especialidad.EspecialidadDTO;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.dto.medico.MedicoResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caché de segundo nivel: con la caché caliente el detalle de un médico es una sola
+ * consulta, y configurar horarios o asignar especialidades invalida las colecciones.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        // Base propia: el médico de este test no cuenta en los listados de otros tests
+        properties = "spring.datasource.url=jdbc:h2:mem:segundonivel;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class MedicoCacheSegundoNivelTest {
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EspecialidadService especialidadService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static Long medicoId;
+    private static Long pediatria;
+    private static Long traumatologia;
+
+    @BeforeEach
+    void cargarDatos() {
+        if (medicoId == null) {
+            pediatria = especialidadService.crear(new EspecialidadRequest("Pediatría L2")).getId();
+            traumatologia = especialidadService.crear(new EspecialidadRequest("Traumatología L2")).getId();
+            MedicoRequest request = new MedicoRequest();
+            request.setMatricula("MN-L2");
+            request.setNombre("Rocío");
+            request.setApellido("Cache");
+            request.setDni("33000001");
+            request.setEmail("segundonivel@hospital.com");
+            request.setPassword("secreta123");
+            request.setEspecialidadIds(Set.of(pediatria));
+            request.setHorarios(Set.of(horario(DayOfWeek.MONDAY), horario(DayOfWeek.THURSDAY)));
+            medicoId = medicoService.crearMedico(request).getId();
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void detailIsASingleQueryOnceCollectionsAreCached() {
+        double aciertos = aciertos(CacheSegundoNivelConfig.MEDICO_HORARIOS);
+
+        // Caché fría: médico, especialidades y horarios
+        MedicoResponse fria = contarConsultas(3);
+        // Caché caliente: solo el médico
+        MedicoResponse caliente = contarConsultas(1);
+
+        assertThat(caliente.getEspecialidades()).extracting(EspecialidadDTO::getNombre)
+                .containsExactlyInAnyOrderElementsOf(fria.getEspecialidades().stream().map(EspecialidadDTO::getNombre).toList());
+        assertThat(caliente.getHorarios()).extracting(HorarioAtencionDTO::getId)
+                .containsExactlyInAnyOrderElementsOf(fria.getHorarios().stream().map(HorarioAtencionDTO::getId).toList());
+        assertThat(aciertos(CacheSegundoNivelConfig.MEDICO_HORARIOS)).isGreaterThan(aciertos);
+    }
+
+    @Test
+    void configuringSchedulesInvalidatesTheCachedCollection() {
+        medicoService.obtenerPorId(medicoId);
+
+        medicoService.configurarHorarios(medicoId, Set.of(horario(DayOfWeek.TUESDAY)));
+
+        assertThat(medicoService.obtenerPorId(medicoId).getHorarios())
+                .extracting(HorarioAtencionDTO::getDiaSemana)
+                .containsExactly(DayOfWeek.TUESDAY);
+        medicoService.configurarHorarios(medicoId, Set.of(horario(DayOfWeek.MONDAY), horario(DayOfWeek.THURSDAY)));
+        assertThat(medicoService.obtenerPorId(medicoId).getHorarios())
+                .extracting(HorarioAtencionDTO::getDiaSemana)
+                .containsExactlyInAnyOrder(DayOfWeek.MONDAY, DayOfWeek.THURSDAY);
+    }
+
+    @Test
+    void assigningSpecialtiesInvalidatesTheCachedCollection() {
+        medicoService.obtenerPorId(medicoId);
+
+        medicoService.asignarEspecialidades(medicoId, Set.of(pediatria, traumatologia));
+
+        assertThat(medicoService.obtenerPorId(medicoId).getEspecialidades())
+                .extracting(EspecialidadDTO::getId)
+                .containsExactlyInAnyOrder(pediatria, traumatologia);
+        medicoService.asignarEspecialidades(medicoId, Set.of(pediatria));
+        assertThat(medicoService.obtenerPorId(medicoId).getEspecialidades())
+                .extracting(EspecialidadDTO::getId)
+                .containsExactly(pediatria);
+    }
+
+    private MedicoResponse contarConsultas(long consultas) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MedicoResponse medico = medicoService.obtenerPorId(medicoId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(consultas);
+        return medico;
+    }
+
+    private double aciertos(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "hit").functionCounter().count();
+    }
+
+    private static HorarioAtencionDTO horario(DayOfWeek dia) {
+        HorarioAtencionDTO dto = new HorarioAtencionDTO();
+        dto.setDiaSemana(dia);
+        dto.setHoraInicio(LocalTime.of(14, 0));
+        dto.setHoraFin(LocalTime.of(18, 0));
+        return dto;
+    }
+}
@@ -0,0 +1,121 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.horarioAtencion.HorariosPatchRequest;
+import com.SGH.hospital.dto.medico.MedicoResponse;
+import com.SGH.hospital.exception.BadRequestException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Set;
+
+import static com.SGH.hospital.service.DatosDePrueba.franja;
+import static com.SGH.hospital.service.DatosDePrueba.medico;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Configurar horarios escribe solo la diferencia con lo que ya hay, y el PATCH agrega
+ * o quita franjas sueltas.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        // Base propia: los médicos de este test no cuentan en los listados de otros tests
+        properties = "spring.datasource.url=jdbc:h2:mem:horarios;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class MedicoHorariosTest {
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EspecialidadService especialidadService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static Long clinica;
+
+    @Test
+    void sameScheduleWritesNothingAndAChangedSlotIsOneUpdate() {
+        Long medicoId = crearMedico(
+                franja(DayOfWeek.MONDAY, 8, 12), franja(DayOfWeek.MONDAY, 14, 18), franja(DayOfWeek.FRIDAY, 8, 12));
+        Statistics statistics = estadisticas();
+
+        statistics.clear();
+        medicoService.configurarHorarios(medicoId, Set.of(
+                franja(DayOfWeek.MONDAY, 8, 12), franja(DayOfWeek.MONDAY, 14, 18), franja(DayOfWeek.FRIDAY, 8, 12)));
+        assertCambios(statistics, 0, 0, 0);
+
+        // La franja de la tarde se corre una hora: se reusa la fila
+        statistics.clear();
+        MedicoResponse medico = medicoService.configurarHorarios(medicoId, Set.of(
+                franja(DayOfWeek.MONDAY, 8, 12), franja(DayOfWeek.MONDAY, 15, 19), franja(DayOfWeek.FRIDAY, 8, 12)));
+        assertCambios(statistics, 0, 1, 0);
+        assertThat(medico.getHorarios()).extracting(HorarioAtencionDTO::getHoraInicio)
+                .containsExactlyInAnyOrder(LocalTime.of(8, 0), LocalTime.of(15, 0), LocalTime.of(8, 0));
+
+        // Sale el viernes y entra el martes: otro día, no hay fila para reusar
+        statistics.clear();
+        medico = medicoService.configurarHorarios(medicoId, Set.of(
+                franja(DayOfWeek.MONDAY, 8, 12), franja(DayOfWeek.MONDAY, 15, 19), franja(DayOfWeek.TUESDAY, 8, 12)));
+        assertCambios(statistics, 1, 0, 1);
+        assertThat(medico.getHorarios()).extracting(HorarioAtencionDTO::getDiaSemana)
+                .containsExactlyInAnyOrder(DayOfWeek.MONDAY, DayOfWeek.MONDAY, DayOfWeek.TUESDAY);
+        assertThat(medico.getHorarios()).extracting(HorarioAtencionDTO::getId).doesNotContainNull();
+    }
+
+    @Test
+    void patchAddsAndRemovesSingleSlots() {
+        Long medicoId = crearMedico(franja(DayOfWeek.WEDNESDAY, 8, 12));
+        Statistics statistics = estadisticas();
+
+        HorariosPatchRequest request = new HorariosPatchRequest();
+        request.setAgregar(Set.of(franja(DayOfWeek.THURSDAY, 8, 12)));
+        // Quitar una franja que no está no es error
+        request.setQuitar(Set.of(franja(DayOfWeek.SATURDAY, 8, 12)));
+        statistics.clear();
+        MedicoResponse medico = medicoService.modificarHorarios(medicoId, request);
+        assertCambios(statistics, 1, 0, 0);
+        assertThat(medico.getHorarios()).extracting(HorarioAtencionDTO::getDiaSemana)
+                .containsExactlyInAnyOrder(DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY);
+
+        request = new HorariosPatchRequest();
+        request.setQuitar(Set.of(franja(DayOfWeek.WEDNESDAY, 8, 12)));
+        statistics.clear();
+        medico = medicoService.modificarHorarios(medicoId, request);
+        assertCambios(statistics, 0, 0, 1);
+        assertThat(medico.getHorarios()).extracting(HorarioAtencionDTO::getDiaSemana)
+                .containsExactly(DayOfWeek.THURSDAY);
+
+        HorariosPatchRequest contradictorio = new HorariosPatchRequest();
+        contradictorio.setAgregar(Set.of(franja(DayOfWeek.MONDAY, 8, 12)));
+        contradictorio.setQuitar(Set.of(franja(DayOfWeek.MONDAY, 8, 12)));
+        assertThatThrownBy(() -> medicoService.modificarHorarios(medicoId, contradictorio))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private Long crearMedico(HorarioAtencionDTO... horarios) {
+        if (clinica == null) {
+            clinica = especialidadService.crear(new EspecialidadRequest("Clínica Horarios")).getId();
+        }
+        return medicoService.crearMedico(medico(clinica, horarios)).getId();
+    }
+
+    private Statistics estadisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static void assertCambios(Statistics statistics, long inserts, long updates, long deletes) {
+        assertThat(statistics.getEntityInsertCount()).as("inserts").isEqualTo(inserts);
+        assertThat(statistics.getEntityUpdateCount()).as("updates").isEqualTo(updates);
+        assertThat(statistics.getEntityDeleteCount()).as("deletes").isEqualTo(deletes);
+    }
+}
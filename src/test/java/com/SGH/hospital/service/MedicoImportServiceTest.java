@@ -0,0 +1,161 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.especialidad.EspecialidadDTO;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.importacion.ErrorImportacion;
+import com.SGH.hospital.dto.importacion.ImportacionResponse;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.dto.medico.MedicoResponse;
+import com.SGH.hospital.entity.Medico;
+import com.SGH.hospital.repository.MedicoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.util.Set;
+
+import static com.SGH.hospital.service.DatosDePrueba.franja;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Importación NDJSON de médicos: cada registro inválido, repetido o con especialidades
+ * desconocidas se rechaza con su fila sin frenar al resto, y un lote que falla al
+ * guardarse se reintenta de a uno.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        // Base propia: los médicos de este test no cuentan en los listados de otros tests
+        properties = "spring.datasource.url=jdbc:h2:mem:importacion;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class MedicoImportServiceTest {
+
+    @Autowired
+    private MedicoImportService medicoImportService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EspecialidadService especialidadService;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private static Long cardiologia;
+
+    @Test
+    void rejectsInvalidRepeatedAndUnknownRowsAndImportsTheRest() {
+        // Ya cargado antes de la importación
+        MedicoRequest existente = medico();
+        medicoService.crearMedico(existente);
+
+        MedicoRequest primero = medico();
+        MedicoRequest invalido = medico();
+        invalido.setEmail("no-es-un-email");
+        invalido.getHorarios().iterator().next().setDiaSemana(null);
+        MedicoRequest matriculaRepetida = medico();
+        matriculaRepetida.setMatricula(primero.getMatricula());
+        MedicoRequest dniRepetido = medico();
+        dniRepetido.setDni(primero.getDni());
+        MedicoRequest matriculaExistente = medico();
+        matriculaExistente.setMatricula(existente.getMatricula());
+        MedicoRequest dniExistente = medico();
+        dniExistente.setDni(existente.getDni());
+        MedicoRequest especialidadDesconocida = medico();
+        especialidadDesconocida.setEspecialidadIds(Set.of(cardiologia, 999_999L));
+        MedicoRequest ultimo = medico();
+
+        ImportacionResponse response = importar(
+                linea(primero),
+                "{\"matricula\": ",
+                linea(invalido),
+                linea(matriculaRepetida),
+                linea(dniRepetido),
+                linea(matriculaExistente),
+                linea(dniExistente),
+                linea(especialidadDesconocida),
+                linea(ultimo));
+
+        assertThat(response.getTotalFilas()).isEqualTo(9);
+        assertThat(response.getImportadas()).isEqualTo(2);
+        assertThat(response.getRechazadas()).isEqualTo(7);
+        assertThat(response.getErrores())
+                .filteredOn(e -> e.getFila() != 2)
+                .extracting(ErrorImportacion::getFila, ErrorImportacion::getCampo, ErrorImportacion::getMensaje)
+                .containsExactly(
+                        tuple(3L, "email", "El email debe ser válido"),
+                        tuple(3L, "horarios.diaSemana", "El día de la semana es obligatorio"),
+                        tuple(4L, "matricula", "Matrícula repetida en el archivo"),
+                        tuple(5L, "dni", "DNI repetido en el archivo"),
+                        tuple(6L, "matricula", "Ya existe un médico con esa matrícula"),
+                        tuple(7L, "dni", "Ya existe un médico con ese DNI"),
+                        tuple(8L, "especialidadIds", "Especialidad no encontrada con ID: 999999"));
+        assertThat(response.getErrores()).filteredOn(e -> e.getFila() == 2).singleElement()
+                .satisfies(e -> assertThat(e.getMensaje()).startsWith("Formato inválido"));
+
+        // Los importados quedan con sus especialidades y horarios
+        MedicoResponse importado = guardado(primero.getMatricula());
+        assertThat(importado.getDni()).isEqualTo(primero.getDni());
+        assertThat(importado.getEspecialidades()).extracting(EspecialidadDTO::getId).containsExactly(cardiologia);
+        assertThat(importado.getHorarios()).extracting(HorarioAtencionDTO::getDiaSemana)
+                .containsExactly(DayOfWeek.MONDAY);
+        assertThat(medicoRepository.findByMatricula(ultimo.getMatricula())).isPresent();
+        assertThat(medicoRepository.findByMatricula(dniRepetido.getMatricula())).isEmpty();
+        assertThat(medicoRepository.findByMatricula(especialidadDesconocida.getMatricula())).isEmpty();
+    }
+
+    @Test
+    void failedBatchIsRetriedOneRecordAtATime() {
+        MedicoRequest antes = medico();
+        // Pasa la validación pero no entra en la columna (length = 1000): falla el lote entero
+        MedicoRequest demasiadoLargo = medico();
+        demasiadoLargo.setBiografia("x".repeat(1001));
+        MedicoRequest despues = medico();
+
+        ImportacionResponse response = importar(linea(antes), linea(demasiadoLargo), linea(despues));
+
+        assertThat(response.getTotalFilas()).isEqualTo(3);
+        assertThat(response.getImportadas()).isEqualTo(2);
+        assertThat(response.getRechazadas()).isEqualTo(1);
+        assertThat(response.getErrores()).singleElement().satisfies(e -> {
+            assertThat(e.getFila()).isEqualTo(2L);
+            assertThat(e.getCampo()).isNull();
+            assertThat(e.getMensaje()).startsWith("El registro viola una restricción de la base");
+        });
+
+        // Los reintentos usan entidades nuevas: quedan completos y sin restos del lote revertido
+        assertThat(guardado(antes.getMatricula()).getHorarios()).hasSize(1);
+        assertThat(guardado(despues.getMatricula()).getEspecialidades()).hasSize(1);
+        assertThat(medicoRepository.findByMatricula(demasiadoLargo.getMatricula())).isEmpty();
+    }
+
+    private ImportacionResponse importar(String... lineas) {
+        byte[] archivo = String.join("\n", lineas).getBytes(StandardCharsets.UTF_8);
+        return medicoImportService.importar(new ByteArrayInputStream(archivo));
+    }
+
+    private String linea(MedicoRequest request) {
+        return jsonMapper.writeValueAsString(request);
+    }
+
+    private MedicoResponse guardado(String matricula) {
+        Medico medico = medicoRepository.findByMatricula(matricula).orElseThrow();
+        return medicoService.obtenerPorId(medico.getId());
+    }
+
+    private MedicoRequest medico() {
+        if (cardiologia == null) {
+            cardiologia = especialidadService.crear(new EspecialidadRequest("Cardiología Importada")).getId();
+        }
+        return DatosDePrueba.medico(cardiologia, franja(DayOfWeek.MONDAY, 8, 12));
+    }
+}
@@ -0,0 +1,178 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.horarioAtencion.HorarioAtencionDTO;
+import com.SGH.hospital.dto.medico.MedicoRequest;
+import com.SGH.hospital.dto.medico.MedicoResponse;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.dto.paginacion.PaginaCursor;
+import com.SGH.hospital.dto.paginacion.PaginaResponse;
+import com.SGH.hospital.dto.especialidad.EspecialidadRequest;
+import com.SGH.hospital.enums.CampoOrden;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.enums.TipoConteo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los listados de médicos arman cada página con una cantidad fija de consultas:
+ * ids de la página, especialidades y horarios, más el COUNT solo cuando se pide el
+ * total exacto o no hay uno en la caché de conteos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class MedicoListadoQueryCountTest {
+
+    private static final int MEDICOS = 15;
+    private static final long CONSULTAS_POR_PAGINA = 3;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private EspecialidadService especialidadService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static Long cardiologia;
+
+    @BeforeEach
+    void cargarDatos() {
+        if (cardiologia != null) {
+            return;
+        }
+        cardiologia = especialidadService.crear(new EspecialidadRequest("Cardiología")).getId();
+        Long clinica = especialidadService.crear(new EspecialidadRequest("Clínica Médica")).getId();
+        for (int i = 0; i < MEDICOS; i++) {
+            MedicoRequest request = new MedicoRequest();
+            request.setMatricula("MN-Q" + i);
+            request.setNombre("Laura");
+            request.setApellido(String.format("Apellido%02d", i));
+            request.setDni(String.valueOf(31_000_000 + i));
+            request.setEmail("listado" + i + "@hospital.com");
+            request.setPassword("secreta123");
+            request.setEspecialidadIds(Set.of(cardiologia, clinica));
+            request.setHorarios(Set.of(
+                    horario(DayOfWeek.MONDAY), horario(DayOfWeek.WEDNESDAY), horario(DayOfWeek.FRIDAY)));
+            medicoService.crearMedico(request);
+        }
+    }
+
+    @Test
+    void listarTodosUsesConstantQueriesAndKeepsOrder() {
+        PageRequest pagina = PageRequest.of(0, 10, Sort.by("apellido").descending());
+
+        PaginaResponse<MedicoResponse> page =
+                contarConsultas(CONSULTAS_POR_PAGINA + 1, () -> medicoService.listarTodos(pagina, true));
+
+        assertThat(page.getTotalElementos()).isEqualTo(MEDICOS);
+        assertThat(page.getConteo()).isEqualTo(TipoConteo.EXACTO);
+        assertThat(page.getContenido()).hasSize(10);
+        assertThat(page.getContenido().get(0).getApellido()).isEqualTo("Apellido14");
+        assertThat(page.getContenido().get(9).getApellido()).isEqualTo("Apellido05");
+        assertThat(page.getContenido()).allSatisfy(m -> {
+            assertThat(m.getEspecialidades()).hasSize(2);
+            assertThat(m.getHorarios()).hasSize(3);
+        });
+    }
+
+    @Test
+    void filteredListingsUseConstantQueries() {
+        PageRequest pagina = PageRequest.of(0, 10, Sort.by("apellido"));
+
+        assertThat(contarConsultas(CONSULTAS_POR_PAGINA + 1,
+                () -> medicoService.buscarPorEspecialidad(cardiologia, pagina, true)).getContenido())
+                .hasSize(10);
+        assertThat(contarConsultas(CONSULTAS_POR_PAGINA + 1,
+                () -> medicoService.buscarDisponibles(pagina, true)).getContenido())
+                .hasSize(10);
+        assertThat(contarConsultas(CONSULTAS_POR_PAGINA + 1, () -> medicoService.buscarConFiltros(
+                null, "apellido", cardiologia, true, EstadoUsuario.ACTIVO, pagina, true)).getContenido())
+                .hasSize(10);
+    }
+
+    @Test
+    void searchAppliesOnlyTheSuppliedFilters() {
+        PageRequest pagina = PageRequest.of(0, 20, Sort.by("apellido"));
+
+        assertThat(medicoService.buscarConFiltros(null, "APELLIDO0", null, null, null, pagina, true)
+                .getTotalElementos()).isEqualTo(10);
+        assertThat(medicoService.buscarConFiltros("laura", "  ", cardiologia, true, null, pagina, true)
+                .getTotalElementos()).isEqualTo(MEDICOS);
+        assertThat(medicoService.buscarConFiltros(null, null, cardiologia, false, null, pagina, true)
+                .getContenido()).isEmpty();
+    }
+
+    @Test
+    void totalsComeFromTheCountCacheUnlessExactIsRequested() {
+        PageRequest primera = PageRequest.of(0, 5, Sort.by("apellido"));
+
+        // Sin conteo cacheado para este filtro: se cuenta una vez y queda en la caché
+        PaginaResponse<MedicoResponse> contada = contarConsultas(CONSULTAS_POR_PAGINA + 1,
+                () -> medicoService.buscarConFiltros("LAURA", null, null, null, null, primera, false));
+        assertThat(contada.getConteo()).isEqualTo(TipoConteo.EXACTO);
+
+        // Mismo filtro normalizado: el total sale de la caché, sin COUNT
+        PaginaResponse<MedicoResponse> cacheada = contarConsultas(CONSULTAS_POR_PAGINA,
+                () -> medicoService.buscarConFiltros("laura", null, null, null, null, primera, false));
+        assertThat(cacheada.getConteo()).isEqualTo(TipoConteo.ESTIMADO);
+        assertThat(cacheada.getTotalElementos()).isEqualTo(MEDICOS);
+        assertThat(cacheada.getTotalPaginas()).isEqualTo(3);
+
+        // La última página da el total exacto sin contar
+        PaginaResponse<MedicoResponse> ultima = contarConsultas(CONSULTAS_POR_PAGINA,
+                () -> medicoService.buscarConFiltros("aur", null, null, null, null, PageRequest.of(0, 50), false));
+        assertThat(ultima.getConteo()).isEqualTo(TipoConteo.EXACTO);
+        assertThat(ultima.getTotalElementos()).isEqualTo(MEDICOS);
+    }
+
+    @Test
+    void cursorPagesSkipTheCountAndContinueAfterTheCursor() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        PaginaCursor<MedicoResponse> primera = medicoService.listarPorCursor(
+                Cursor.inicio(CampoOrden.APELLIDO, Sort.Direction.DESC), 10);
+        // Posiciones, especialidades y horarios: sin COUNT
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(CONSULTAS_POR_PAGINA);
+
+        PaginaCursor<MedicoResponse> segunda = medicoService.listarPorCursor(
+                Cursor.decodificar(primera.getSiguienteCursor()), 10);
+
+        assertThat(primera.getContenido()).hasSize(10);
+        assertThat(primera.getContenido().get(9).getApellido()).isEqualTo("Apellido05");
+        assertThat(segunda.getContenido().get(0).getApellido()).isEqualTo("Apellido04");
+        assertThat(segunda.getContenido().get(0).getEspecialidades()).hasSize(2);
+    }
+
+    private PaginaResponse<MedicoResponse> contarConsultas(long consultas,
+                                                           Supplier<PaginaResponse<MedicoResponse>> listado) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        PaginaResponse<MedicoResponse> page = listado.get();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(consultas);
+        return page;
+    }
+
+    private static HorarioAtencionDTO horario(DayOfWeek dia) {
+        HorarioAtencionDTO dto = new HorarioAtencionDTO();
+        dto.setDiaSemana(dia);
+        dto.setHoraInicio(LocalTime.of(8, 0));
+        dto.setHoraFin(LocalTime.of(12, 0));
+        return dto;
+    }
+}
@@ -0,0 +1,147 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.paciente.BusquedaPacientesResponse;
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.dto.paciente.PacienteSugerencia;
+import com.SGH.hospital.dto.paciente.PacienteUpdateRequest;
+import com.SGH.hospital.enums.EstadoUsuario;
+import com.SGH.hospital.repository.PacienteRepository;
+import com.SGH.hospital.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La búsqueda rápida encuentra pacientes por palabras del nombre o apellido sin
+ * importar tildes, y por parte del DNI o del número de afiliado con o sin puntos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class PacienteBusquedaTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static Long nunez;
+    private static Long nunezGarcia;
+
+    @BeforeEach
+    void cargarDatos() {
+        if (nunez != null) {
+            return;
+        }
+        nunez = crear("María José", "Núñez", "35111222", "OS-7781").getId();
+        nunezGarcia = crear("Pedro", "Núñez-García", "35119000", "OS-9000").getId();
+        crear("Lucía", "Ñañez", "27333444", "AF-1234");
+    }
+
+    @Test
+    void matchesNamesIgnoringAccentsAndCase() {
+        assertThat(ids(pacienteService.buscarRapido("NUÑ", 10))).containsExactly(nunez, nunezGarcia);
+        assertThat(ids(pacienteService.buscarRapido("garc pe", 10))).containsExactly(nunezGarcia);
+        assertThat(ids(pacienteService.buscarRapido("nunez-gar", 10))).containsExactly(nunezGarcia);
+        assertThat(ids(pacienteService.buscarRapido("maria jo nunez", 10))).containsExactly(nunez);
+    }
+
+    @Test
+    void matchesPartialDniAndAfiliadoWithOrWithoutPunctuation() {
+        assertThat(ids(pacienteService.buscarRapido("35.11", 10))).containsExactly(nunez, nunezGarcia);
+        assertThat(ids(pacienteService.buscarRapido("35111222", 10))).containsExactly(nunez);
+        assertThat(ids(pacienteService.buscarRapido("os77", 10))).containsExactly(nunez);
+    }
+
+    @Test
+    void exactMatchesRankFirstAndLimitIsApplied() {
+        BusquedaPacientesResponse response = pacienteService.buscarRapido("nunez", 1);
+
+        assertThat(response.isParcial()).isFalse();
+        assertThat(response.getResultados()).hasSize(1);
+        assertThat(response.getResultados().get(0).getId()).isEqualTo(nunez);
+    }
+
+    @Test
+    void typingOneMoreLetterNarrowsThePreviousResults() {
+        assertThat(ids(pacienteService.buscarRapido("nu", 10))).contains(nunez, nunezGarcia);
+        assertThat(ids(pacienteService.buscarRapido("nun", 10))).contains(nunez, nunezGarcia);
+        assertThat(ids(pacienteService.buscarRapido("nune p", 10))).containsExactly(nunezGarcia);
+    }
+
+    @Test
+    void updatesAreVisibleToTheNextSearch() {
+        PacienteResponse paciente = crear("Tomás", "Quiroga", "40555666", "AF-5555");
+        assertThat(ids(pacienteService.buscarRapido("quiro", 10))).containsExactly(paciente.getId());
+
+        pacienteService.actualizarPaciente(paciente.getId(),
+                PacienteUpdateRequest.builder().apellido("Sosa").build());
+
+        assertThat(ids(pacienteService.buscarRapido("quiro", 10))).isEmpty();
+        assertThat(ids(pacienteService.buscarRapido("sosa tom", 10))).containsExactly(paciente.getId());
+    }
+
+    @Test
+    void liftedSuspensionsAreSeenByTheIndexRefresh() {
+        PacienteResponse paciente = crear("Elena", "Ibarra", "40777888", "AF-7777");
+        jdbcTemplate.update("UPDATE usuario SET estado = 'SUSPENDIDO', suspendido_hasta = ?, updated_at = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minusSeconds(60)),
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), paciente.getId());
+        LocalDateTime marca = LocalDateTime.now().minusMinutes(1);
+
+        // El vencimiento se levanta con un UPDATE en lote, sin pasar por la auditoría de JPA
+        transactionTemplate.executeWithoutResult(status -> usuarioRepository.levantarSuspensionesVencidas(
+                List.of(paciente.getId()), Instant.now(), LocalDateTime.now()));
+
+        assertThat(pacienteRepository.findResponsesModificadosDesde(marca))
+                .filteredOn(p -> p.getId().equals(paciente.getId()))
+                .extracting(PacienteResponse::getEstado)
+                .containsExactly(EstadoUsuario.ACTIVO);
+    }
+
+    @Test
+    void tooShortQueriesReturnNothing() {
+        assertThat(pacienteService.buscarRapido("n", 10).getResultados()).isEmpty();
+        assertThat(pacienteService.buscarRapido("   ", 10).getResultados()).isEmpty();
+    }
+
+    private PacienteResponse crear(String nombre, String apellido, String dni, String afiliado) {
+        return pacienteService.crearPaciente(PacienteRequest.builder()
+                .nombre(nombre)
+                .apellido(apellido)
+                .dni(dni)
+                .email("busqueda" + dni + "@hospital.com")
+                .password("Secreta123")
+                .fechaNacimiento(LocalDate.of(1985, 3, 2))
+                .direccion("Mitre 100")
+                .numeroAfiliado(afiliado)
+                .obraSocial("OSDE")
+                .build());
+    }
+
+    private static List<Long> ids(BusquedaPacientesResponse response) {
+        return response.getResultados().stream().map(PacienteSugerencia::getId).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.dto.paginacion.Cursor;
+import com.SGH.hospital.dto.paginacion.PaginaCursor;
+import com.SGH.hospital.enums.CampoOrden;
+import com.SGH.hospital.exception.BadRequestException;
+import com.SGH.hospital.repository.PacienteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El listado por cursor recorre todos los pacientes en orden (campo, id), sin repetir
+ * ni saltear registros con el mismo valor, y cada página es una sola consulta.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class PacienteCursorTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static boolean cargado;
+
+    @BeforeEach
+    void cargarDatos() {
+        if (cargado) {
+            return;
+        }
+        // Apellidos repetidos a propósito: el id desempata
+        for (int i = 0; i < 7; i++) {
+            pacienteService.crearPaciente(PacienteRequest.builder()
+                    .nombre("Ana")
+                    .apellido(i < 4 ? "Cursor" : "Cursor" + i)
+                    .dni(String.valueOf(34_000_000 + i))
+                    .email("cursor" + i + "@hospital.com")
+                    .password("Secreta123")
+                    .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                    .direccion("Av. Siempre Viva 742")
+                    .numeroAfiliado("AF-C" + i)
+                    .obraSocial("OSDE")
+                    .build());
+        }
+        cargado = true;
+    }
+
+    @Test
+    void walksEveryPacienteInKeyOrderWithOneStatementPerPage() {
+        List<PacienteResponse> esperados = pacienteRepository.findAll().stream()
+                .map(PacienteResponse::fromEntity)
+                .sorted(Comparator.comparing(PacienteResponse::getApellido).thenComparing(PacienteResponse::getId))
+                .toList();
+
+        List<PacienteResponse> recorridos = new ArrayList<>();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String cursor = null;
+        do {
+            statistics.clear();
+            PaginaCursor<PacienteResponse> pagina = pacienteService.listarPorCursor(
+                    Cursor.de(cursor, CampoOrden.APELLIDO, Sort.Direction.ASC), 3);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(pagina.getTamanio()).isLessThanOrEqualTo(3);
+            recorridos.addAll(pagina.getContenido());
+            cursor = pagina.getSiguienteCursor();
+        } while (cursor != null);
+
+        assertThat(recorridos).extracting(PacienteResponse::getId)
+                .containsExactlyElementsOf(esperados.stream().map(PacienteResponse::getId).toList());
+    }
+
+    @Test
+    void descendingCreatedAtKeepsTheCursorDirection() {
+        PaginaCursor<PacienteResponse> primera = pacienteService.listarPorCursor(
+                Cursor.inicio(CampoOrden.CREATED_AT, Sort.Direction.DESC), 2);
+        PaginaCursor<PacienteResponse> segunda = pacienteService.listarPorCursor(
+                Cursor.decodificar(primera.getSiguienteCursor()), 2);
+
+        List<PacienteResponse> ambas = new ArrayList<>(primera.getContenido());
+        ambas.addAll(segunda.getContenido());
+        assertThat(ambas).hasSize(4).isSortedAccordingTo(
+                Comparator.comparing(PacienteResponse::getCreatedAt)
+                        .thenComparing(PacienteResponse::getId).reversed());
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        assertThatThrownBy(() -> Cursor.decodificar("no-es-un-cursor"))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,153 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.config.PiiCipher;
+import com.SGH.hospital.dto.importacion.ErrorImportacion;
+import com.SGH.hospital.dto.importacion.ImportacionResponse;
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static com.SGH.hospital.service.DatosDePrueba.paciente;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Importación CSV de pacientes por el batch JDBC de PacienteBulkRepository (en H2 no hay
+ * COPY; ese camino lo prueba PacienteBulkRepositoryTest sobre PostgreSQL): rechazos por
+ * fila, ids reservados de usuario_seq y reintento fila por fila de un lote que falla.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        // Base propia: los ids y pacientes de este test no se cruzan con los de otros tests
+        properties = "spring.datasource.url=jdbc:h2:mem:importacion-pacientes;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class PacienteImportServiceTest {
+
+    private static final String ENCABEZADO =
+            "nombre,apellido,dni,email,password,telefono,fechaNacimiento,direccion,numeroAfiliado,obraSocial";
+
+    @MockitoSpyBean
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PacienteImportService pacienteImportService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PiiCipher piiCipher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rejectsInvalidAndRepeatedRowsAndImportsTheRest() {
+        PacienteRequest previo = paciente();
+        pacienteService.crearPaciente(previo);
+
+        ImportacionResponse response = importar(
+                fila("38100010", "ana@hospital.com"),
+                fila("38100011", "no-es-un-email"),
+                fila("38100010", "otra@hospital.com"),
+                fila("38100012", "ana@hospital.com"),
+                fila(previo.getDni(), "nueva@hospital.com"),
+                fila("38100013", previo.getEmail()),
+                "Ana,Pérez,sobra",
+                fila("38100014", "beto@hospital.com"));
+
+        assertThat(response.getTotalFilas()).isEqualTo(8);
+        assertThat(response.getImportadas()).isEqualTo(2);
+        assertThat(response.getRechazadas()).isEqualTo(6);
+        assertThat(response.getErrores())
+                .filteredOn(e -> e.getFila() != 7)
+                .extracting(ErrorImportacion::getFila, ErrorImportacion::getCampo, ErrorImportacion::getMensaje)
+                .containsExactly(
+                        tuple(2L, "email", "El email debe ser válido"),
+                        tuple(3L, "dni", "DNI repetido en el archivo"),
+                        tuple(4L, "email", "Email repetido en el archivo"),
+                        tuple(5L, "dni", "Ya existe un paciente con ese DNI"),
+                        tuple(6L, "email", "Ya existe un usuario con ese email"));
+        assertThat(response.getErrores()).filteredOn(e -> e.getFila() == 7).singleElement()
+                .satisfies(e -> assertThat(e.getMensaje()).startsWith("Formato inválido"));
+
+        // Las filas van cifradas y con su índice ciego, como las del alta normal
+        PacienteResponse importado = pacienteService.obtenerPorId(idDe("ana@hospital.com"));
+        assertThat(importado.getDni()).isEqualTo("38100010");
+        assertThat(importado.getNumeroAfiliado()).isEqualTo("AF-38100010");
+        assertThat(idDe("beto@hospital.com")).isNotNull();
+    }
+
+    @Test
+    void idsAreReservedFromUsuarioSeqInBlocksOfTheAllocationSize() {
+        long antes = siguienteDeLaSecuencia();
+
+        // 60 filas: dos bloques de 50 ids, el segundo usado en parte
+        List<String> filas = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            filas.add(fila(String.valueOf(38_200_000 + i), "bloque" + i + "@hospital.com"));
+        }
+        ImportacionResponse response = importar(filas.toArray(String[]::new));
+
+        assertThat(response.getImportadas()).isEqualTo(60);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM usuario WHERE id > ? ORDER BY id", Long.class, antes))
+                .containsExactlyElementsOf(LongStream.range(antes + 50, antes + 110).boxed().toList());
+        assertThat(siguienteDeLaSecuencia()).isEqualTo(antes + 150);
+
+        // Hibernate sigue tomando sus propios bloques de la misma secuencia, sin chocar
+        assertThat(pacienteService.crearPaciente(paciente()).getId())
+                .isNotIn(LongStream.range(antes + 50, antes + 110).boxed().toList());
+    }
+
+    @Test
+    void failedBatchIsRetriedOneRowAtATime() {
+        importar(fila("38300001", "primera@hospital.com"));
+        // Como un alta concurrente entre el chequeo de existentes y el INSERT
+        doReturn(Set.of()).when(usuarioRepository).findEmailHashesExistentes(any());
+
+        ImportacionResponse response = importar(
+                fila("38300010", "antes@hospital.com"),
+                fila("38300011", "primera@hospital.com"),
+                fila("38300012", "despues@hospital.com"));
+
+        assertThat(response.getTotalFilas()).isEqualTo(3);
+        assertThat(response.getImportadas()).isEqualTo(2);
+        assertThat(response.getErrores())
+                .extracting(ErrorImportacion::getFila, ErrorImportacion::getCampo, ErrorImportacion::getMensaje)
+                .containsExactly(tuple(2L, "email", "Ya existe un usuario con ese email"));
+        assertThat(idDe("antes@hospital.com")).isNotNull();
+        assertThat(idDe("despues@hospital.com")).isNotNull();
+    }
+
+    private ImportacionResponse importar(String... filas) {
+        byte[] archivo = (ENCABEZADO + "\n" + String.join("\n", filas)).getBytes(StandardCharsets.UTF_8);
+        return pacienteImportService.importar(new ByteArrayInputStream(archivo), MediaType.valueOf("text/csv"));
+    }
+
+    private static String fila(String dni, String email) {
+        return "Ana,Importada," + dni + "," + email + ",Secreta123,1155550000,1990-01-01,Mitre 100,AF-" + dni + ",OSDE";
+    }
+
+    private Long idDe(String email) {
+        return usuarioRepository.findCredencialByEmailHash(piiCipher.blindIndexEmail(email)).orElseThrow().getId();
+    }
+
+    private long siguienteDeLaSecuencia() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR usuario_seq", Long.class);
+    }
+}
@@ -0,0 +1,98 @@
+package com.SGH.hospital.service;
+
+import com.SGH.hospital.dto.paciente.PacienteRequest;
+import com.SGH.hospital.dto.paciente.PacienteResponse;
+import com.SGH.hospital.enums.EstadoUsuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las lecturas de pacientes se proyectan directo a PacienteResponse: ninguna entidad
+ * pasa por el contexto de persistencia y los datos cifrados llegan descifrados.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class PacienteProyeccionTest {
+
+    private static final int PACIENTES = 12;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static Long primerId;
+
+    @BeforeEach
+    void cargarDatos() {
+        if (primerId != null) {
+            return;
+        }
+        for (int i = 0; i < PACIENTES; i++) {
+            PacienteResponse creado = pacienteService.crearPaciente(PacienteRequest.builder()
+                    .nombre("Ana")
+                    .apellido(String.format("Proyeccion%02d", i))
+                    .dni(String.valueOf(32_000_000 + i))
+                    .email("proyeccion" + i + "@hospital.com")
+                    .password("Secreta123")
+                    .telefono("1155551234")
+                    .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                    .direccion("Av. Siempre Viva 742")
+                    .numeroAfiliado("AF-" + i)
+                    .obraSocial("OSDE")
+                    .build());
+            if (primerId == null) {
+                primerId = creado.getId();
+            }
+        }
+    }
+
+    @Test
+    void pagesAreProjectedWithoutLoadingEntities() {
+        Statistics statistics = statistics();
+
+        Page<PacienteResponse> page = pacienteService.buscarPorNombreOApellido(
+                "proyeccion", PageRequest.of(0, 5, Sort.by("apellido")));
+
+        assertThat(page.getTotalElements()).isEqualTo(PACIENTES);
+        assertThat(page.getContent()).extracting(PacienteResponse::getApellido)
+                .containsExactly("Proyeccion00", "Proyeccion01", "Proyeccion02", "Proyeccion03", "Proyeccion04");
+        assertThat(page.getContent().get(0).getDni()).isEqualTo("32000000");
+        assertThat(page.getContent().get(0).getEstado()).isEqualTo(EstadoUsuario.ACTIVO);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void singleReadsAreProjectedToo() {
+        Statistics statistics = statistics();
+
+        PacienteResponse porId = pacienteService.obtenerPorId(primerId);
+        PacienteResponse porEmail = pacienteService.obtenerPorEmail("proyeccion0@hospital.com");
+
+        assertThat(porId.getEmail()).isEqualTo("proyeccion0@hospital.com");
+        assertThat(porId.getTelefono()).isEqualTo("1155551234");
+        assertThat(porEmail).isEqualTo(porId);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
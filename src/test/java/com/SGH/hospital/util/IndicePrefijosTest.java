@@ -0,0 +1,52 @@
+package com.SGH.hospital.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndicePrefijosTest {
+
+    @Test
+    void findsEveryKeyStartingWithThePrefix() {
+        IndicePrefijos indice = new IndicePrefijos();
+        indice.agregar("gonzalez", 1);
+        indice.agregar("gonzalo", 2);
+        indice.agregar("gomez", 3);
+        indice.agregar("gonzalez", 4);
+
+        assertThat(indice.buscar("gonz", 10)).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(indice.buscar("gom", 10)).containsExactly(3L);
+        assertThat(indice.buscar("x", 10)).isEmpty();
+        assertThat(indice.claves()).isEqualTo(3);
+    }
+
+    @Test
+    void returnsOneExtraIdWhenTruncated() {
+        IndicePrefijos indice = new IndicePrefijos();
+        for (long id = 0; id < 20; id++) {
+            indice.agregar("perez" + id, id);
+        }
+
+        assertThat(indice.buscar("perez", 5)).hasSize(6);
+    }
+
+    @Test
+    void removingTheLastIdDropsTheKey() {
+        IndicePrefijos indice = new IndicePrefijos();
+        indice.agregar("ruiz", 1);
+        indice.agregar("ruiz", 2);
+
+        indice.quitar("ruiz", 1);
+        assertThat(indice.buscar("ru", 10)).containsExactly(2L);
+
+        indice.quitar("ruiz", 2);
+        assertThat(indice.claves()).isZero();
+    }
+
+    @Test
+    void normalizesAccentsCaseAndPunctuation() {
+        assertThat(IndicePrefijos.normalizar("Núñez MÜLLER")).isEqualTo("nunez muller");
+        assertThat(IndicePrefijos.compactar("30.111.222")).isEqualTo("30111222");
+        assertThat(IndicePrefijos.compactar("AF-12/b")).isEqualTo("af12b");
+    }
+}
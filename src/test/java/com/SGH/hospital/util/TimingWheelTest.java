@@ -0,0 +1,79 @@
+package com.SGH.hospital.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1_000;
+
+    @Test
+    void expiresKeysAtTheirTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("a", 3_000);
+        wheel.schedule("b", 5_500);
+
+        assertThat(wheel.advance(2_999)).isEmpty();
+        assertThat(wheel.advance(3_000)).containsExactly("a");
+        assertThat(wheel.advance(5_000)).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 10_000);
+        wheel.schedule("vencido", 1_000);
+
+        assertThat(wheel.advance(10_500)).isEmpty();
+        assertThat(wheel.advance(11_000)).containsExactly("vencido");
+    }
+
+    @Test
+    void cancelAndRescheduleReplaceThePendingDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule(1L, 2_000);
+        wheel.schedule(2L, 2_000);
+        wheel.schedule(1L, 90_000);
+
+        assertThat(wheel.cancel(2L)).isTrue();
+        assertThat(wheel.cancel(2L)).isFalse();
+        assertThat(wheel.scheduleIfAbsent(1L, 1_000)).isFalse();
+        assertThat(wheel.advance(89_000)).isEmpty();
+        assertThat(wheel.advance(90_000)).containsExactly(1L);
+    }
+
+    @Test
+    void cascadesAcrossLevelsAndBeyondTheHorizon() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        long horizonte = (1L << 24) * TICK;
+        for (long id = 0; id < 5_000; id++) {
+            // Hasta el doble del horizonte de la rueda
+            long deadline = (long) (random.nextDouble() * 2 * horizonte);
+            deadlines.put(id, deadline / TICK);
+            wheel.schedule(id, deadline);
+        }
+
+        List<Long> vencidos = new ArrayList<>();
+        long ahora = 0;
+        long paso = 3_600 * TICK;
+        while (vencidos.size() < deadlines.size()) {
+            ahora += paso;
+            for (Long id : wheel.advance(ahora)) {
+                long tick = deadlines.get(id);
+                assertThat(tick).isLessThanOrEqualTo(ahora / TICK).isGreaterThan((ahora - paso) / TICK);
+                vencidos.add(id);
+            }
+        }
+        assertThat(vencidos).doesNotHaveDuplicates().hasSize(5_000);
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,43 @@
+package com.SGH.hospital.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long UN_SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        TokenBucket bucket = new TokenBucket(5, UN_SEGUNDO, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume(1, 0)).isZero();
+        }
+        assertThat(bucket.tryConsume(1, 0)).isEqualTo(UN_SEGUNDO);
+        assertThat(bucket.available(0)).isZero();
+    }
+
+    @Test
+    void refillsOverTimeAndChargesRouteCost() {
+        TokenBucket bucket = new TokenBucket(10, UN_SEGUNDO, 0);
+
+        assertThat(bucket.tryConsume(10, 0)).isZero();
+        // Tras 3 segundos hay 3 tokens: alcanza para costo 3 pero no para 4
+        assertThat(bucket.tryConsume(4, 3 * UN_SEGUNDO)).isEqualTo(UN_SEGUNDO);
+        assertThat(bucket.tryConsume(3, 3 * UN_SEGUNDO)).isZero();
+        assertThat(bucket.available(3 * UN_SEGUNDO)).isZero();
+    }
+
+    @Test
+    void idleBucketDoesNotAccumulateMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(3, UN_SEGUNDO, 0);
+
+        assertThat(bucket.available(100 * UN_SEGUNDO)).isEqualTo(3);
+        assertThat(bucket.tryConsume(3, 100 * UN_SEGUNDO)).isZero();
+        assertThat(bucket.tryConsume(1, 100 * UN_SEGUNDO)).isPositive();
+    }
+}
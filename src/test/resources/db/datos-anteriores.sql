@@ -0,0 +1,18 @@
+-- Datos como los dejaba la versión anterior a Flyway: ids de columnas IDENTITY, datos
+-- personales en texto plano, sin fecha de alta y sin apellido. Contraseña: secreta123.
+
+insert into especialidades (id, nombre, activa) values (1, 'Cardiología', true), (2, 'Pediatría', true);
+
+insert into usuario (id, tipo_usuario, nombre, apellido, dni, email, telefono, password, rol, estado, created_at, updated_at) values
+    (1, 'PACIENTE', 'Ana', 'Paz', '30.123.456', 'Ana.Paz@hospital.com', '1144445555',
+     '$2a$04$R1IV.ZbZrkS.CTzDkUZdeuiGXK8OdeDFXR.W1Ql35oGLVHYNxTSEK', 'PACIENTE', 'ACTIVO', null, null),
+    (2, 'MEDICO', 'Bruno', null, '28111222', 'bruno@hospital.com', null,
+     '$2a$04$R1IV.ZbZrkS.CTzDkUZdeuiGXK8OdeDFXR.W1Ql35oGLVHYNxTSEK', 'MEDICO', 'ACTIVO',
+     '2023-05-10 09:00:00', '2023-05-10 09:00:00'),
+    (75, 'PACIENTE', 'Carla', 'Ruiz', '33444555', 'carla@hospital.com', '1166667777',
+     '$2a$04$R1IV.ZbZrkS.CTzDkUZdeuiGXK8OdeDFXR.W1Ql35oGLVHYNxTSEK', 'PACIENTE', 'ACTIVO', null, '2024-02-01 10:30:00');
+
+insert into paciente (id, numero_afiliado, obra_social) values (1, 'AF-ANT-1', 'OSDE'), (75, 'AF-ANT-75', null);
+insert into medico (id, matricula, anios_experiencia, biografia, disponible) values (2, 'MN-ANT-2', 12, null, true);
+insert into medico_especialidad (medico_id, especialidad_id) values (2, 1);
+insert into horarios_atencion (id, medico_id, dia_semana, hora_inicio, hora_fin, activo) values (3, 2, 'MONDAY', '08:00', '12:00', true);
@@ -0,0 +1,18 @@
+-- Esquema que generaba Hibernate con ddl-auto=update antes de Flyway: es el de las bases
+-- que se marcan como V1 (spring.flyway.baseline-on-migrate) sin ejecutar V1. Los tests
+-- sobre PostgreSQL arrancan desde acá para probar la migración de esas bases.
+
+create table especialidades (activa boolean not null, id bigint generated by default as identity, nombre varchar(100) not null, primary key (id));
+create table horarios_atencion (activo boolean not null, hora_fin time(0) not null, hora_inicio time(0) not null, id bigint generated by default as identity, medico_id bigint not null, dia_semana varchar(255) not null check (dia_semana in ('MONDAY','TUESDAY','WEDNESDAY','THURSDAY','FRIDAY','SATURDAY','SUNDAY')), primary key (id));
+create table medico (anios_experiencia integer not null, disponible boolean not null, matricula varchar(20) not null, id bigint not null, biografia varchar(1000), primary key (id));
+create table medico_especialidad (medico_id bigint not null, especialidad_id bigint not null, primary key (medico_id, especialidad_id));
+create table paciente (id bigint not null, numero_afiliado varchar(255) not null, obra_social varchar(255), primary key (id));
+create table usuario (fecha_nacimiento date, created_at timestamp(6), id bigint generated by default as identity, updated_at timestamp(6), tipo_usuario varchar(31) not null check (tipo_usuario in ('MEDICO','PACIENTE')), apellido varchar(255), direccion varchar(255), dni varchar(255), email varchar(255) not null, estado varchar(255) check (estado in ('ACTIVO','INACTIVO','SUSPENDIDO')), nombre varchar(255), password varchar(255) not null, rol varchar(255) check (rol in ('ADMIN','MEDICO','PACIENTE','ENFERMERO')), telefono varchar(255), primary key (id));
+alter table if exists especialidades add constraint UKkq918o2plf4a6b25osvl96dj7 unique (nombre);
+alter table if exists medico add constraint UKidl2xshplevmr5nr7srauj9c0 unique (matricula);
+alter table if exists usuario add constraint UK5171l57faosmj8myawaucatdw unique (email);
+alter table if exists horarios_atencion add constraint FKrshp7g1winw5y0kkv4x1etrco foreign key (medico_id) references medico;
+alter table if exists medico add constraint FKhwcpg2pf8x1908r4evgekm0cl foreign key (id) references usuario;
+alter table if exists medico_especialidad add constraint FKboaq99cmv18eo1g28x5iq4x73 foreign key (especialidad_id) references especialidades;
+alter table if exists medico_especialidad add constraint FK8mm2133ovtx66w2qd2fgthyd4 foreign key (medico_id) references medico;
+alter table if exists paciente add constraint FKnk7alk2a1iathi4h7mqftlbn foreign key (id) references usuario;